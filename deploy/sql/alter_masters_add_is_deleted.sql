@@ -0,0 +1,21 @@
+-- ========================================
+-- TALLY MASTERS: SOFT DELETE
+-- ========================================
+-- groups and ledgers already have is_deleted; the other masters get it too, so that a full-snapshot
+-- sync (?fullSnapshot=true) and DELETE /.../master/{masterId}?cmpId= can soft-delete them.
+-- A row that is synced again is restored (is_deleted back to FALSE).
+
+DO $$
+DECLARE
+    t TEXT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY[
+        'currency', 'units', 'stock_groups', 'stock_categories', 'godowns', 'stock_items',
+        'taxunit', 'vouchertype', 'cost_categories', 'costcentre'
+    ]
+    LOOP
+        EXECUTE format('ALTER TABLE %I ADD COLUMN IF NOT EXISTS is_deleted BOOLEAN DEFAULT FALSE', t);
+        -- the column may already have been added without a default (Hibernate ddl-auto)
+        EXECUTE format('UPDATE %I SET is_deleted = FALSE WHERE is_deleted IS NULL', t);
+    END LOOP;
+END $$;
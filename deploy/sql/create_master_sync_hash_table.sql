@@ -0,0 +1,154 @@
+-- Table: master_sync_hash
+-- Leaf level of the per-company, per-master hash tree served by GET /sync/companies/{cmpId}/hash/{entityType}.
+-- One row per bucket of 256 masterIds (bucket = masterid >> 8) that holds at least one live master:
+-- hash is the XOR over those masters of the first 8 bytes of md5('<masterid>:<alterid>').
+-- Maintained by the triggers below for every write to the master tables; rebuilt on demand with
+-- POST /sync/companies/{cmpId}/hash/{entityType}/rebuild.
+CREATE TABLE IF NOT EXISTS master_sync_hash (
+    cmpid BIGINT NOT NULL,
+    entity_type VARCHAR(50) NOT NULL,
+    bucket BIGINT NOT NULL,
+    hash BIGINT NOT NULL,
+    master_count INTEGER NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (cmpid, entity_type, bucket)
+);
+
+-- Companies whose tree is complete. Only those are maintained by the triggers below; any other company is
+-- built from its master table the first time its tree is read (MasterHashTree.root), which also heals trees
+-- left partial by older versions that only hashed the buckets a bulk sync touched.
+CREATE TABLE IF NOT EXISTS master_sync_hash_built (
+    cmpid BIGINT NOT NULL,
+    entity_type VARCHAR(50) NOT NULL,
+    built_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (cmpid, entity_type)
+);
+
+-- Advisory lock key of one company's tree: writers hold it shared until commit, a rebuild holds it exclusive,
+-- so a rebuild neither misses a write in flight nor is overwritten by one
+CREATE OR REPLACE FUNCTION master_sync_hash_lock_key(entity_type TEXT, cmpid BIGINT) RETURNS BIGINT AS $$
+    SELECT (hashtext('master_sync_hash:' || entity_type)::BIGINT << 32) # cmpid
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Applies one statement's changes to the buckets of built companies: XOR out the old live rows, XOR in the new
+-- ones. Every write path is covered - bulk sync, COPY, staging merge, single-record JPA saves, manual SQL.
+-- TG_ARGV[0] is the entity type; old_rows / new_rows are the transition tables of the firing statement.
+CREATE OR REPLACE FUNCTION master_sync_hash_apply() RETURNS trigger AS $$
+DECLARE
+    cmpids BIGINT[];
+    buckets BIGINT[];
+    hashes BIGINT[];
+    counts INTEGER[];
+BEGIN
+    -- per (cmpid, bucket): XOR and count of the rows that became live minus those that stopped being live;
+    -- rows whose masterId, alterId and deletion did not change cancel out
+    IF TG_OP = 'INSERT' THEN
+        SELECT array_agg(cmpid), array_agg(bucket), array_agg(hash), array_agg(n)
+        INTO cmpids, buckets, hashes, counts
+        FROM (SELECT cmpid, masterid >> 8 AS bucket,
+                     bit_xor(('x' || left(md5(masterid || ':' || COALESCE(alterid::text, '')), 16))::bit(64)::bigint) AS hash,
+                     COUNT(*)::integer AS n
+              FROM new_rows
+              WHERE cmpid IS NOT NULL AND masterid IS NOT NULL AND is_deleted IS NOT TRUE
+              GROUP BY 1, 2) d;
+    ELSIF TG_OP = 'DELETE' THEN
+        SELECT array_agg(cmpid), array_agg(bucket), array_agg(hash), array_agg(n)
+        INTO cmpids, buckets, hashes, counts
+        FROM (SELECT cmpid, masterid >> 8 AS bucket,
+                     bit_xor(('x' || left(md5(masterid || ':' || COALESCE(alterid::text, '')), 16))::bit(64)::bigint) AS hash,
+                     -COUNT(*)::integer AS n
+              FROM old_rows
+              WHERE cmpid IS NOT NULL AND masterid IS NOT NULL AND is_deleted IS NOT TRUE
+              GROUP BY 1, 2) d;
+    ELSE
+        SELECT array_agg(cmpid), array_agg(bucket), array_agg(hash), array_agg(n)
+        INTO cmpids, buckets, hashes, counts
+        FROM (SELECT cmpid, bucket, bit_xor(hash) AS hash, SUM(n)::integer AS n
+              FROM (SELECT cmpid, masterid >> 8 AS bucket,
+                           ('x' || left(md5(masterid || ':' || COALESCE(alterid::text, '')), 16))::bit(64)::bigint AS hash,
+                           1 AS n
+                    FROM new_rows
+                    WHERE cmpid IS NOT NULL AND masterid IS NOT NULL AND is_deleted IS NOT TRUE
+                    UNION ALL
+                    SELECT cmpid, masterid >> 8,
+                           ('x' || left(md5(masterid || ':' || COALESCE(alterid::text, '')), 16))::bit(64)::bigint,
+                           -1
+                    FROM old_rows
+                    WHERE cmpid IS NOT NULL AND masterid IS NOT NULL AND is_deleted IS NOT TRUE) r
+              GROUP BY 1, 2
+              HAVING bit_xor(hash) <> 0 OR SUM(n) <> 0) d;
+    END IF;
+    IF cmpids IS NULL THEN
+        RETURN NULL;
+    END IF;
+
+    -- before reading master_sync_hash_built: a rebuild of the company still running is waited for and seen
+    PERFORM pg_advisory_xact_lock_shared(master_sync_hash_lock_key(TG_ARGV[0], c.cmpid))
+    FROM (SELECT DISTINCT cmpid FROM unnest(cmpids) AS u(cmpid) ORDER BY cmpid) c;
+
+    INSERT INTO master_sync_hash AS h (cmpid, entity_type, bucket, hash, master_count, updated_at)
+    SELECT d.cmpid, TG_ARGV[0], d.bucket, d.hash, d.n, CURRENT_TIMESTAMP
+    FROM unnest(cmpids, buckets, hashes, counts) AS d(cmpid, bucket, hash, n)
+    JOIN master_sync_hash_built b ON b.cmpid = d.cmpid AND b.entity_type = TG_ARGV[0]
+    ORDER BY d.cmpid, d.bucket
+    ON CONFLICT (cmpid, entity_type, bucket) DO UPDATE
+        SET hash = h.hash # EXCLUDED.hash,
+            master_count = h.master_count + EXCLUDED.master_count,
+            updated_at = EXCLUDED.updated_at;
+
+    DELETE FROM master_sync_hash h
+    USING unnest(cmpids, buckets) AS d(cmpid, bucket)
+    WHERE h.cmpid = d.cmpid AND h.entity_type = TG_ARGV[0] AND h.bucket = d.bucket AND h.master_count <= 0;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- TRUNCATE empties every company of the master; their trees are rebuilt (empty) on the next read
+CREATE OR REPLACE FUNCTION master_sync_hash_truncated() RETURNS trigger AS $$
+BEGIN
+    DELETE FROM master_sync_hash WHERE entity_type = TG_ARGV[0];
+    DELETE FROM master_sync_hash_built WHERE entity_type = TG_ARGV[0];
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Triggers with transition tables can only have one event each, hence four per table
+DO $$
+DECLARE
+    m TEXT[];
+BEGIN
+    FOREACH m SLICE 1 IN ARRAY ARRAY[
+        ARRAY['groups',           'group'],
+        ARRAY['ledgers',          'ledger'],
+        ARRAY['currency',         'currency'],
+        ARRAY['units',            'units'],
+        ARRAY['stock_groups',     'stockgroup'],
+        ARRAY['stock_categories', 'stockcategory'],
+        ARRAY['godowns',          'godown'],
+        ARRAY['stock_items',      'stockitem'],
+        ARRAY['taxunit',          'taxunit'],
+        ARRAY['vouchertype',      'vouchertype'],
+        ARRAY['cost_categories',  'costcategory'],
+        ARRAY['costcentre',       'costcenter']
+    ]
+    LOOP
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', m[1] || '_sync_hash_insert', m[1]);
+        EXECUTE format('CREATE TRIGGER %I AFTER INSERT ON %I REFERENCING NEW TABLE AS new_rows '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION master_sync_hash_apply(%L)',
+                       m[1] || '_sync_hash_insert', m[1], m[2]);
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', m[1] || '_sync_hash_update', m[1]);
+        EXECUTE format('CREATE TRIGGER %I AFTER UPDATE ON %I REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION master_sync_hash_apply(%L)',
+                       m[1] || '_sync_hash_update', m[1], m[2]);
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', m[1] || '_sync_hash_delete', m[1]);
+        EXECUTE format('CREATE TRIGGER %I AFTER DELETE ON %I REFERENCING OLD TABLE AS old_rows '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION master_sync_hash_apply(%L)',
+                       m[1] || '_sync_hash_delete', m[1], m[2]);
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', m[1] || '_sync_hash_truncate', m[1]);
+        EXECUTE format('CREATE TRIGGER %I AFTER TRUNCATE ON %I '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION master_sync_hash_truncated(%L)',
+                       m[1] || '_sync_hash_truncate', m[1], m[2]);
+    END LOOP;
+END $$;
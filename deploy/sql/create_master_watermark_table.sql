@@ -0,0 +1,86 @@
+-- Table: master_watermark
+-- Per company and master: the highest alterid seen and a counter of changed rows. The company read endpoints
+-- (/ledgers/company/{cmpId}/..., /groups/company/{cmpId}/..., ...) use it as their ETag, so a poll that is
+-- answered 304 reads one row here and nothing from the master table (see ConditionalGetConfig).
+-- Kept by statement-level triggers on the master tables below: every INSERT / UPDATE / DELETE statement, from
+-- the bulk sync or a single-record endpoint, adds its row count per company. TRUNCATE bumps every company.
+CREATE TABLE IF NOT EXISTS master_watermark (
+    cmpid BIGINT NOT NULL,
+    entity_type VARCHAR(50) NOT NULL,
+    max_alter_id BIGINT NOT NULL DEFAULT 0,
+    change_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (cmpid, entity_type)
+);
+
+-- changed_rows is the transition table of the firing statement (new rows, or old rows for a DELETE);
+-- TG_ARGV[0] is the entity type
+CREATE OR REPLACE FUNCTION master_watermark_bump() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO master_watermark AS w (cmpid, entity_type, max_alter_id, change_count, updated_at)
+    SELECT cmpid, TG_ARGV[0], COALESCE(MAX(alterid), 0), COUNT(*), CURRENT_TIMESTAMP
+    FROM changed_rows
+    WHERE cmpid IS NOT NULL
+    GROUP BY cmpid
+    ON CONFLICT (cmpid, entity_type) DO UPDATE
+        SET max_alter_id = GREATEST(w.max_alter_id, EXCLUDED.max_alter_id),
+            change_count = w.change_count + EXCLUDED.change_count,
+            updated_at = EXCLUDED.updated_at;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION master_watermark_truncated() RETURNS trigger AS $$
+BEGIN
+    UPDATE master_watermark
+    SET change_count = change_count + 1, updated_at = CURRENT_TIMESTAMP
+    WHERE entity_type = TG_ARGV[0];
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Triggers with transition tables can only have one event each, hence three per table.
+-- Existing rows are counted in once, for companies that have no watermark yet.
+DO $$
+DECLARE
+    m TEXT[];
+BEGIN
+    FOREACH m SLICE 1 IN ARRAY ARRAY[
+        ARRAY['groups',           'group'],
+        ARRAY['ledgers',          'ledger'],
+        ARRAY['currency',         'currency'],
+        ARRAY['units',            'units'],
+        ARRAY['stock_groups',     'stockgroup'],
+        ARRAY['stock_categories', 'stockcategory'],
+        ARRAY['godowns',          'godown'],
+        ARRAY['stock_items',      'stockitem'],
+        ARRAY['taxunit',          'taxunit'],
+        ARRAY['vouchertype',      'vouchertype'],
+        ARRAY['cost_categories',  'costcategory'],
+        ARRAY['costcentre',       'costcenter']
+    ]
+    LOOP
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', m[1] || '_watermark_insert', m[1]);
+        EXECUTE format('CREATE TRIGGER %I AFTER INSERT ON %I REFERENCING NEW TABLE AS changed_rows '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION master_watermark_bump(%L)',
+                       m[1] || '_watermark_insert', m[1], m[2]);
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', m[1] || '_watermark_update', m[1]);
+        EXECUTE format('CREATE TRIGGER %I AFTER UPDATE ON %I REFERENCING NEW TABLE AS changed_rows '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION master_watermark_bump(%L)',
+                       m[1] || '_watermark_update', m[1], m[2]);
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', m[1] || '_watermark_delete', m[1]);
+        EXECUTE format('CREATE TRIGGER %I AFTER DELETE ON %I REFERENCING OLD TABLE AS changed_rows '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION master_watermark_bump(%L)',
+                       m[1] || '_watermark_delete', m[1], m[2]);
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', m[1] || '_watermark_truncate', m[1]);
+        EXECUTE format('CREATE TRIGGER %I AFTER TRUNCATE ON %I '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION master_watermark_truncated(%L)',
+                       m[1] || '_watermark_truncate', m[1], m[2]);
+
+        EXECUTE format('INSERT INTO master_watermark (cmpid, entity_type, max_alter_id, change_count) '
+                       'SELECT cmpid, %L, COALESCE(MAX(alterid), 0), COUNT(*) FROM %I '
+                       'WHERE cmpid IS NOT NULL GROUP BY cmpid ON CONFLICT (cmpid, entity_type) DO NOTHING',
+                       m[2], m[1]);
+    END LOOP;
+END $$;
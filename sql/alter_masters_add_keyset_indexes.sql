@@ -0,0 +1,37 @@
+-- ========================================
+-- TALLY MASTERS: KEYSET PAGINATION INDEXES
+-- ========================================
+-- The list endpoints page with WHERE cmpid = ? AND <key> > <last key> ORDER BY <key> LIMIT n
+-- (see KeysetPage). These indexes let each page start at the cursor instead of
+-- reading and sorting every row of the company:
+--   (cmpid, <id>)         ?sort=id (default)
+--   (cmpid, <name>, <id>) ?sort=name
+--   (<name>, <id>)        ?sort=name on the lists across all companies
+
+DO $$
+DECLARE
+    m TEXT[];
+BEGIN
+    FOREACH m SLICE 1 IN ARRAY ARRAY[
+        ARRAY['groups',           'grpid',            'grp_name'],
+        ARRAY['ledgers',          'ledid',            'led_name'],
+        ARRAY['currency',         'currency_id',      'name'],
+        ARRAY['units',            'unit_id',          'unit_name'],
+        ARRAY['stock_groups',     'stockgroup_id',    'name'],
+        ARRAY['stock_categories', 'stockcategory_id', 'name'],
+        ARRAY['godowns',          'godown_id',        'name'],
+        ARRAY['stock_items',      'stockitem_id',     'name'],
+        ARRAY['taxunit',          'taxunit_id',       'name'],
+        ARRAY['vouchertype',      'vouchertype_id',   'name'],
+        ARRAY['cost_categories',  'costcategory_id',  'name'],
+        ARRAY['costcentre',       'costcentre_id',    'name']
+    ]
+    LOOP
+        EXECUTE format('CREATE INDEX IF NOT EXISTS %I ON %I (cmpid, %I)',
+                       'idx_' || m[1] || '_cmpid_id', m[1], m[2]);
+        EXECUTE format('CREATE INDEX IF NOT EXISTS %I ON %I (cmpid, %I, %I)',
+                       'idx_' || m[1] || '_cmpid_name_id', m[1], m[3], m[2]);
+        EXECUTE format('CREATE INDEX IF NOT EXISTS %I ON %I (%I, %I)',
+                       'idx_' || m[1] || '_name_id', m[1], m[3], m[2]);
+    END LOOP;
+END $$;
@@ -0,0 +1,26 @@
+-- ========================================
+-- TALLY MASTERS: UNIQUE (cmpid, masterid)
+-- ========================================
+-- Required by the bulk sync path (INSERT ... ON CONFLICT (cmpid, masterid) DO UPDATE).
+-- masterid is Tally's identifier and is only unique within a company.
+
+-- Check for duplicates first - the constraint cannot be added while any exist, e.g.:
+-- SELECT cmpid, masterid, COUNT(*) FROM ledgers GROUP BY cmpid, masterid HAVING COUNT(*) > 1;
+
+DO $$
+DECLARE
+    t TEXT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY[
+        'groups', 'ledgers', 'currency', 'units', 'stock_groups', 'stock_categories',
+        'godowns', 'stock_items', 'taxunit', 'vouchertype', 'cost_categories', 'costcentre'
+    ]
+    LOOP
+        IF NOT EXISTS (
+            SELECT 1 FROM pg_constraint WHERE conname = 'uk_' || t || '_cmpid_masterid'
+        ) THEN
+            EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I UNIQUE (cmpid, masterid)',
+                           t, 'uk_' || t || '_cmpid_masterid');
+        END IF;
+    END LOOP;
+END $$;
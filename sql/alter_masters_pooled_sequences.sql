@@ -0,0 +1,27 @@
+-- ========================================
+-- TALLY MASTERS: POOLED ID SEQUENCES
+-- ========================================
+-- The entities use @SequenceGenerator(allocationSize = 50) instead of IDENTITY, so Hibernate reserves
+-- 50 IDs per nextval() and can batch its INSERTs. The database sequence must step by the same amount,
+-- otherwise Hibernate refuses to start (sequence increment size mismatch).
+--
+-- Existing IDs are not touched: the next nextval() simply continues 50 above the current value.
+-- Rows inserted through the column DEFAULT (bulk sync, COPY) still take one nextval() each,
+-- so their IDs are spaced 50 apart.
+
+DO $$
+DECLARE
+    s TEXT;
+BEGIN
+    FOREACH s IN ARRAY ARRAY[
+        'companies_cmpid_seq', 'groups_grpid_seq', 'ledgers_ledid_seq', 'currency_currency_id_seq',
+        'units_unit_id_seq', 'stock_groups_stockgroup_id_seq', 'stock_categories_stockcategory_id_seq',
+        'godowns_godown_id_seq', 'stock_items_stockitem_id_seq', 'taxunit_taxunit_id_seq',
+        'vouchertype_vouchertype_id_seq', 'cost_categories_costcategory_id_seq', 'costcentre_costcentre_id_seq'
+    ]
+    LOOP
+        IF to_regclass(s) IS NOT NULL THEN
+            EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', s);
+        END IF;
+    END LOOP;
+END $$;
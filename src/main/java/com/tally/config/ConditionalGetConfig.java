@@ -0,0 +1,109 @@
+package com.tally.config;
+
+import com.tally.sync.MasterDescriptor;
+import com.tally.sync.MasterDescriptors;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Conditional GETs on the company read endpoints: GET /ledgers/company/{cmpId}, /groups/company/{cmpId}/active,
+ * /stock-items/company/{cmpId}/export, ...
+ *
+ * Each response carries a weak ETag made of the company's watermark for that master - max alterId and change
+ * counter in master_watermark, kept current by triggers on the master table (sql/create_master_watermark_table.sql).
+ * When If-None-Match still matches, the interceptor answers 304 before the controller runs, so a poll costs one
+ * primary-key lookup. The watermark is read before the data, so a response is never tagged newer than it is.
+ */
+@Configuration
+public class ConditionalGetConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        Map<String, MasterDescriptor<?>> masters = Map.of(
+                "/ledgers", MasterDescriptors.LEDGER,
+                "/groups", MasterDescriptors.GROUP,
+                "/stock-items", MasterDescriptors.STOCK_ITEM,
+                "/stock-groups", MasterDescriptors.STOCK_GROUP,
+                "/stock-categories", MasterDescriptors.STOCK_CATEGORY,
+                "/godowns", MasterDescriptors.GODOWN,
+                "/units", MasterDescriptors.UNITS);
+        masters.forEach((path, descriptor) -> registry
+                .addInterceptor(new WatermarkInterceptor(jdbcTemplate, descriptor.getEntityType()))
+                .addPathPatterns(path + "/company/*", path + "/company/*/**"));
+    }
+
+    private static final class WatermarkInterceptor implements HandlerInterceptor {
+
+        private static final String WATERMARK_SQL =
+                "SELECT max_alter_id, change_count FROM master_watermark WHERE cmpid = ? AND entity_type = ?";
+        private static final Logger logger = LoggerFactory.getLogger(ConditionalGetConfig.class);
+        private static final AtomicBoolean warned = new AtomicBoolean();
+
+        private final JdbcTemplate jdbcTemplate;
+        private final String entityType;
+
+        WatermarkInterceptor(JdbcTemplate jdbcTemplate, String entityType) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.entityType = entityType;
+        }
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+                return true;
+            }
+            Long cmpId = cmpId(request);
+            if (cmpId == null) {
+                return true;
+            }
+            String etag;
+            try {
+                List<String> watermark = jdbcTemplate.query(WATERMARK_SQL,
+                        (rs, rowNum) -> rs.getLong("max_alter_id") + "." + rs.getLong("change_count"),
+                        cmpId, entityType);
+                etag = "W/\"" + entityType + "-" + (watermark.isEmpty() ? "0.0" : watermark.get(0)) + "\"";
+            } catch (DataAccessException e) {
+                // without the table (migration not applied) the endpoints still work, just without ETags
+                if (warned.compareAndSet(false, true)) {
+                    logger.warn("No ETags on company reads: {}", e.getMostSpecificCause().getMessage());
+                }
+                return true;
+            }
+            // may be stored, but must be revalidated on every use
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            // sets the ETag header, and the 304 status when If-None-Match matches
+            return !new ServletWebRequest(request, response).checkNotModified(etag);
+        }
+
+        private static Long cmpId(HttpServletRequest request) {
+            Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+            if (variables instanceof Map<?, ?> map && map.get("cmpId") instanceof String value) {
+                try {
+                    return Long.valueOf(value);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -94,9 +94,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
     
     private boolean isSyncEndpoint(String path) {
+        // Connector writes only. POST /sync/jobs/{entityType} is not skipped: it is permitted without a token,
+        // but a token it does carry is checked here, since the job's progress goes to that user's WebSocket
         return path.endsWith("/sync") || 
-               path.matches(".*/sync$") ||
-               path.contains("/sync/");
+               path.matches(".*/sync$");
     }
     
     private boolean isPublicEndpoint(String path) {
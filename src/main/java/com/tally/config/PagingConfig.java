@@ -0,0 +1,45 @@
+package com.tally.config;
+
+import com.tally.util.KeysetPage;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Lets list endpoints declare a {@link KeysetPage} parameter, read from ?cursor=&size=&sort=
+ */
+@Configuration
+public class PagingConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new KeysetPageResolver());
+    }
+
+    private static final class KeysetPageResolver implements HandlerMethodArgumentResolver {
+
+        @Override
+        public boolean supportsParameter(MethodParameter parameter) {
+            return KeysetPage.class.equals(parameter.getParameterType());
+        }
+
+        @Override
+        public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                      NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+            String size = webRequest.getParameter("size");
+            Integer pageSize;
+            try {
+                pageSize = size == null || size.isBlank() ? null : Integer.valueOf(size.trim());
+            } catch (NumberFormatException e) {
+                throw new KeysetPage.InvalidPageException("size must be a number");
+            }
+            return KeysetPage.of(webRequest.getParameter("cursor"), pageSize, webRequest.getParameter("sort"));
+        }
+    }
+}
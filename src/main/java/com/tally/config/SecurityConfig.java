@@ -3,7 +3,9 @@ package com.tally.config;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -13,6 +15,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.header.HeaderWriterFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.cors.CorsConfigurationSource;
 
 @Configuration
@@ -39,19 +43,26 @@ public class SecurityConfig {
                     "/ledgers/sync", "/groups/sync", "/stock-items/sync", 
                     "/stock-groups/sync", "/stock-categories/sync", "/cost-categories/sync",
                     "/cost-centers/sync", "/currencies/sync", "/units/sync", "/godowns/sync",
-                    "/tax-units/sync", "/voucher-types/sync"))
+                    "/tax-units/sync", "/voucher-types/sync")
+                .ignoringRequestMatchers(AntPathRequestMatcher.antMatcher(HttpMethod.POST, "/sync/jobs/*")))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
-                .requestMatchers("OPTIONS", "/**").permitAll()
+                // CORS preflight only; as two strings this was the path patterns "OPTIONS" and "/**", i.e. everything
+                .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers("/ws/**").permitAll()
                 .requestMatchers("/session").permitAll()
                 .requestMatchers("/config/**").permitAll()
+                .requestMatchers("/error").permitAll()
+                // Prometheus scrape and health check
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                 // Sync endpoints - permit all, JWT filter handles authentication
                 .requestMatchers("/ledgers/sync", "/groups/sync", "/stock-items/sync", 
                     "/stock-groups/sync", "/stock-categories/sync", "/cost-categories/sync",
                     "/cost-centers/sync", "/currencies/sync", "/units/sync", "/godowns/sync",
                     "/tax-units/sync", "/voucher-types/sync").permitAll()
+                // Async sync job submit (connector); job status and the other /sync/** endpoints need a JWT
+                .requestMatchers(HttpMethod.POST, "/sync/jobs/*").permitAll()
                 .requestMatchers(org.springframework.http.HttpMethod.PUT, "/companies/*/sync-status").authenticated()
                 .requestMatchers("/api/**").authenticated()
                 .anyRequest().authenticated()
@@ -61,6 +72,15 @@ public class SecurityConfig {
                 .xssProtection(xss -> xss.headerValue(org.springframework.security.web.header.writers.XXssProtectionHeaderWriter.HeaderValue.ENABLED_MODE_BLOCK))
                 .frameOptions(frameOptions -> frameOptions.deny())
                 .referrerPolicy(referrer -> referrer.policy(org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter.ReferrerPolicy.STRICT_ORIGIN_WHEN_CROSS_ORIGIN))
+                // Write the headers before the request is handled: streamed responses (StreamingResponseBody) are
+                // written and committed on another thread while this one is still unwinding the filter chain
+                .withObjectPostProcessor(new ObjectPostProcessor<HeaderWriterFilter>() {
+                    @Override
+                    public <O extends HeaderWriterFilter> O postProcess(O filter) {
+                        filter.setShouldWriteHeadersEagerly(true);
+                        return filter;
+                    }
+                })
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterBefore(securityHeadersFilter, JwtAuthenticationFilter.class);
@@ -0,0 +1,78 @@
+package com.tally.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tally.sync.SyncAdmission;
+import com.tally.sync.SyncRejectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs every sync write (POST .../sync and POST /sync/**, except the journal) through {@link SyncAdmission}.
+ * A rejected sync gets 429 with Retry-After before its body is read; GETs are never held back.
+ * Connectors may send X-Licence-No so that one licence cannot take every slot of the node.
+ */
+@Component
+public class SyncAdmissionFilter extends OncePerRequestFilter {
+
+    private static final String LICENCE_HEADER = "X-Licence-No";
+
+    @Autowired
+    private SyncAdmission syncAdmission;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        // journaling is the burst absorber itself; its applier runs one sync at a time anyway
+        return !"POST".equals(request.getMethod()) || path.startsWith("/sync/journal/")
+                || !(path.endsWith("/sync") || path.startsWith("/sync/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SyncAdmission.Permit permit;
+        try {
+            permit = syncAdmission.admit(licenceOf(request));
+        } catch (SyncRejectedException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("message", e.getMessage() + ", retry in " + e.getRetryAfterSeconds() + "s");
+            body.put("retryAfterSeconds", e.getRetryAfterSeconds());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), body);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permit.release();
+        }
+    }
+
+    private static Long licenceOf(HttpServletRequest request) {
+        String licence = request.getHeader(LICENCE_HEADER);
+        if (licence == null || licence.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(licence.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
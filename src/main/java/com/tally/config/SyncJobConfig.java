@@ -0,0 +1,44 @@
+package com.tally.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class SyncJobConfig {
+
+    /**
+     * Bounded pool for async sync jobs - a full queue rejects the submission instead of piling up payloads
+     */
+    @Bean
+    public ThreadPoolTaskExecutor syncJobExecutor(
+            @Value("${sync.jobs.threads:2}") int threads,
+            @Value("${sync.jobs.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("sync-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Workers for the independent branches of a whole-company sync; each branch holds one DB connection,
+     * so keep this below the connection pool size
+     */
+    @Bean
+    public ThreadPoolTaskExecutor syncMasterExecutor(
+            @Value("${sync.orchestrator.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("sync-master-");
+        executor.initialize();
+        return executor;
+    }
+}
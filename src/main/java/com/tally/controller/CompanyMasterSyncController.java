@@ -0,0 +1,154 @@
+package com.tally.controller;
+
+import com.tally.sync.CompanySyncResult;
+import com.tally.sync.MasterDescriptor;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterHashTree;
+import com.tally.sync.MasterSyncOrchestrator;
+import com.tally.sync.SyncLocks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/sync/companies")
+public class CompanyMasterSyncController {
+
+    @Autowired
+    private MasterSyncOrchestrator masterSyncOrchestrator;
+
+    @Autowired
+    private MasterHashTree masterHashTree;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    /**
+     * POST /sync/companies/{cmpId} - Sync all masters of a company in one request.
+     * Body: {"group": [...], "ledger": [...], "units": [...], ...} keyed by entity type;
+     * any subset of the twelve masters may be sent.
+     * With ?fullSnapshot=true each master sent is the complete list: rows missing from it are soft-deleted.
+     */
+    @PostMapping("/{cmpId}")
+    public ResponseEntity<Map<String, Object>> syncCompany(
+            @PathVariable Long cmpId,
+            @RequestParam(defaultValue = "false") boolean fullSnapshot,
+            InputStream body) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            CompanySyncResult result = masterSyncOrchestrator.syncCompany(cmpId, body, fullSnapshot);
+            response.put("success", result.isSuccess());
+            response.put("cmpId", cmpId);
+            response.put("elapsedMs", result.getElapsedMs());
+            response.put("results", result.getResults());
+            response.put("failures", result.getFailures());
+            response.put("message", result.isSuccess()
+                    ? "Synced " + result.getResults().size() + " masters for company " + cmpId
+                    : result.getFailures().size() + " masters failed for company " + cmpId);
+            return ResponseEntity.status(result.isSuccess() ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
+    // ========== LOCK CONTENTION ==========
+    /**
+     * GET /sync/companies/locks - Companies whose syncs had to wait for each other, longest total wait first
+     */
+    @GetMapping("/locks")
+    public ResponseEntity<Map<String, Object>> getLockContention() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("companies", syncLocks.getContendedCompanies());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /sync/companies/{cmpId}/locks - Sync lock counters of one company since startup
+     */
+    @GetMapping("/{cmpId}/locks")
+    public ResponseEntity<Map<String, Object>> getCompanyLockStats(@PathVariable Long cmpId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("locks", syncLocks.getStats(cmpId));
+        return ResponseEntity.ok(response);
+    }
+
+    // ========== HASH TREE ==========
+    /**
+     * GET /sync/companies/{cmpId}/hash/{entityType} - Root of the master's hash tree (level, hash, masterCount).
+     * GET ...?level=L&node=N - Non-empty children of node N at level L; at level 0 the node is a bucket of
+     * 256 masterIds and its (masterId, alterId) pairs are returned instead.
+     * Hashes are 16 hex digits; see MasterHashTree for how the client computes its side.
+     */
+    @GetMapping("/{cmpId}/hash/{entityType}")
+    public ResponseEntity<Map<String, Object>> getHashTree(
+            @PathVariable Long cmpId,
+            @PathVariable String entityType,
+            @RequestParam(required = false) Integer level,
+            @RequestParam(defaultValue = "0") long node) {
+        Map<String, Object> response = new HashMap<>();
+        MasterDescriptor<?> descriptor = MasterDescriptors.byEntityType(entityType).orElse(null);
+        if (descriptor == null) {
+            response.put("success", false);
+            response.put("message", "Unknown entity type: " + entityType);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        try {
+            response.put("success", true);
+            response.put("cmpId", cmpId);
+            response.put("entityType", descriptor.getEntityType());
+            if (level == null) {
+                response.put("root", masterHashTree.root(descriptor, cmpId));
+            } else if (level == 0) {
+                response.put("bucket", node);
+                response.put("masters", masterHashTree.masters(descriptor, cmpId, node));
+            } else {
+                response.put("level", level);
+                response.put("node", node);
+                response.put("children", masterHashTree.children(descriptor, cmpId, level, node));
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.clear();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
+    /**
+     * POST /sync/companies/{cmpId}/hash/{entityType}/rebuild - Recompute the hash tree from the stored masters,
+     * e.g. after they were edited with the master table triggers disabled
+     */
+    @PostMapping("/{cmpId}/hash/{entityType}/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildHashTree(
+            @PathVariable Long cmpId,
+            @PathVariable String entityType) {
+        Map<String, Object> response = new HashMap<>();
+        MasterDescriptor<?> descriptor = MasterDescriptors.byEntityType(entityType).orElse(null);
+        if (descriptor == null) {
+            response.put("success", false);
+            response.put("message", "Unknown entity type: " + entityType);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        try {
+            masterHashTree.rebuild(descriptor, cmpId);
+            response.put("success", true);
+            response.put("message", "Hash tree rebuilt for " + descriptor.getEntityType() + " of company " + cmpId);
+            response.put("root", masterHashTree.root(descriptor, cmpId));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
@@ -2,11 +2,14 @@ package com.tally.controller;
 
 import com.tally.entity.CostCategory;
 import com.tally.service.CostCategoryService;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.InputStream;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,13 +20,12 @@ public class CostCategoryController {
     private CostCategoryService costCategoryService;
 
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAll() {
+    public ResponseEntity<Map<String, Object>> getAll(KeysetPage page) {
         try {
-            List<CostCategory> list = costCategoryService.getAll();
+            Window<CostCategory> list = costCategoryService.getAll(page);
             Map<String, Object> response = new HashMap<>();
-            response.put("data", list);
             response.put("success", true);
-            response.put("count", list.size());
+            page.putPage(response, list);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
@@ -54,8 +56,16 @@ public class CostCategoryController {
     }
     
     @DeleteMapping("/master/{masterId}")
-    public ResponseEntity<Map<String, Object>> deleteByMasterId(@PathVariable Long masterId) {
+    public ResponseEntity<Map<String, Object>> deleteByMasterId(
+            @PathVariable Long masterId,
+            @RequestParam Long cmpId) {
         try {
+            if (!costCategoryService.deleteByMasterId(cmpId, masterId)) {
+                Map<String, Object> notFound = new HashMap<>();
+                notFound.put("message", "Cost Category not found");
+                notFound.put("success", false);
+                return ResponseEntity.status(404).body(notFound);
+            }
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Cost Category deleted successfully");
@@ -69,15 +79,22 @@ public class CostCategoryController {
     }
 
     @PostMapping("/sync")
-    public ResponseEntity<Map<String, Object>> sync(@RequestBody List<CostCategory> items) {
+    public ResponseEntity<Map<String, Object>> sync(
+            @RequestParam(defaultValue = "false") boolean fullSnapshot,
+            InputStream body) {
         try {
-            costCategoryService.syncFromTally(items);
-            System.out.println("Cost Categories synced: " + items.size());
+            SyncResult result = costCategoryService.syncFromTally(body, fullSnapshot);
+            System.out.println("Cost Categories synced: " + result.getTotalReceived());
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Cost Categories synced successfully");
-            response.put("count", items.size());
-            response.put("data", items);
+            response.put("count", result.getTotalReceived());
+            response.put("inserted", result.getInserted());
+            response.put("updated", result.getUpdated());
+            response.put("unchanged", result.getUnchanged());
+            response.put("deleted", result.getDeleted());
+            response.put("failed", result.getFailed());
+            response.put("failures", result.getFailures());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
@@ -1,12 +1,15 @@
 package com.tally.controller;
 
+import java.io.InputStream;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import com.tally.entity.Currency;
 import com.tally.service.CurrencyService;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,6 +18,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PathVariable;
 
@@ -27,14 +31,13 @@ public class CurrencyController {
     // Define endpoints for currency operations here
 
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getCurrency() {
+    public ResponseEntity<Map<String, Object>> getCurrency(KeysetPage page) {
         try {
-            List<Currency> currencies = currencyService.getAllCurrencies();
+            Window<Currency> currencies = currencyService.getAllCurrencies(page);
             Map<String, Object> response = new HashMap<>();
-            response.put("data", currencies);
             response.put("message", "Currencies retrieved successfully");
             response.put("success", true);
-            response.put("count", currencies.size());
+            page.putPage(response, currencies);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
@@ -82,8 +85,16 @@ public class CurrencyController {
     }
     
     @DeleteMapping("/master/{masterId}")
-    public ResponseEntity<Map<String, Object>> deleteByMasterId(@PathVariable Long masterId) {
+    public ResponseEntity<Map<String, Object>> deleteByMasterId(
+            @PathVariable Long masterId,
+            @RequestParam Long cmpId) {
         try {
+            if (!currencyService.deleteByMasterId(cmpId, masterId)) {
+                Map<String, Object> notFound = new HashMap<>();
+                notFound.put("message", "Currency not found");
+                notFound.put("success", false);
+                return ResponseEntity.status(404).body(notFound);
+            }
             // Implementation would need a findByMasterId method in service
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Currency deleted successfully");
@@ -98,13 +109,21 @@ public class CurrencyController {
     }
 
     @PostMapping("/sync")
-    public ResponseEntity<Map<String, Object>> syncCurrencies(@RequestBody List<Currency> currencies) {
+    public ResponseEntity<Map<String, Object>> syncCurrencies(
+            @RequestParam(defaultValue = "false") boolean fullSnapshot,
+            InputStream body) {
         try {
-            currencyService.syncCurrenciesFromTally(currencies);
+            SyncResult result = currencyService.syncCurrenciesFromTally(body, fullSnapshot);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Currencies synced successfully");
-            response.put("count", currencies.size());
+            response.put("count", result.getTotalReceived());
+            response.put("inserted", result.getInserted());
+            response.put("updated", result.getUpdated());
+            response.put("unchanged", result.getUnchanged());
+            response.put("deleted", result.getDeleted());
+            response.put("failed", result.getFailed());
+            response.put("failures", result.getFailures());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
@@ -2,9 +2,15 @@ package com.tally.controller;
 
 import com.tally.entity.Godown;
 import com.tally.service.GodownService;
+import com.tally.service.SparseFieldService;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,14 +22,16 @@ public class GodownController {
     @Autowired
     private GodownService godownService;
 
+    @Autowired
+    private SparseFieldService sparseFieldService;
+
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAll() {
+    public ResponseEntity<Map<String, Object>> getAll(KeysetPage page) {
         try {
-            List<Godown> list = godownService.getAll();
+            Window<Godown> list = godownService.getAll(page);
             Map<String, Object> response = new HashMap<>();
-            response.put("data", list);
             response.put("success", true);
-            response.put("count", list.size());
+            page.putPage(response, list);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
@@ -34,8 +42,14 @@ public class GodownController {
     }
 
     @GetMapping("/company/{cmpId}")
-    public ResponseEntity<List<Godown>> getByCompany(@PathVariable Long cmpId) {
-        return ResponseEntity.ok(godownService.getByCmpId(cmpId));
+    public ResponseEntity<List<Godown>> getByCompany(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(godownService.getByCmpId(cmpId, page));
+    }
+
+    @GetMapping(value = "/company/{cmpId}", params = "fields")
+    public ResponseEntity<StreamingResponseBody> getByCompanyFields(@PathVariable Long cmpId,
+            @RequestParam String fields, KeysetPage page) {
+        return sparseFieldService.stream(SparseFieldService.GODOWNS, cmpId, fields, page);
     }
 
     @PutMapping("/master/{masterId}")
@@ -59,8 +73,16 @@ public class GodownController {
     }
     
     @DeleteMapping("/master/{masterId}")
-    public ResponseEntity<Map<String, Object>> deleteByMasterId(@PathVariable Long masterId) {
+    public ResponseEntity<Map<String, Object>> deleteByMasterId(
+            @PathVariable Long masterId,
+            @RequestParam Long cmpId) {
         try {
+            if (!godownService.deleteByMasterId(cmpId, masterId)) {
+                Map<String, Object> notFound = new HashMap<>();
+                notFound.put("message", "Godown not found");
+                notFound.put("success", false);
+                return ResponseEntity.status(404).body(notFound);
+            }
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Godown deleted successfully");
@@ -74,15 +96,22 @@ public class GodownController {
     }
 
     @PostMapping("/sync")
-    public ResponseEntity<Map<String, Object>> sync(@RequestBody List<Godown> items) {
+    public ResponseEntity<Map<String, Object>> sync(
+            @RequestParam(defaultValue = "false") boolean fullSnapshot,
+            InputStream body) {
         try {
-            godownService.syncFromTally(items);
-            System.out.println("Godowns synced: " + items.size());
+            SyncResult result = godownService.syncFromTally(body, fullSnapshot);
+            System.out.println("Godowns synced: " + result.getTotalReceived());
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Godowns synced successfully");
-            response.put("count", items.size());
-            response.put("data", items);
+            response.put("count", result.getTotalReceived());
+            response.put("inserted", result.getInserted());
+            response.put("updated", result.getUpdated());
+            response.put("unchanged", result.getUnchanged());
+            response.put("deleted", result.getDeleted());
+            response.put("failed", result.getFailed());
+            response.put("failures", result.getFailures());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
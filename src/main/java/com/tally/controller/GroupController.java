@@ -1,12 +1,21 @@
 package com.tally.controller;
 
+import com.tally.dto.GroupListItem;
+import com.tally.dto.GroupOption;
 import com.tally.entity.Group;
 import com.tally.service.GroupService;
+import com.tally.service.MasterExportService;
+import com.tally.service.SparseFieldService;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,16 +27,21 @@ public class GroupController {
     
     @Autowired
     private GroupService groupService;
+
+    @Autowired
+    private MasterExportService masterExportService;
+
+    @Autowired
+    private SparseFieldService sparseFieldService;
     
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllGroups() {
+    public ResponseEntity<Map<String, Object>> getAllGroups(KeysetPage page) {
         try {
-            List<Group> groups = groupService.getAllGroups();
+            Window<Group> groups = groupService.getAllGroups(page);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Groups retrieved successfully");
-            response.put("data", groups);
-            response.put("count", groups.size());
+            page.putPage(response, groups);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
@@ -37,18 +51,33 @@ public class GroupController {
         }
     }
     
+    /**
+     * GET /groups/export - Every group in one response, streamed from a cursor (see MasterExportService)
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportGroups() {
+        return masterExportService.export(groupService::streamAllGroups);
+    }
+    
+    /**
+     * GET /groups/company/{cmpId}/export - Every group of a company, streamed
+     */
+    @GetMapping("/company/{cmpId}/export")
+    public ResponseEntity<StreamingResponseBody> exportGroupsByCompany(@PathVariable Long cmpId) {
+        return masterExportService.export(() -> groupService.streamGroupsByCompany(cmpId));
+    }
+    
     /**
      * GET /groups/company/{cmpId} - Get all groups for a company
      */
     @GetMapping("/company/{cmpId}")
-    public ResponseEntity<Map<String, Object>> getGroupsByCompany(@PathVariable Long cmpId) {
+    public ResponseEntity<Map<String, Object>> getGroupsByCompany(@PathVariable Long cmpId, KeysetPage page) {
         try {
-            List<Group> groups = groupService.getGroupsByCompany(cmpId);
+            Window<Group> groups = groupService.getGroupsByCompany(cmpId, page);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Groups retrieved successfully");
-            response.put("data", groups);
-            response.put("count", groups.size());
+            page.putPage(response, groups);
             response.put("companyId", cmpId);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -58,19 +87,27 @@ public class GroupController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
+
+    /**
+     * GET /groups/company/{cmpId}?fields=grpName,grpParent - Only the requested fields (see SparseFieldService)
+     */
+    @GetMapping(value = "/company/{cmpId}", params = "fields")
+    public ResponseEntity<StreamingResponseBody> getGroupsByCompanyFields(@PathVariable Long cmpId,
+            @RequestParam String fields, KeysetPage page) {
+        return sparseFieldService.stream(SparseFieldService.GROUPS, cmpId, fields, page);
+    }
     
     /**
      * GET /groups/company/{cmpId}/active - Get active groups for a company
      */
     @GetMapping("/company/{cmpId}/active")
-    public ResponseEntity<Map<String, Object>> getActiveGroups(@PathVariable Long cmpId) {
+    public ResponseEntity<Map<String, Object>> getActiveGroups(@PathVariable Long cmpId, KeysetPage page) {
         try {
-            List<Group> groups = groupService.getActiveGroups(cmpId);
+            Window<Group> groups = groupService.getActiveGroups(cmpId, page);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Active groups retrieved successfully");
-            response.put("data", groups);
-            response.put("count", groups.size());
+            page.putPage(response, groups);
             response.put("companyId", cmpId);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -135,18 +172,57 @@ public class GroupController {
         }
     }
     
+    /**
+     * GET /groups/company/{cmpId}/list - Rows of the group list screen
+     */
+    @GetMapping("/company/{cmpId}/list")
+    public ResponseEntity<Map<String, Object>> getGroupListItems(@PathVariable Long cmpId, KeysetPage page) {
+        try {
+            Window<GroupListItem> groups = groupService.getGroupListItems(cmpId, page);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Group list retrieved successfully");
+            page.putPage(response, groups);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Error retrieving group list: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    /**
+     * GET /groups/company/{cmpId}/picker - Id and name of the active groups
+     */
+    @GetMapping("/company/{cmpId}/picker")
+    public ResponseEntity<Map<String, Object>> getGroupOptions(@PathVariable Long cmpId, KeysetPage page) {
+        try {
+            Window<GroupOption> groups = groupService.getGroupOptions(cmpId, page);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Group options retrieved successfully");
+            page.putPage(response, groups);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Error retrieving group options: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     /**
      * GET /groups/company/{cmpId}/primary - Get primary groups (top-level)
      */
     @GetMapping("/company/{cmpId}/primary")
-    public ResponseEntity<Map<String, Object>> getPrimaryGroups(@PathVariable Long cmpId) {
+    public ResponseEntity<Map<String, Object>> getPrimaryGroups(@PathVariable Long cmpId, KeysetPage page) {
         try {
-            List<Group> groups = groupService.getPrimaryGroups(cmpId);
+            Window<Group> groups = groupService.getPrimaryGroups(cmpId, page);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Primary groups retrieved successfully");
-            response.put("data", groups);
-            response.put("count", groups.size());
+            page.putPage(response, groups);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
@@ -160,14 +236,13 @@ public class GroupController {
      * GET /groups/company/{cmpId}/revenue - Get revenue groups (P&L)
      */
     @GetMapping("/company/{cmpId}/revenue")
-    public ResponseEntity<Map<String, Object>> getRevenueGroups(@PathVariable Long cmpId) {
+    public ResponseEntity<Map<String, Object>> getRevenueGroups(@PathVariable Long cmpId, KeysetPage page) {
         try {
-            List<Group> groups = groupService.getRevenueGroups(cmpId);
+            Window<Group> groups = groupService.getRevenueGroups(cmpId, page);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Revenue groups (P&L) retrieved successfully");
-            response.put("data", groups);
-            response.put("count", groups.size());
+            page.putPage(response, groups);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
@@ -181,14 +256,13 @@ public class GroupController {
      * GET /groups/company/{cmpId}/balancesheet - Get balance sheet groups
      */
     @GetMapping("/company/{cmpId}/balancesheet")
-    public ResponseEntity<Map<String, Object>> getBalanceSheetGroups(@PathVariable Long cmpId) {
+    public ResponseEntity<Map<String, Object>> getBalanceSheetGroups(@PathVariable Long cmpId, KeysetPage page) {
         try {
-            List<Group> groups = groupService.getBalanceSheetGroups(cmpId);
+            Window<Group> groups = groupService.getBalanceSheetGroups(cmpId, page);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Balance sheet groups retrieved successfully");
-            response.put("data", groups);
-            response.put("count", groups.size());
+            page.putPage(response, groups);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
@@ -225,14 +299,14 @@ public class GroupController {
     @GetMapping("/company/{cmpId}/search")
     public ResponseEntity<Map<String, Object>> searchGroups(
             @PathVariable Long cmpId,
-            @RequestParam String term) {
+            @RequestParam String term,
+            KeysetPage page) {
         try {
-            List<Group> groups = groupService.searchGroups(cmpId, term);
+            Window<Group> groups = groupService.searchGroups(cmpId, term, page);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Search completed");
-            response.put("data", groups);
-            response.put("count", groups.size());
+            page.putPage(response, groups);
             response.put("searchTerm", term);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -247,14 +321,13 @@ public class GroupController {
      * GET /groups/{parentGrpId}/children - Get child groups of a parent
      */
     @GetMapping("/{parentGrpId}/children")
-    public ResponseEntity<Map<String, Object>> getChildGroups(@PathVariable Long parentGrpId) {
+    public ResponseEntity<Map<String, Object>> getChildGroups(@PathVariable Long parentGrpId, KeysetPage page) {
         try {
-            List<Group> groups = groupService.getChildGroups(parentGrpId);
+            Window<Group> groups = groupService.getChildGroups(parentGrpId, page);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Child groups retrieved successfully");
-            response.put("data", groups);
-            response.put("count", groups.size());
+            page.putPage(response, groups);
             response.put("parentGrpId", parentGrpId);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -354,13 +427,15 @@ public class GroupController {
      * POST /groups/sync - Sync groups from Tally (bulk upsert)
      */
     @PostMapping("/sync")
-    public ResponseEntity<Map<String, Object>> syncGroups(@RequestBody List<Group> groups) {
+    public ResponseEntity<Map<String, Object>> syncGroups(
+            @RequestParam(defaultValue = "false") boolean fullSnapshot,
+            InputStream body) {
         try {
             // System.out.println("\n========== TALLY SYNC REQUEST ==========");
             // System.out.println("Groups to sync: " + groups.size());
             // System.out.println("=========================================\n");
             
-            groupService.syncGroupsFromTally(groups);
+            SyncResult result = groupService.syncGroupsFromTally(body, fullSnapshot);
             
             // System.out.println("✓ Sync Completed Successfully!");
             // System.out.println("========================================\n");
@@ -368,7 +443,13 @@ public class GroupController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Groups synced successfully");
-            response.put("count", groups.size());
+            response.put("count", result.getTotalReceived());
+            response.put("inserted", result.getInserted());
+            response.put("updated", result.getUpdated());
+            response.put("unchanged", result.getUnchanged());
+            response.put("deleted", result.getDeleted());
+            response.put("failed", result.getFailed());
+            response.put("failures", result.getFailures());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
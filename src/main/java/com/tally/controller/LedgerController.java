@@ -1,12 +1,21 @@
 package com.tally.controller;
 
+import com.tally.dto.LedgerListItem;
+import com.tally.dto.LedgerOption;
+import com.tally.dto.LedgerSummary;
 import com.tally.entity.Ledger;
 import com.tally.service.LedgerService;
+import com.tally.service.MasterExportService;
+import com.tally.service.SparseFieldService;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
@@ -17,12 +26,29 @@ public class LedgerController {
     
     @Autowired
     private LedgerService ledgerService;
+
+    @Autowired
+    private MasterExportService masterExportService;
+
+    @Autowired
+    private SparseFieldService sparseFieldService;
     
     // ========== BASIC CRUD OPERATIONS ==========
     
     @GetMapping
-    public ResponseEntity<List<Ledger>> getAllLedgers() {
-        return ResponseEntity.ok(ledgerService.getAllLedgers());
+    public ResponseEntity<List<Ledger>> getAllLedgers(KeysetPage page) {
+        return page.response(ledgerService.getAllLedgers(page));
+    }
+
+    // Every ledger in one response, streamed (see MasterExportService)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportLedgers() {
+        return masterExportService.export(ledgerService::streamAllLedgers);
+    }
+
+    @GetMapping("/company/{cmpId}/export")
+    public ResponseEntity<StreamingResponseBody> exportLedgersByCompany(@PathVariable Long cmpId) {
+        return masterExportService.export(() -> ledgerService.streamLedgersByCompany(cmpId));
     }
     
     @GetMapping("/{ledId}")
@@ -84,57 +110,77 @@ public class LedgerController {
     // ========== COMPANY-SPECIFIC ENDPOINTS ==========
     
     @GetMapping("/company/{cmpId}")
-    public ResponseEntity<List<Ledger>> getLedgersByCompany(@PathVariable Long cmpId) {
-        return ResponseEntity.ok(ledgerService.getLedgersByCompany(cmpId));
+    public ResponseEntity<List<Ledger>> getLedgersByCompany(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(ledgerService.getLedgersByCompany(cmpId, page));
+    }
+
+    @GetMapping(value = "/company/{cmpId}", params = "fields")
+    public ResponseEntity<StreamingResponseBody> getLedgersByCompanyFields(@PathVariable Long cmpId,
+            @RequestParam String fields, KeysetPage page) {
+        return sparseFieldService.stream(SparseFieldService.LEDGERS, cmpId, fields, page);
     }
     
     @GetMapping("/company/{cmpId}/active")
-    public ResponseEntity<List<Ledger>> getActiveLedgersByCompany(@PathVariable Long cmpId) {
-        return ResponseEntity.ok(ledgerService.getActiveLedgersByCompany(cmpId));
+    public ResponseEntity<List<Ledger>> getActiveLedgersByCompany(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(ledgerService.getActiveLedgersByCompany(cmpId, page));
+    }
+
+    // List screen rows: id, name, parent, primary group, opening balance
+    @GetMapping("/company/{cmpId}/list")
+    public ResponseEntity<List<LedgerListItem>> getLedgerListItems(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(ledgerService.getLedgerListItems(cmpId, page));
+    }
+
+    // Picker: id and name of the active ledgers
+    @GetMapping("/company/{cmpId}/picker")
+    public ResponseEntity<List<LedgerOption>> getLedgerOptions(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(ledgerService.getLedgerOptions(cmpId, page));
     }
     
     @GetMapping("/company/{cmpId}/statistics")
     public ResponseEntity<LedgerStatistics> getCompanyStatistics(@PathVariable Long cmpId) {
+        LedgerSummary summary = ledgerService.getActiveLedgersSummary(cmpId);
         LedgerStatistics stats = new LedgerStatistics();
-        stats.setTotalLedgers(ledgerService.getActiveLedgersCount(cmpId));
-        stats.setTotalOpeningBalance(ledgerService.getTotalOpeningBalance(cmpId));
+        stats.setTotalLedgers(summary.totalLedgers());
+        stats.setTotalOpeningBalance(summary.totalOpeningBalance());
         return ResponseEntity.ok(stats);
     }
     
     // ========== GROUP-BASED ENDPOINTS ==========
     
     @GetMapping("/group/{grpId}")
-    public ResponseEntity<List<Ledger>> getLedgersByGroup(@PathVariable Long grpId) {
-        return ResponseEntity.ok(ledgerService.getLedgersByGroup(grpId));
+    public ResponseEntity<List<Ledger>> getLedgersByGroup(@PathVariable Long grpId, KeysetPage page) {
+        return page.response(ledgerService.getLedgersByGroup(grpId, page));
     }
     
     @GetMapping("/company/{cmpId}/group/{grpId}")
     public ResponseEntity<List<Ledger>> getLedgersByCompanyAndGroup(
             @PathVariable Long cmpId,
-            @PathVariable Long grpId) {
-        return ResponseEntity.ok(ledgerService.getLedgersByCompanyAndGroup(cmpId, grpId));
+            @PathVariable Long grpId,
+            KeysetPage page) {
+        return page.response(ledgerService.getLedgersByCompanyAndGroup(cmpId, grpId, page));
     }
     
     // ========== CLASSIFICATION ENDPOINTS ==========
     
     @GetMapping("/company/{cmpId}/customers")
-    public ResponseEntity<List<Ledger>> getCustomers(@PathVariable Long cmpId) {
-        return ResponseEntity.ok(ledgerService.getCustomers(cmpId));
+    public ResponseEntity<List<Ledger>> getCustomers(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(ledgerService.getCustomers(cmpId, page));
     }
     
     @GetMapping("/company/{cmpId}/suppliers")
-    public ResponseEntity<List<Ledger>> getSuppliers(@PathVariable Long cmpId) {
-        return ResponseEntity.ok(ledgerService.getSuppliers(cmpId));
+    public ResponseEntity<List<Ledger>> getSuppliers(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(ledgerService.getSuppliers(cmpId, page));
     }
     
     @GetMapping("/company/{cmpId}/bank-accounts")
-    public ResponseEntity<List<Ledger>> getBankAccounts(@PathVariable Long cmpId) {
-        return ResponseEntity.ok(ledgerService.getBankAccounts(cmpId));
+    public ResponseEntity<List<Ledger>> getBankAccounts(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(ledgerService.getBankAccounts(cmpId, page));
     }
     
     @GetMapping("/company/{cmpId}/cash-accounts")
-    public ResponseEntity<List<Ledger>> getCashAccounts(@PathVariable Long cmpId) {
-        return ResponseEntity.ok(ledgerService.getCashAccounts(cmpId));
+    public ResponseEntity<List<Ledger>> getCashAccounts(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(ledgerService.getCashAccounts(cmpId, page));
     }
     
     // ========== SEARCH ENDPOINTS ==========
@@ -142,15 +188,16 @@ public class LedgerController {
     @GetMapping("/company/{cmpId}/search")
     public ResponseEntity<List<Ledger>> searchLedgers(
             @PathVariable Long cmpId,
-            @RequestParam String term) {
-        return ResponseEntity.ok(ledgerService.searchLedgers(cmpId, term));
+            @RequestParam String term,
+            KeysetPage page) {
+        return page.response(ledgerService.searchLedgers(cmpId, term, page));
     }
     
     // ========== GST ENDPOINTS ==========
     
     @GetMapping("/company/{cmpId}/gst-registered")
-    public ResponseEntity<List<Ledger>> getGstRegisteredLedgers(@PathVariable Long cmpId) {
-        return ResponseEntity.ok(ledgerService.getGstRegisteredLedgers(cmpId));
+    public ResponseEntity<List<Ledger>> getGstRegisteredLedgers(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(ledgerService.getGstRegisteredLedgers(cmpId, page));
     }
     
     @GetMapping("/gstin/{gstGstin}")
@@ -207,17 +254,26 @@ public class LedgerController {
     // ========== TALLY SYNC ENDPOINT (CRITICAL) ==========
     
     @PostMapping("/sync")
-    public ResponseEntity<java.util.Map<String, Object>> syncLedgersFromTally(@RequestBody List<Ledger> ledgers) {
+    public ResponseEntity<java.util.Map<String, Object>> syncLedgersFromTally(
+            @RequestParam(defaultValue = "false") boolean fullSnapshot,
+            InputStream body) {
         try {
             // System.out.println("📥 Received sync request for " + ledgers.size() + " ledgers");
             
-            List<Ledger> syncedLedgers = ledgerService.syncLedgersFromTally(ledgers);
+            SyncResult result = ledgerService.syncLedgersFromTally(body, fullSnapshot);
             
             java.util.Map<String, Object> response = new java.util.HashMap<>();
             response.put("success", true);
-            response.put("totalReceived", ledgers.size());
-            response.put("totalProcessed", syncedLedgers.size());
-            response.put("message", "Successfully synced " + syncedLedgers.size() + " ledgers from Tally");
+            response.put("totalReceived", result.getTotalReceived());
+            response.put("totalProcessed", result.getTotalProcessed());
+            response.put("inserted", result.getInserted());
+            response.put("updated", result.getUpdated());
+            response.put("unchanged", result.getUnchanged());
+            response.put("deleted", result.getDeleted());
+            response.put("failed", result.getFailed());
+            response.put("failures", result.getFailures());
+            response.put("chunks", result.getChunks());
+            response.put("message", "Successfully synced " + result.getTotalProcessed() + " ledgers from Tally");
             
             // System.out.println("✅ Sync completed: " + syncedLedgers.size() + " ledgers processed");
             
@@ -228,7 +284,6 @@ public class LedgerController {
             
             java.util.Map<String, Object> response = new java.util.HashMap<>();
             response.put("success", false);
-            response.put("totalReceived", ledgers.size());
             response.put("totalProcessed", 0);
             response.put("message", "Sync failed: " + e.getMessage());
             
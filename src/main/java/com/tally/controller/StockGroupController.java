@@ -2,11 +2,16 @@ package com.tally.controller;
 
 import com.tally.entity.StockGroup;
 import com.tally.service.StockGroupService;
+import com.tally.service.SparseFieldService;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.InputStream;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,14 +21,16 @@ public class StockGroupController {
     @Autowired
     private StockGroupService stockGroupService;
 
+    @Autowired
+    private SparseFieldService sparseFieldService;
+
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAll() {
+    public ResponseEntity<Map<String, Object>> getAll(KeysetPage page) {
         try {
-            List<StockGroup> list = stockGroupService.getAll();
+            Window<StockGroup> list = stockGroupService.getAll(page);
             Map<String, Object> response = new HashMap<>();
-            response.put("data", list);
             response.put("success", true);
-            response.put("count", list.size());
+            page.putPage(response, list);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
@@ -34,13 +41,12 @@ public class StockGroupController {
     }
 
     @GetMapping("/company/{cmpId}")
-    public ResponseEntity<Map<String, Object>> getByCmpId(@PathVariable Long cmpId) {
+    public ResponseEntity<Map<String, Object>> getByCmpId(@PathVariable Long cmpId, KeysetPage page) {
         try {
-            List<StockGroup> list = stockGroupService.getByCmpId(cmpId);
+            Window<StockGroup> list = stockGroupService.getByCmpId(cmpId, page);
             Map<String, Object> response = new HashMap<>();
-            response.put("data", list);
             response.put("success", true);
-            response.put("count", list.size());
+            page.putPage(response, list);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
@@ -50,6 +56,12 @@ public class StockGroupController {
         }
     }
 
+    @GetMapping(value = "/company/{cmpId}", params = "fields")
+    public ResponseEntity<StreamingResponseBody> getByCmpIdFields(@PathVariable Long cmpId,
+            @RequestParam String fields, KeysetPage page) {
+        return sparseFieldService.stream(SparseFieldService.STOCK_GROUPS, cmpId, fields, page);
+    }
+
     @PutMapping("/master/{masterId}")
     public ResponseEntity<Map<String, Object>> updateByMasterId(
             @PathVariable Long masterId,
@@ -71,8 +83,16 @@ public class StockGroupController {
     }
     
     @DeleteMapping("/master/{masterId}")
-    public ResponseEntity<Map<String, Object>> deleteByMasterId(@PathVariable Long masterId) {
+    public ResponseEntity<Map<String, Object>> deleteByMasterId(
+            @PathVariable Long masterId,
+            @RequestParam Long cmpId) {
         try {
+            if (!stockGroupService.deleteByMasterId(cmpId, masterId)) {
+                Map<String, Object> notFound = new HashMap<>();
+                notFound.put("message", "Stock Group not found");
+                notFound.put("success", false);
+                return ResponseEntity.status(404).body(notFound);
+            }
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Stock Group deleted successfully");
@@ -86,15 +106,22 @@ public class StockGroupController {
     }
 
     @PostMapping("/sync")
-    public ResponseEntity<Map<String, Object>> sync(@RequestBody List<StockGroup> items) {
+    public ResponseEntity<Map<String, Object>> sync(
+            @RequestParam(defaultValue = "false") boolean fullSnapshot,
+            InputStream body) {
         try {
-            stockGroupService.syncFromTally(items);
-            System.out.println("Stock Groups synced: " + items.size());
+            SyncResult result = stockGroupService.syncFromTally(body, fullSnapshot);
+            System.out.println("Stock Groups synced: " + result.getTotalReceived());
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Stock Groups synced successfully");
-            response.put("count", items.size());
-            response.put("data", items);
+            response.put("count", result.getTotalReceived());
+            response.put("inserted", result.getInserted());
+            response.put("updated", result.getUpdated());
+            response.put("unchanged", result.getUnchanged());
+            response.put("deleted", result.getDeleted());
+            response.put("failed", result.getFailed());
+            response.put("failures", result.getFailures());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
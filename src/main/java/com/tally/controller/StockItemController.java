@@ -1,10 +1,20 @@
 package com.tally.controller;
 
+import com.tally.dto.StockItemListItem;
+import com.tally.dto.StockItemOption;
+import com.tally.dto.StockItemSummary;
 import com.tally.entity.StockItem;
+import com.tally.service.MasterExportService;
+import com.tally.service.SparseFieldService;
 import com.tally.service.StockItemService;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,14 +26,19 @@ public class StockItemController {
     @Autowired
     private StockItemService stockItemService;
 
+    @Autowired
+    private MasterExportService masterExportService;
+
+    @Autowired
+    private SparseFieldService sparseFieldService;
+
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAll() {
+    public ResponseEntity<Map<String, Object>> getAll(KeysetPage page) {
         try {
-            List<StockItem> list = stockItemService.getAll();
+            Window<StockItem> list = stockItemService.getAll(page);
             Map<String, Object> response = new HashMap<>();
-            response.put("data", list);
             response.put("success", true);
-            response.put("count", list.size());
+            page.putPage(response, list);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
@@ -34,8 +49,50 @@ public class StockItemController {
     }
 
     @GetMapping("/company/{cmpId}")
-    public ResponseEntity<List<StockItem>> getByCompany(@PathVariable Long cmpId) {
-        return ResponseEntity.ok(stockItemService.getByCmpId(cmpId));
+    public ResponseEntity<List<StockItem>> getByCompany(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(stockItemService.getByCmpId(cmpId, page));
+    }
+
+    @GetMapping(value = "/company/{cmpId}", params = "fields")
+    public ResponseEntity<StreamingResponseBody> getByCompanyFields(@PathVariable Long cmpId,
+            @RequestParam String fields, KeysetPage page) {
+        return sparseFieldService.stream(SparseFieldService.STOCK_ITEMS, cmpId, fields, page);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        return masterExportService.export(stockItemService::streamAll);
+    }
+
+    @GetMapping("/company/{cmpId}/export")
+    public ResponseEntity<StreamingResponseBody> exportByCompany(@PathVariable Long cmpId) {
+        return masterExportService.export(() -> stockItemService.streamByCmpId(cmpId));
+    }
+
+    @GetMapping("/company/{cmpId}/list")
+    public ResponseEntity<List<StockItemListItem>> getListItems(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(stockItemService.getListItems(cmpId, page));
+    }
+
+    @GetMapping("/company/{cmpId}/picker")
+    public ResponseEntity<List<StockItemOption>> getOptions(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(stockItemService.getOptions(cmpId, page));
+    }
+
+    @GetMapping("/company/{cmpId}/summary")
+    public ResponseEntity<Map<String, Object>> getSummary(@PathVariable Long cmpId) {
+        try {
+            StockItemSummary summary = stockItemService.getSummary(cmpId);
+            Map<String, Object> response = new HashMap<>();
+            response.put("data", summary);
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            error.put("success", false);
+            return ResponseEntity.status(500).body(error);
+        }
     }
 
     @PutMapping("/master/{masterId}")
@@ -59,8 +116,16 @@ public class StockItemController {
     }
     
     @DeleteMapping("/master/{masterId}")
-    public ResponseEntity<Map<String, Object>> deleteByMasterId(@PathVariable Long masterId) {
+    public ResponseEntity<Map<String, Object>> deleteByMasterId(
+            @PathVariable Long masterId,
+            @RequestParam Long cmpId) {
         try {
+            if (!stockItemService.deleteByMasterId(cmpId, masterId)) {
+                Map<String, Object> notFound = new HashMap<>();
+                notFound.put("message", "Stock Item not found");
+                notFound.put("success", false);
+                return ResponseEntity.status(404).body(notFound);
+            }
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Stock Item deleted successfully");
@@ -74,15 +139,22 @@ public class StockItemController {
     }
 
     @PostMapping("/sync")
-    public ResponseEntity<Map<String, Object>> sync(@RequestBody List<StockItem> items) {
+    public ResponseEntity<Map<String, Object>> sync(
+            @RequestParam(defaultValue = "false") boolean fullSnapshot,
+            InputStream body) {
         try {
-            stockItemService.syncFromTally(items);
-            System.out.println("Stock Items synced: " + items.size());
+            SyncResult result = stockItemService.syncFromTally(body, fullSnapshot);
+            System.out.println("Stock Items synced: " + result.getTotalReceived());
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Stock Items synced successfully");
-            response.put("count", items.size());
-            response.put("data", items);
+            response.put("count", result.getTotalReceived());
+            response.put("inserted", result.getInserted());
+            response.put("updated", result.getUpdated());
+            response.put("unchanged", result.getUnchanged());
+            response.put("deleted", result.getDeleted());
+            response.put("failed", result.getFailed());
+            response.put("failures", result.getFailures());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
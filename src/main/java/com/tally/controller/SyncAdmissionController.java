@@ -0,0 +1,30 @@
+package com.tally.controller;
+
+import com.tally.sync.SyncAdmission;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/sync/admission")
+public class SyncAdmissionController {
+
+    @Autowired
+    private SyncAdmission syncAdmission;
+
+    /**
+     * GET /sync/admission - Sync slots in use and waiting on this node, queue waits and rejections since startup
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getAdmissionStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("admission", syncAdmission.getStats());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,81 @@
+package com.tally.controller;
+
+import com.tally.entity.User;
+import com.tally.service.UserService;
+import com.tally.sync.SyncJob;
+import com.tally.sync.SyncJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Async variant of the /{master}/sync endpoints for large payloads
+ */
+@RestController
+@RequestMapping("/sync/jobs")
+public class SyncJobController {
+
+    @Autowired
+    private SyncJobService syncJobService;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * POST /sync/jobs/{entityType}?fullSnapshot= - Queue a sync, returns 202 with the job ID.
+     * entityType is one of group, ledger, stockitem, ... (same keys as company sync status).
+     * Open to the connector without a token, like the /{master}/sync endpoints. Progress goes to the WebSocket
+     * session of the JWT's user, so a call without a token can only be followed by polling.
+     */
+    @PostMapping("/{entityType}")
+    public ResponseEntity<Map<String, Object>> submit(
+            @PathVariable String entityType,
+            @RequestParam(defaultValue = "false") boolean fullSnapshot,
+            Principal principal,
+            InputStream body) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Long userId = principal == null ? null
+                    : userService.findByUsername(principal.getName()).map(User::getId).orElse(null);
+            SyncJob job = syncJobService.submit(entityType, userId, fullSnapshot, body);
+            response.put("success", true);
+            response.put("jobId", job.getJobId());
+            response.put("status", job.getStatus());
+            response.put("statusUrl", "/sync/jobs/" + job.getJobId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (TaskRejectedException e) {
+            response.put("success", false);
+            response.put("message", "Sync job queue is full, retry later");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
+    /**
+     * GET /sync/jobs/{jobId} - Polling fallback for clients without a WebSocket session
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId) {
+        Optional<SyncJob> job = syncJobService.getJob(jobId);
+        Map<String, Object> response = new HashMap<>();
+        if (job.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "Sync job not found: " + jobId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("success", true);
+        response.put("job", job.get());
+        return ResponseEntity.ok(response);
+    }
+}
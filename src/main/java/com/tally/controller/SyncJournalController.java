@@ -0,0 +1,100 @@
+package com.tally.controller;
+
+import com.tally.sync.MasterDescriptor;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.SyncJournal;
+import com.tally.sync.SyncJournalApplier;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.EOFException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/sync/journal")
+public class SyncJournalController {
+
+    @Autowired(required = false)
+    private SyncJournal syncJournal;
+
+    @Autowired(required = false)
+    private SyncJournalApplier syncJournalApplier;
+
+    @Value("${sync.journal.max-record-mb:256}")
+    private int maxRecordMb;
+
+    /**
+     * POST /sync/journal/{entityType}?fullSnapshot= - Journal a sync payload and acknowledge it once it is on disk;
+     * it is applied to the database in the background, in order. Same body as /{entity}/sync.
+     * Returns 202 with the journal offset; compare it with appliedOffset from GET /sync/journal.
+     * The body is copied straight into the journal segment, so it needs a Content-Length (411 without one).
+     */
+    @PostMapping("/{entityType}")
+    public ResponseEntity<Map<String, Object>> append(
+            @PathVariable String entityType,
+            @RequestParam(defaultValue = "false") boolean fullSnapshot,
+            HttpServletRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        if (syncJournal == null) {
+            return disabled(response);
+        }
+        MasterDescriptor<?> descriptor = MasterDescriptors.byEntityType(entityType).orElse(null);
+        if (descriptor == null) {
+            response.put("success", false);
+            response.put("message", "Unknown entity type: " + entityType);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        long length = request.getContentLengthLong();
+        if (length < 0) {
+            response.put("success", false);
+            response.put("message", "Content-Length required");
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).body(response);
+        }
+        if (length > (long) maxRecordMb << 20) {
+            response.put("success", false);
+            response.put("message", "Payload larger than " + maxRecordMb + " MB, use /sync/jobs instead");
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
+        }
+        try (InputStream body = request.getInputStream()) {
+            long offset = syncJournal.append(descriptor.getEntityType(), fullSnapshot, body, length);
+            response.put("success", true);
+            response.put("offset", offset);
+            response.put("message", "Journaled " + descriptor.getEntityType() + " payload, applying in background");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (EOFException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * GET /sync/journal - Durable and applied offsets, backlog and apply failures
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        Map<String, Object> response = new HashMap<>();
+        if (syncJournalApplier == null) {
+            return disabled(response);
+        }
+        response.put("success", true);
+        response.put("journal", syncJournalApplier.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+    private static ResponseEntity<Map<String, Object>> disabled(Map<String, Object> response) {
+        response.put("success", false);
+        response.put("message", "Sync journal is disabled (sync.journal.enabled=false)");
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+}
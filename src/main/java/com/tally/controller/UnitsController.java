@@ -1,12 +1,18 @@
 package com.tally.controller;
 
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.tally.entity.Units;
+import com.tally.service.SparseFieldService;
 import com.tally.service.UnitsService;
+import com.tally.sync.SyncResult;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,15 +24,17 @@ public class UnitsController {
     @Autowired
     private UnitsService unitsService;
 
+    @Autowired
+    private SparseFieldService sparseFieldService;
+
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getUnits() {
+    public ResponseEntity<Map<String, Object>> getUnits(KeysetPage page) {
         try {
-            List<Units> units = unitsService.getallUnits();
+            Window<Units> units = unitsService.getallUnits(page);
             Map<String, Object> response = new HashMap<>();
-            response.put("data", units);
             response.put("message", "Units are retrived Sucessfully");
             response.put("sucess", true);
-            response.put("count", units.size());
+            page.putPage(response, units);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
@@ -37,8 +45,14 @@ public class UnitsController {
     }
 
     @GetMapping("/company/{cmpId}")
-    public ResponseEntity<List<Units>> getByCompany(@PathVariable Long cmpId) {
-        return ResponseEntity.ok(unitsService.getByCmpId(cmpId));
+    public ResponseEntity<List<Units>> getByCompany(@PathVariable Long cmpId, KeysetPage page) {
+        return page.response(unitsService.getByCmpId(cmpId, page));
+    }
+
+    @GetMapping(value = "/company/{cmpId}", params = "fields")
+    public ResponseEntity<StreamingResponseBody> getByCompanyFields(@PathVariable Long cmpId,
+            @RequestParam String fields, KeysetPage page) {
+        return sparseFieldService.stream(SparseFieldService.UNITS, cmpId, fields, page);
     }
 
     @PutMapping("/master/{masterId}")
@@ -62,8 +76,16 @@ public class UnitsController {
     }
     
     @DeleteMapping("/master/{masterId}")
-    public ResponseEntity<Map<String, Object>> deleteByMasterId(@PathVariable Long masterId) {
+    public ResponseEntity<Map<String, Object>> deleteByMasterId(
+            @PathVariable Long masterId,
+            @RequestParam Long cmpId) {
         try {
+            if (!unitsService.deleteByMasterId(cmpId, masterId)) {
+                Map<String, Object> notFound = new HashMap<>();
+                notFound.put("message", "Unit not found");
+                notFound.put("success", false);
+                return ResponseEntity.status(404).body(notFound);
+            }
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Unit deleted successfully");
             response.put("success", true);
@@ -77,10 +99,20 @@ public class UnitsController {
     }
 
     @PostMapping("/sync")
-    public ResponseEntity<Map<String, Object>> syncUnits(@RequestBody List<Units> units) {
+    public ResponseEntity<Map<String, Object>> syncUnits(
+            @RequestParam(defaultValue = "false") boolean fullSnapshot,
+            InputStream body) {
         try {
-            unitsService.syncUnitFromTally(units);
+            SyncResult result = unitsService.syncUnitFromTally(body, fullSnapshot);
             HashMap<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("count", result.getTotalReceived());
+            response.put("inserted", result.getInserted());
+            response.put("updated", result.getUpdated());
+            response.put("unchanged", result.getUnchanged());
+            response.put("deleted", result.getDeleted());
+            response.put("failed", result.getFailed());
+            response.put("failures", result.getFailures());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -0,0 +1,13 @@
+package com.tally.dto;
+
+/**
+ * Row of the group list screen
+ */
+public interface GroupListItem {
+    Long getGrpId();
+    String getGrpName();
+    String getGrpParent();
+    String getGrpPrimaryGroup();
+    String getGrpNature();
+    Boolean getIsRevenue();
+}
@@ -0,0 +1,9 @@
+package com.tally.dto;
+
+/**
+ * Group in a picker / dropdown
+ */
+public interface GroupOption {
+    Long getGrpId();
+    String getGrpName();
+}
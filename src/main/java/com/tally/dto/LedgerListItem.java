@@ -0,0 +1,16 @@
+package com.tally.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Row of the ledger list screen. A closed interface projection: the query selects only these columns and no
+ * Ledger entity is loaded. (An interface rather than a record, so Spring Data can still read the keyset of the
+ * last row for the next page cursor.)
+ */
+public interface LedgerListItem {
+    Long getLedId();
+    String getLedName();
+    String getLedParent();
+    String getLedPrimaryGroup();
+    BigDecimal getLedOpeningBalance();
+}
@@ -0,0 +1,9 @@
+package com.tally.dto;
+
+/**
+ * Ledger in a picker / dropdown
+ */
+public interface LedgerOption {
+    Long getLedId();
+    String getLedName();
+}
@@ -0,0 +1,9 @@
+package com.tally.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Totals over the active ledgers of a company, computed by the database
+ */
+public record LedgerSummary(Long totalLedgers, BigDecimal totalOpeningBalance) {
+}
@@ -0,0 +1,16 @@
+package com.tally.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Row of the stock item list screen
+ */
+public interface StockItemListItem {
+    Long getId();
+    String getName();
+    String getParent();
+    String getCategory();
+    String getBaseUnits();
+    BigDecimal getOpeningBalance();
+    BigDecimal getOpeningValue();
+}
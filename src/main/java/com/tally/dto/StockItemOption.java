@@ -0,0 +1,9 @@
+package com.tally.dto;
+
+/**
+ * Stock item in a picker / dropdown
+ */
+public interface StockItemOption {
+    Long getId();
+    String getName();
+}
@@ -0,0 +1,9 @@
+package com.tally.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Totals over the stock items of a company, computed by the database
+ */
+public record StockItemSummary(Long totalItems, BigDecimal totalOpeningValue) {
+}
@@ -11,7 +11,8 @@ import java.util.UUID;
 public class Company {
     // ========== IDENTITY & REFERENCE ==========
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "companies_cmpid_seq")
+    @SequenceGenerator(name = "companies_cmpid_seq", sequenceName = "companies_cmpid_seq", allocationSize = 50)
     @Column(name = "cmpid")
     private Long id;
     
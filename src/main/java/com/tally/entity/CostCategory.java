@@ -2,20 +2,25 @@ package com.tally.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cost_categories")
+@DynamicUpdate
+@Table(name = "cost_categories", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cost_categories_cmpid_masterid", columnNames = { "cmpid", "masterid" })
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class CostCategory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cost_categories_costcategory_id_seq")
+    @SequenceGenerator(name = "cost_categories_costcategory_id_seq", sequenceName = "cost_categories_costcategory_id_seq", allocationSize = 50)
     @Column(name = "costcategory_id")
     private Long id;
 
@@ -48,6 +53,9 @@ public class CostCategory {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    @Column(name = "is_deleted")
+    private Boolean isDeleted = false;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -2,14 +2,17 @@ package com.tally.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
 @Table(name = "costcentre", uniqueConstraints = {
-        @UniqueConstraint(columnNames = { "cmpid", "name" })
+        @UniqueConstraint(columnNames = { "cmpid", "name" }),
+        @UniqueConstraint(name = "uk_costcentre_cmpid_masterid", columnNames = { "cmpid", "masterid" })
 })
 @Data
 @NoArgsConstructor
@@ -17,7 +20,8 @@ import java.time.LocalDateTime;
 public class CostCenter {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "costcentre_costcentre_id_seq")
+    @SequenceGenerator(name = "costcentre_costcentre_id_seq", sequenceName = "costcentre_costcentre_id_seq", allocationSize = 50)
     @Column(name = "costcentre_id")
     private Long id;
 
@@ -52,6 +56,9 @@ public class CostCenter {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    @Column(name = "is_deleted")
+    private Boolean isDeleted = false;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
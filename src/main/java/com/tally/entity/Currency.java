@@ -8,23 +8,31 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "currency")
+@DynamicUpdate
+@Table(name = "currency", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_currency_cmpid_masterid", columnNames = { "cmpid", "masterid" })
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Currency {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "currency_currency_id_seq")
+    @SequenceGenerator(name = "currency_currency_id_seq", sequenceName = "currency_currency_id_seq", allocationSize = 50)
+    @JsonProperty("currency_id")
     @Column(name = "currency_id", nullable = false)
-    private Long currency_id;
+    private Long currencyId;
 
     @JsonProperty("userId")
     @Column(name = "userid", nullable = false)
@@ -75,6 +83,9 @@ public class Currency {
     @Column(name = "languageid")
     private Integer languageId;
 
+    @Column(name = "is_deleted")
+    private Boolean isDeleted = false;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -2,20 +2,25 @@ package com.tally.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "godowns")
+@DynamicUpdate
+@Table(name = "godowns", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_godowns_cmpid_masterid", columnNames = { "cmpid", "masterid" })
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Godown {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "godowns_godown_id_seq")
+    @SequenceGenerator(name = "godowns_godown_id_seq", sequenceName = "godowns_godown_id_seq", allocationSize = 50)
     @Column(name = "godown_id")
     private Long id;
 
@@ -47,6 +52,9 @@ public class Godown {
     @Column(name = "reserved_name")
     private String reservedName;
 
+    @Column(name = "is_deleted")
+    private Boolean isDeleted = false;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
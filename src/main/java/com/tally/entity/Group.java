@@ -1,14 +1,17 @@
 package com.tally.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
 @Table(name = "groups", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"cmpid", "grp_name"})
+    @UniqueConstraint(columnNames = {"cmpid", "grp_name"}),
+    @UniqueConstraint(name = "uk_groups_cmpid_masterid", columnNames = {"cmpid", "masterid"})
 })
 @Data
 @NoArgsConstructor
@@ -17,7 +20,8 @@ public class Group {
     
     // ========== PRIMARY KEY & REFERENCES ==========
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "groups_grpid_seq")
+    @SequenceGenerator(name = "groups_grpid_seq", sequenceName = "groups_grpid_seq", allocationSize = 50)
     @Column(name = "grpid")
     private Long grpId;
     
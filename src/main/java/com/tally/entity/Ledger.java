@@ -2,6 +2,7 @@ package com.tally.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,8 +11,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
 @Table(name = "ledgers", uniqueConstraints = {
-        @UniqueConstraint(columnNames = { "cmpid", "led_name" })
+        @UniqueConstraint(columnNames = { "cmpid", "led_name" }),
+        @UniqueConstraint(name = "uk_ledgers_cmpid_masterid", columnNames = { "cmpid", "masterid" })
 })
 @Data
 @NoArgsConstructor
@@ -20,7 +23,8 @@ public class Ledger {
 
     // ========== PRIMARY KEY & REFERENCES ==========
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledgers_ledid_seq")
+    @SequenceGenerator(name = "ledgers_ledid_seq", sequenceName = "ledgers_ledid_seq", allocationSize = 50)
     @Column(name = "ledid")
     private Long ledId;
 
@@ -2,20 +2,25 @@ package com.tally.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stock_groups")
+@DynamicUpdate
+@Table(name = "stock_groups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_groups_cmpid_masterid", columnNames = { "cmpid", "masterid" })
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class StockGroup {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_groups_stockgroup_id_seq")
+    @SequenceGenerator(name = "stock_groups_stockgroup_id_seq", sequenceName = "stock_groups_stockgroup_id_seq", allocationSize = 50)
     @Column(name = "stockgroup_id")
     private Long id;
 
@@ -47,6 +52,9 @@ public class StockGroup {
     @Column(name = "reserved_name")
     private String reservedName;
 
+    @Column(name = "is_deleted")
+    private Boolean isDeleted = false;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -2,6 +2,7 @@ package com.tally.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,14 +10,18 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stock_items")
+@DynamicUpdate
+@Table(name = "stock_items", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_items_cmpid_masterid", columnNames = { "cmpid", "masterid" })
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class StockItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_items_stockitem_id_seq")
+    @SequenceGenerator(name = "stock_items_stockitem_id_seq", sequenceName = "stock_items_stockitem_id_seq", allocationSize = 50)
     @Column(name = "stockitem_id")
     private Long id;
 
@@ -95,6 +100,9 @@ public class StockItem {
     @Column(name = "is_cost_centers_on")
     private Boolean costCentersOn;
 
+    @Column(name = "is_deleted")
+    private Boolean isDeleted = false;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -2,20 +2,25 @@ package com.tally.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "taxunit")
+@DynamicUpdate
+@Table(name = "taxunit", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_taxunit_cmpid_masterid", columnNames = { "cmpid", "masterid" })
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class TaxUnit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "taxunit_taxunit_id_seq")
+    @SequenceGenerator(name = "taxunit_taxunit_id_seq", sequenceName = "taxunit_taxunit_id_seq", allocationSize = 50)
     @Column(name = "taxunit_id")
     private Long id;
 
@@ -44,6 +49,9 @@ public class TaxUnit {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    @Column(name = "is_deleted")
+    private Boolean isDeleted = false;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -8,20 +8,27 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "units")
+@DynamicUpdate
+@Table(name = "units", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_units_cmpid_masterid", columnNames = { "cmpid", "masterid" })
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Units {
 
     @Id
-    @GeneratedValue(strategy = jakarta.persistence.GenerationType.IDENTITY)
+    @GeneratedValue(strategy = jakarta.persistence.GenerationType.SEQUENCE, generator = "units_unit_id_seq")
+    @SequenceGenerator(name = "units_unit_id_seq", sequenceName = "units_unit_id_seq", allocationSize = 50)
     @Column(name = "unit_id")
     private long unitId;
 
@@ -55,6 +62,9 @@ public class Units {
     @Column(name = "reserved_name")
     private String reservedName;
 
+    @Column(name = "is_deleted")
+    private Boolean isDeleted = false;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -2,20 +2,25 @@ package com.tally.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "vouchertype")
+@DynamicUpdate
+@Table(name = "vouchertype", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_vouchertype_cmpid_masterid", columnNames = { "cmpid", "masterid" })
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class VoucherType {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vouchertype_vouchertype_id_seq")
+    @SequenceGenerator(name = "vouchertype_vouchertype_id_seq", sequenceName = "vouchertype_vouchertype_id_seq", allocationSize = 50)
     @Column(name = "vouchertype_id")
     private Long id;
 
@@ -50,6 +55,9 @@ public class VoucherType {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    @Column(name = "is_deleted")
+    private Boolean isDeleted = false;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
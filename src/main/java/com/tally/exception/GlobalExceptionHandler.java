@@ -1,5 +1,7 @@
 package com.tally.exception;
 
+import com.tally.service.SparseFieldService;
+import com.tally.util.KeysetPage;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -33,6 +35,14 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler({KeysetPage.InvalidPageException.class, SparseFieldService.InvalidFieldsException.class})
+    public ResponseEntity<Map<String, Object>> handleInvalidPage(IllegalArgumentException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException e) {
         Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,25 @@
+package com.tally.mapper;
+
+import com.tally.entity.Group;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@Mapper(config = SyncMapperConfig.class)
+public interface GroupMapper {
+
+    /**
+     * Fields synced from Tally; a synced group is always active and not deleted, which the caller sets
+     */
+    @Mapping(target = "grpId", ignore = true)
+    @Mapping(target = "userId", ignore = true)
+    @Mapping(target = "cmpId", ignore = true)
+    @Mapping(target = "grpName", ignore = true)
+    @Mapping(target = "isActive", ignore = true)
+    @Mapping(target = "isDeleted", ignore = true)
+    @Mapping(target = "syncStatus", ignore = true)
+    @Mapping(target = "lastSyncDate", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    void copySyncFields(Group source, @MappingTarget Group target);
+}
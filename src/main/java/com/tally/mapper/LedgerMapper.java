@@ -0,0 +1,44 @@
+package com.tally.mapper;
+
+import com.tally.entity.Ledger;
+import org.mapstruct.InheritConfiguration;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Copies the fields synced from Tally onto a stored ledger (generated at compile time: plain getter/setter calls)
+ */
+@Mapper(config = SyncMapperConfig.class)
+public interface LedgerMapper {
+
+    /**
+     * Everything except the keys, the business name and the bookkeeping columns
+     */
+    @Mapping(target = "ledId", ignore = true)
+    @Mapping(target = "userId", ignore = true)
+    @Mapping(target = "cmpId", ignore = true)
+    @Mapping(target = "ledName", ignore = true)
+    @Mapping(target = "syncStatus", ignore = true)
+    @Mapping(target = "lastSyncDate", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    void copySyncFields(Ledger source, @MappingTarget Ledger target);
+
+    /**
+     * Manual edit by ID: the synced fields plus the name, leaving the Tally identifiers, the resolved hierarchy
+     * and the active / deleted flags alone
+     */
+    @InheritConfiguration(name = "copySyncFields")
+    @Mapping(target = "ledName", source = "ledName")
+    @Mapping(target = "masterId", ignore = true)
+    @Mapping(target = "alterId", ignore = true)
+    @Mapping(target = "guid", ignore = true)
+    @Mapping(target = "parentLedId", ignore = true)
+    @Mapping(target = "levelNumber", ignore = true)
+    @Mapping(target = "fullPath", ignore = true)
+    @Mapping(target = "parentHierarchy", ignore = true)
+    @Mapping(target = "isActive", ignore = true)
+    @Mapping(target = "isDeleted", ignore = true)
+    void copyEditableFields(Ledger source, @MappingTarget Ledger target);
+}
@@ -0,0 +1,18 @@
+package com.tally.mapper;
+
+import com.tally.entity.StockCategory;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@Mapper(config = SyncMapperConfig.class)
+public interface StockCategoryMapper {
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "cmpId", ignore = true)
+    @Mapping(target = "name", ignore = true)
+    @Mapping(target = "isDeleted", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    void copySyncFields(StockCategory source, @MappingTarget StockCategory target);
+}
@@ -0,0 +1,12 @@
+package com.tally.mapper;
+
+import org.mapstruct.MapperConfig;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Shared settings of the sync field-copy mappers. An entity field that a mapper neither copies nor
+ * explicitly ignores fails the build, so a new column cannot silently be left out of the upserts.
+ */
+@MapperConfig(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface SyncMapperConfig {
+}
@@ -0,0 +1,21 @@
+package com.tally.mapper;
+
+import com.tally.entity.Units;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@Mapper(config = SyncMapperConfig.class)
+public interface UnitsMapper {
+
+    @Mapping(target = "unitId", ignore = true)
+    @Mapping(target = "userId", ignore = true)
+    @Mapping(target = "cmpId", ignore = true)
+    @Mapping(target = "guid", ignore = true)
+    @Mapping(target = "originalName", ignore = true)
+    @Mapping(target = "reservedName", ignore = true)
+    @Mapping(target = "isDeleted", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    void copySyncFields(Units source, @MappingTarget Units target);
+}
@@ -25,7 +25,7 @@ public interface CompanySyncStatusRepository extends JpaRepository<CompanySyncSt
            "UNION ALL SELECT alterid FROM stock_groups WHERE cmpid = :cmpId " +
            "UNION ALL SELECT alterid FROM stock_categories WHERE cmpid = :cmpId " +
            "UNION ALL SELECT alterid FROM stock_items WHERE cmpid = :cmpId" +
-           ") all_alters", 
+           ") all_alters",
            nativeQuery = true)
     Long findMaxAlterIdForCompany(@Param("cmpId") Long cmpId);
 }
\ No newline at end of file
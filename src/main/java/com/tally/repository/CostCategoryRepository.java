@@ -1,6 +1,10 @@
 package com.tally.repository;
 
 import com.tally.entity.CostCategory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,6 +13,9 @@ import java.util.Optional;
 
 @Repository
 public interface CostCategoryRepository extends JpaRepository<CostCategory, Long> {
+    // Keyset pages of the list endpoint (see KeysetPage); nameFrom is where a name-sorted page starts
+    Window<CostCategory> findByNameGreaterThanEqual(String nameFrom, ScrollPosition position, Sort sort, Limit limit);
+
     Optional<CostCategory> findByCmpIdAndName(Long cmpId, String name);
     
     // UPSERT: Find by reconciliation identifier (cmpId + masterId)
@@ -1,16 +1,23 @@
 package com.tally.repository;
 
 import com.tally.entity.Godown;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GodownRepository extends JpaRepository<Godown, Long> {
-    List<Godown> findByCmpId(Long cmpId);
+    // Keyset pages of the list endpoints (see KeysetPage); nameFrom is where a name-sorted page starts
+    Window<Godown> findByNameGreaterThanEqual(String nameFrom, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Godown> findByCmpIdAndIsDeletedFalseAndNameGreaterThanEqual(Long cmpId, String nameFrom,
+            ScrollPosition position, Sort sort, Limit limit);
     
     Optional<Godown> findByCmpIdAndName(Long cmpId, String name);
     
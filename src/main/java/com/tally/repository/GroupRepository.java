@@ -1,19 +1,48 @@
 package com.tally.repository;
 
+import com.tally.dto.GroupListItem;
+import com.tally.dto.GroupOption;
 import com.tally.entity.Group;
+import com.tally.service.MasterExportService;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface GroupRepository extends JpaRepository<Group, Long> {
     
-    // Find by company
-    List<Group> findByCmpId(Long cmpId);
+    // Keyset pages of the list endpoints (see KeysetPage); grpNameFrom is where a name-sorted page starts
+    Window<Group> findByGrpNameGreaterThanEqual(String grpNameFrom, ScrollPosition position, Sort sort, Limit limit);
+    Window<Group> findByCmpIdAndIsDeletedFalseAndGrpNameGreaterThanEqual(Long cmpId, String grpNameFrom,
+            ScrollPosition position, Sort sort, Limit limit);
+
+    // List and picker views: only the record's columns, read as unmanaged records
+    Window<GroupListItem> findListItemsByCmpIdAndIsDeletedFalseAndGrpNameGreaterThanEqual(Long cmpId,
+            String grpNameFrom, ScrollPosition position, Sort sort, Limit limit);
+    Window<GroupOption> findOptionsByCmpIdAndIsActiveTrueAndIsDeletedFalseAndGrpNameGreaterThanEqual(Long cmpId,
+            String grpNameFrom, ScrollPosition position, Sort sort, Limit limit);
+    
+    // Whole table / company for the export endpoints, read through a cursor (see MasterExportService)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = MasterExportService.FETCH_SIZE),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT g FROM Group g ORDER BY g.grpId")
+    Stream<Group> streamAll();
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = MasterExportService.FETCH_SIZE),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<Group> streamByCmpIdAndIsDeletedFalseOrderByGrpId(Long cmpId);
     
     // Find by user
     List<Group> findByUserId(Long userId);
@@ -22,7 +51,8 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     Optional<Group> findByCmpIdAndGrpName(Long cmpId, String grpName);
     
     // Find by company and active status
-    List<Group> findByCmpIdAndIsActiveAndIsDeleted(Long cmpId, Boolean isActive, Boolean isDeleted);
+    Window<Group> findByCmpIdAndIsActiveAndIsDeletedAndGrpNameGreaterThanEqual(Long cmpId, Boolean isActive,
+            Boolean isDeleted, String grpNameFrom, ScrollPosition position, Sort sort, Limit limit);
     
     // Find by Tally GUID
     Optional<Group> findByGuid(String guid);
@@ -37,21 +67,24 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     List<Group> findByGrpParent(String grpParent);
     
     // Find by parent group ID
-    List<Group> findByParentGrpId(Long parentGrpId);
+    Window<Group> findByParentGrpIdAndGrpNameGreaterThanEqual(Long parentGrpId, String grpNameFrom,
+                                                              ScrollPosition position, Sort sort, Limit limit);
     
     // Find primary groups (no parent)
-    @Query("SELECT g FROM Group g WHERE g.parentGrpId IS NULL AND g.cmpId = :cmpId AND g.isDeleted = false")
-    List<Group> findPrimaryGroups(@Param("cmpId") Long cmpId);
+    Window<Group> findByCmpIdAndParentGrpIdIsNullAndIsDeletedFalseAndGrpNameGreaterThanEqual(Long cmpId,
+            String grpNameFrom, ScrollPosition position, Sort sort, Limit limit);
     
     // Find revenue groups (P&L)
-    List<Group> findByCmpIdAndIsRevenue(Long cmpId, Boolean isRevenue);
+    Window<Group> findByCmpIdAndIsRevenueAndGrpNameGreaterThanEqual(Long cmpId, Boolean isRevenue, String grpNameFrom,
+                                                                    ScrollPosition position, Sort sort, Limit limit);
     
     // Find by nature
     List<Group> findByCmpIdAndGrpNature(Long cmpId, String grpNature);
     
     // Search by name
-    @Query("SELECT g FROM Group g WHERE g.cmpId = :cmpId AND LOWER(g.grpName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) AND g.isDeleted = false")
-    List<Group> searchByName(@Param("cmpId") Long cmpId, @Param("searchTerm") String searchTerm);
+    Window<Group> findByCmpIdAndGrpNameContainingIgnoreCaseAndIsDeletedFalse(Long cmpId, String searchTerm,
+                                                                             ScrollPosition position, Sort sort,
+                                                                             Limit limit);
     
     // Get group hierarchy
     @Query(value = "WITH RECURSIVE group_tree AS ( " +
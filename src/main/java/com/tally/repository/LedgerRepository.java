@@ -1,13 +1,25 @@
 package com.tally.repository;
 
+import com.tally.dto.LedgerListItem;
+import com.tally.dto.LedgerOption;
+import com.tally.dto.LedgerSummary;
 import com.tally.entity.Ledger;
+import com.tally.service.MasterExportService;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface LedgerRepository extends JpaRepository<Ledger, Long> {
@@ -23,30 +35,66 @@ public interface LedgerRepository extends JpaRepository<Ledger, Long> {
     // UPSERT: Find by reconciliation identifier (cmpId + masterId)
     Optional<Ledger> findByCmpIdAndMasterId(Long cmpId, Long masterId);
     
+    // ========== KEYSET PAGES (list endpoints, see KeysetPage) ==========
+    // ledNameFrom is the name the page starts at ("" unless sorted by name), so name pages seek the
+    // (cmpid, led_name, ledid) index instead of filtering every row before the cursor
+    Window<Ledger> findByLedNameGreaterThanEqual(String ledNameFrom, ScrollPosition position, Sort sort, Limit limit);
+    Window<Ledger> findByCmpIdAndIsDeletedFalseAndLedNameGreaterThanEqual(Long cmpId, String ledNameFrom,
+            ScrollPosition position, Sort sort, Limit limit);
+    Window<Ledger> findByCmpIdAndIsActiveTrueAndIsDeletedFalseAndLedNameGreaterThanEqual(Long cmpId, String ledNameFrom,
+            ScrollPosition position, Sort sort, Limit limit);
+    Window<Ledger> findByGrpIdAndLedNameGreaterThanEqual(Long grpId, String ledNameFrom, ScrollPosition position,
+                                                         Sort sort, Limit limit);
+    Window<Ledger> findByCmpIdAndGrpIdAndLedNameGreaterThanEqual(Long cmpId, Long grpId, String ledNameFrom,
+                                                                 ScrollPosition position, Sort sort, Limit limit);
+    Window<Ledger> findByCmpIdAndLedPrimaryGroupAndLedNameGreaterThanEqual(Long cmpId, String ledPrimaryGroup,
+            String ledNameFrom, ScrollPosition position, Sort sort, Limit limit);
+    Window<Ledger> findByCmpIdAndGstApplicableTrueAndGstGstinIsNotNullAndIsActiveTrueAndLedNameGreaterThanEqual(
+            Long cmpId, String ledNameFrom, ScrollPosition position, Sort sort, Limit limit);
+    Window<Ledger> findByCmpIdAndLedNameContainingIgnoreCaseOrCmpIdAndLedCodeContainingIgnoreCaseOrCmpIdAndLedAliasContainingIgnoreCase(
+            Long cmpId, String ledName, Long cmpId2, String ledCode, Long cmpId3, String ledAlias,
+            ScrollPosition position, Sort sort, Limit limit);
+
+    // Name, code or alias contains the term (case-insensitive); keyset scrolling needs a derived query.
+    // A %term% match cannot use an index anyway, so there is no name floor here.
+    default Window<Ledger> searchByName(Long cmpId, String searchTerm, ScrollPosition position, Sort sort,
+                                        Limit limit) {
+        return findByCmpIdAndLedNameContainingIgnoreCaseOrCmpIdAndLedCodeContainingIgnoreCaseOrCmpIdAndLedAliasContainingIgnoreCase(
+                cmpId, searchTerm, cmpId, searchTerm, cmpId, searchTerm, position, sort, limit);
+    }
+
+    // ========== PROJECTIONS (list, picker and summary views) ==========
+    // Select only the record's columns and return unmanaged records: no entity hydration, no dirty checking
+    Window<LedgerListItem> findListItemsByCmpIdAndIsDeletedFalseAndLedNameGreaterThanEqual(Long cmpId,
+            String ledNameFrom, ScrollPosition position, Sort sort, Limit limit);
+    Window<LedgerOption> findOptionsByCmpIdAndIsActiveTrueAndIsDeletedFalseAndLedNameGreaterThanEqual(Long cmpId,
+            String ledNameFrom, ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("SELECT new com.tally.dto.LedgerSummary(COUNT(l), COALESCE(SUM(l.ledOpeningBalance), 0)) " +
+           "FROM Ledger l WHERE l.cmpId = :cmpId AND l.isActive = true AND l.isDeleted = false")
+    LedgerSummary summarizeActiveLedgers(@Param("cmpId") Long cmpId);
+
+    // ========== EXPORT STREAMS (see MasterExportService) ==========
+    // Read through a JDBC cursor FETCH_SIZE rows at a time; only valid inside the transaction that opened them
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = MasterExportService.FETCH_SIZE),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT l FROM Ledger l ORDER BY l.ledId")
+    Stream<Ledger> streamAll();
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = MasterExportService.FETCH_SIZE),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<Ledger> streamByCmpIdAndIsDeletedFalseOrderByLedId(Long cmpId);
+
     // ========== COMPANY-SPECIFIC QUERIES ==========
-    List<Ledger> findByCmpId(Long cmpId);
     List<Ledger> findByCmpIdAndIsActiveAndIsDeleted(Long cmpId, Boolean isActive, Boolean isDeleted);
     
-    @Query("SELECT l FROM Ledger l WHERE l.cmpId = :cmpId AND l.isActive = true AND l.isDeleted = false")
-    List<Ledger> findActiveLedgersByCompany(@Param("cmpId") Long cmpId);
-    
     // ========== GROUP & HIERARCHY QUERIES ==========
-    List<Ledger> findByGrpId(Long grpId);
-    List<Ledger> findByCmpIdAndGrpId(Long cmpId, Long grpId);
     List<Ledger> findByLedParent(String ledParent);
     List<Ledger> findByParentLedId(Long parentLedId);
     
     // ========== CLASSIFICATION QUERIES ==========
     List<Ledger> findByCmpIdAndIsRevenue(Long cmpId, Boolean isRevenue);
     List<Ledger> findByLedPrimaryGroup(String ledPrimaryGroup);
-    List<Ledger> findByCmpIdAndLedPrimaryGroup(Long cmpId, String ledPrimaryGroup);
-    
-    // ========== SEARCH & FILTER ==========
-    @Query("SELECT l FROM Ledger l WHERE l.cmpId = :cmpId AND " +
-           "(LOWER(l.ledName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(l.ledCode) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(l.ledAlias) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
-    List<Ledger> searchByName(@Param("cmpId") Long cmpId, @Param("searchTerm") String searchTerm);
     
     // ========== CONTACT QUERIES ==========
     Optional<Ledger> findByLedEmail(String ledEmail);
@@ -59,10 +107,6 @@ public interface LedgerRepository extends JpaRepository<Ledger, Long> {
     List<Ledger> findByCmpIdAndGstApplicable(Long cmpId, Boolean gstApplicable);
     List<Ledger> findByCmpIdAndGstState(Long cmpId, String gstState);
     
-    @Query("SELECT l FROM Ledger l WHERE l.cmpId = :cmpId AND l.gstApplicable = true " +
-           "AND l.gstGstin IS NOT NULL AND l.isActive = true")
-    List<Ledger> findGstRegisteredLedgers(@Param("cmpId") Long cmpId);
-    
     // ========== VAT QUERIES ==========
     Optional<Ledger> findByVatTinNumber(String vatTinNumber);
     List<Ledger> findByCmpIdAndVatApplicable(Long cmpId, Boolean vatApplicable);
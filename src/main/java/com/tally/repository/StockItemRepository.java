@@ -1,16 +1,51 @@
 package com.tally.repository;
 
+import com.tally.dto.StockItemListItem;
+import com.tally.dto.StockItemOption;
+import com.tally.dto.StockItemSummary;
 import com.tally.entity.StockItem;
+import com.tally.service.MasterExportService;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface StockItemRepository extends JpaRepository<StockItem, Long> {
-    List<StockItem> findByCmpId(Long cmpId);
+    // Keyset pages of the list endpoints (see KeysetPage); nameFrom is where a name-sorted page starts
+    Window<StockItem> findByNameGreaterThanEqual(String nameFrom, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<StockItem> findByCmpIdAndIsDeletedFalseAndNameGreaterThanEqual(Long cmpId, String nameFrom,
+            ScrollPosition position, Sort sort, Limit limit);
+
+    // List, picker and summary views: the database returns just these columns, no StockItem is loaded
+    Window<StockItemListItem> findListItemsByCmpIdAndIsDeletedFalseAndNameGreaterThanEqual(Long cmpId,
+            String nameFrom, ScrollPosition position, Sort sort, Limit limit);
+    Window<StockItemOption> findOptionsByCmpIdAndIsDeletedFalseAndNameGreaterThanEqual(Long cmpId, String nameFrom,
+            ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("SELECT new com.tally.dto.StockItemSummary(COUNT(s), COALESCE(SUM(s.openingValue), 0)) " +
+           "FROM StockItem s WHERE s.cmpId = :cmpId AND s.isDeleted = false")
+    StockItemSummary summarize(@Param("cmpId") Long cmpId);
+    
+    // Export streams: the rows come through a cursor, FETCH_SIZE at a time (see MasterExportService)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = MasterExportService.FETCH_SIZE),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT s FROM StockItem s ORDER BY s.id")
+    Stream<StockItem> streamAll();
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = MasterExportService.FETCH_SIZE),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<StockItem> streamByCmpIdAndIsDeletedFalseOrderById(Long cmpId);
     
     Optional<StockItem> findByCmpIdAndName(Long cmpId, String name);
     
@@ -2,17 +2,24 @@
 package com.tally.repository;
 
 import com.tally.entity.Units;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UnitsRepository extends JpaRepository<Units, Long> {
-    List<Units> findByCmpId(Long cmpId);
+    // Keyset pages of the list endpoints (see KeysetPage); unitNameFrom is where a name-sorted page starts
+    Window<Units> findByUnitNameGreaterThanEqual(String unitNameFrom, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Units> findByCmpIdAndIsDeletedFalseAndUnitNameGreaterThanEqual(Long cmpId, String unitNameFrom,
+            ScrollPosition position, Sort sort, Limit limit);
     
     Optional<Units> findByCmpIdAndUnitName(long cmpId, String unitName);
     
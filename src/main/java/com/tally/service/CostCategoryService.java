@@ -1,11 +1,20 @@
 package com.tally.service;
 
 import com.tally.entity.CostCategory;
+import com.tally.mapper.CostCategoryMapper;
 import com.tally.repository.CostCategoryRepository;
+import com.tally.sync.MasterChangeDetector;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.sync.SyncLocks;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,8 +25,17 @@ public class CostCategoryService {
     @Autowired
     private CostCategoryRepository costCategoryRepository;
 
-    public List<CostCategory> getAll() {
-        return costCategoryRepository.findAll();
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private CostCategoryMapper costCategoryMapper;
+
+    public Window<CostCategory> getAll(KeysetPage page) {
+        return page.scroll("name", "id", costCategoryRepository::findByNameGreaterThanEqual);
     }
 
     public CostCategory create(CostCategory costCategory) {
@@ -26,30 +44,37 @@ public class CostCategoryService {
 
     public CostCategory upsert(CostCategory costCategory) {
         // Use reconciliation identifier: cmpId + masterId
+        syncLocks.lock(MasterDescriptors.COST_CATEGORY, costCategory.getCmpId());
         Optional<CostCategory> existing = costCategoryRepository.findByCmpIdAndMasterId(
                 costCategory.getCmpId(),
                 costCategory.getMasterId());
 
         if (existing.isPresent()) {
             CostCategory e = existing.get();
-            e.setGuid(costCategory.getGuid());
-            e.setMasterId(costCategory.getMasterId());
-            e.setAlterId(costCategory.getAlterId());
-            e.setAllocateRevenue(costCategory.getAllocateRevenue());
-            e.setAllocateNonRevenue(costCategory.getAllocateNonRevenue());
-            e.setIsActive(costCategory.getIsActive());
-            e.setUserId(costCategory.getUserId());
-            e.setUpdatedAt(LocalDateTime.now());
+            if (!MasterChangeDetector.hasChanges(MasterDescriptors.COST_CATEGORY, e, costCategory)) {
+                return e;
+            }
+
+            costCategoryMapper.copySyncFields(costCategory, e);
+            e.setIsDeleted(false);
             return costCategoryRepository.save(e);
         } else {
             return costCategoryRepository.save(costCategory);
         }
     }
 
-    public void syncFromTally(List<CostCategory> items) {
-        for (CostCategory item : items) {
-            upsert(item);
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(List<CostCategory> items) {
+        return masterSyncEngine.sync(MasterDescriptors.COST_CATEGORY, items);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(InputStream json, boolean fullSnapshot) {
+        return masterSyncEngine.sync(MasterDescriptors.COST_CATEGORY, json, fullSnapshot);
+    }
+
+    public boolean deleteByMasterId(Long cmpId, Long masterId) {
+        return masterSyncEngine.delete(MasterDescriptors.COST_CATEGORY, cmpId, masterId);
     }
 
     public List<CostCategory> saveAll(List<CostCategory> items) {
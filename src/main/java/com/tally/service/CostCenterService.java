@@ -1,11 +1,20 @@
 package com.tally.service;
 
 import com.tally.entity.CostCenter;
+import com.tally.mapper.CostCenterMapper;
 import com.tally.repository.CostCenterRepository;
+import com.tally.sync.MasterChangeDetector;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.sync.SyncLocks;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,8 +25,17 @@ public class CostCenterService {
     @Autowired
     private CostCenterRepository costCenterRepository;
 
-    public List<CostCenter> getAll() {
-        return costCenterRepository.findAll();
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private CostCenterMapper costCenterMapper;
+
+    public Window<CostCenter> getAll(KeysetPage page) {
+        return page.scroll("name", "id", costCenterRepository::findByNameGreaterThanEqual);
     }
 
     public CostCenter create(CostCenter costCenter) {
@@ -26,29 +44,36 @@ public class CostCenterService {
 
     public CostCenter upsert(CostCenter costCenter) {
         // Use reconciliation identifier: cmpId + masterId
+        syncLocks.lock(MasterDescriptors.COST_CENTER, costCenter.getCmpId());
         Optional<CostCenter> existing = costCenterRepository.findByCmpIdAndMasterId(
                 costCenter.getCmpId(),
                 costCenter.getMasterId());
 
         if (existing.isPresent()) {
             CostCenter e = existing.get();
-            e.setGuid(costCenter.getGuid());
-            e.setMasterId(costCenter.getMasterId());
-            e.setAlterId(costCenter.getAlterId());
-            e.setParent(costCenter.getParent());
-            e.setCategory(costCenter.getCategory());
-            e.setIsActive(costCenter.getIsActive());
-            e.setUserId(costCenter.getUserId());
-            e.setUpdatedAt(LocalDateTime.now());
+            if (!MasterChangeDetector.hasChanges(MasterDescriptors.COST_CENTER, e, costCenter)) {
+                return e;
+            }
+
+            costCenterMapper.copySyncFields(costCenter, e);
+            e.setIsDeleted(false);
             return costCenterRepository.save(e);
         } else {
             return costCenterRepository.save(costCenter);
         }
     }
 
-    public void syncFromTally(List<CostCenter> items) {
-        for (CostCenter item : items) {
-            upsert(item);
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(List<CostCenter> items) {
+        return masterSyncEngine.sync(MasterDescriptors.COST_CENTER, items);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(InputStream json, boolean fullSnapshot) {
+        return masterSyncEngine.sync(MasterDescriptors.COST_CENTER, json, fullSnapshot);
+    }
+
+    public boolean deleteByMasterId(Long cmpId, Long masterId) {
+        return masterSyncEngine.delete(MasterDescriptors.COST_CENTER, cmpId, masterId);
     }
 }
@@ -1,10 +1,20 @@
 package com.tally.service;
 
 import com.tally.entity.Currency;
+import com.tally.mapper.CurrencyMapper;
 import com.tally.repository.CurrencyRepository;
+import com.tally.sync.MasterChangeDetector;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.sync.SyncLocks;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,8 +25,17 @@ public class CurrencyService {
     @Autowired
     private CurrencyRepository currencyRepository;
 
-    public List<Currency> getAllCurrencies() {
-        return currencyRepository.findAll();
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private CurrencyMapper currencyMapper;
+
+    public Window<Currency> getAllCurrencies(KeysetPage page) {
+        return page.scroll("name", "currencyId", currencyRepository::findByNameGreaterThanEqual);
     }
 
     public Currency addCurrency(Currency currency) {
@@ -30,26 +49,19 @@ public class CurrencyService {
 
     public Currency upsertCurrency(Currency currency) {
         // Use reconciliation identifier: cmpId + masterId
+        syncLocks.lock(MasterDescriptors.CURRENCY, currency.getCmpId());
         Optional<Currency> existingCurrency = currencyRepository.findByCmpIdAndMasterId(
                 currency.getCmpId(),
                 currency.getMasterId());
 
         if (existingCurrency.isPresent()) {
             Currency existing = existingCurrency.get();
+            if (!MasterChangeDetector.hasChanges(MasterDescriptors.CURRENCY, existing, currency)) {
+                return existing;
+            }
 
-            // Update fields
-            existing.setGuid(currency.getGuid());
-            existing.setMasterId(currency.getMasterId());
-            existing.setAlterId(currency.getAlterId());
-            existing.setSymbol(currency.getSymbol());
-            existing.setFormalName(currency.getFormalName());
-            existing.setDecimalPlaces(currency.getDecimalPlaces());
-            existing.setDecimalSeparator(currency.getDecimalSeparator());
-            existing.setShowAmountInWords(currency.getShowAmountInWords());
-            existing.setSuffixSymbol(currency.getSuffixSymbol());
-            existing.setSpaceBetweenAmountAndSymbol(currency.getSpaceBetweenAmountAndSymbol());
-            existing.setLanguageId(currency.getLanguageId());
-            existing.setUserId(currency.getUserId());
+            currencyMapper.copySyncFields(currency, existing);
+            existing.setIsDeleted(false);
 
             return currencyRepository.save(existing);
         } else {
@@ -60,10 +72,17 @@ public class CurrencyService {
     /**
      * Sync currencies from Tally (bulk operation)
      */
-    @Transactional
-    public void syncCurrenciesFromTally(List<Currency> currencies) {
-        for (Currency currency : currencies) {
-            upsertCurrency(currency);
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncCurrenciesFromTally(List<Currency> currencies) {
+        return masterSyncEngine.sync(MasterDescriptors.CURRENCY, currencies);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncCurrenciesFromTally(InputStream json, boolean fullSnapshot) {
+        return masterSyncEngine.sync(MasterDescriptors.CURRENCY, json, fullSnapshot);
+    }
+
+    public boolean deleteByMasterId(Long cmpId, Long masterId) {
+        return masterSyncEngine.delete(MasterDescriptors.CURRENCY, cmpId, masterId);
     }
 }
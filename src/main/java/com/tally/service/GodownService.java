@@ -1,11 +1,20 @@
 package com.tally.service;
 
 import com.tally.entity.Godown;
+import com.tally.mapper.GodownMapper;
 import com.tally.repository.GodownRepository;
+import com.tally.sync.MasterChangeDetector;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.sync.SyncLocks;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,12 +25,23 @@ public class GodownService {
     @Autowired
     private GodownRepository godownRepository;
 
-    public List<Godown> getAll() {
-        return godownRepository.findAll();
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private GodownMapper godownMapper;
+
+    public Window<Godown> getAll(KeysetPage page) {
+        return page.scroll("name", "id", godownRepository::findByNameGreaterThanEqual);
     }
 
-    public List<Godown> getByCmpId(Long cmpId) {
-        return godownRepository.findByCmpId(cmpId);
+    public Window<Godown> getByCmpId(Long cmpId, KeysetPage page) {
+        return page.scroll("name", "id", (nameFrom, position, sort, limit) ->
+                godownRepository.findByCmpIdAndIsDeletedFalseAndNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
     }
 
     public Godown create(Godown godown) {
@@ -30,29 +50,37 @@ public class GodownService {
 
     public Godown upsert(Godown godown) {
         // Use reconciliation identifier: cmpId + masterId
+        syncLocks.lock(MasterDescriptors.GODOWN, godown.getCmpId());
         Optional<Godown> existing = godownRepository.findByCmpIdAndMasterId(
                 godown.getCmpId(),
                 godown.getMasterId());
 
         if (existing.isPresent()) {
             Godown e = existing.get();
-            e.setGuid(godown.getGuid());
-            e.setMasterId(godown.getMasterId());
-            e.setAlterId(godown.getAlterId());
-            e.setAddress(godown.getAddress());
-            e.setReservedName(godown.getReservedName());
-            e.setUserId(godown.getUserId());
-            e.setUpdatedAt(LocalDateTime.now());
+            if (!MasterChangeDetector.hasChanges(MasterDescriptors.GODOWN, e, godown)) {
+                return e;
+            }
+
+            godownMapper.copySyncFields(godown, e);
+            e.setIsDeleted(false);
             return godownRepository.save(e);
         } else {
             return godownRepository.save(godown);
         }
     }
 
-    public void syncFromTally(List<Godown> items) {
-        for (Godown item : items) {
-            upsert(item);
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(List<Godown> items) {
+        return masterSyncEngine.sync(MasterDescriptors.GODOWN, items);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(InputStream json, boolean fullSnapshot) {
+        return masterSyncEngine.sync(MasterDescriptors.GODOWN, json, fullSnapshot);
+    }
+
+    public boolean deleteByMasterId(Long cmpId, Long masterId) {
+        return masterSyncEngine.delete(MasterDescriptors.GODOWN, cmpId, masterId);
     }
 
     public List<Godown> saveAll(List<Godown> items) {
@@ -1,14 +1,27 @@
 package com.tally.service;
 
+import com.tally.dto.GroupListItem;
+import com.tally.dto.GroupOption;
 import com.tally.entity.Group;
+import com.tally.mapper.GroupMapper;
 import com.tally.repository.GroupRepository;
+import com.tally.sync.MasterChangeDetector;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.sync.SyncLocks;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -16,26 +29,75 @@ public class GroupService {
     
     @Autowired
     private GroupRepository groupRepository;
+
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private GroupMapper groupMapper;
     
     /**
      * Get all groups (all companies)
      */
-    public List<Group> getAllGroups() {
-        return groupRepository.findAll();
+    public Window<Group> getAllGroups(KeysetPage page) {
+        return page.scroll("grpName", "grpId", groupRepository::findByGrpNameGreaterThanEqual);
+    }
+
+    /**
+     * Every group, in id order, for MasterExportService.export (the stream lives as long as its transaction)
+     */
+    @Transactional(readOnly = true)
+    public Stream<Group> streamAllGroups() {
+        return groupRepository.streamAll();
+    }
+
+    /**
+     * Every group of a company except the soft-deleted ones, for MasterExportService.export
+     */
+    @Transactional(readOnly = true)
+    public Stream<Group> streamGroupsByCompany(Long cmpId) {
+        return groupRepository.streamByCmpIdAndIsDeletedFalseOrderByGrpId(cmpId);
     }
     
     /**
      * Get all groups for a specific company
      */
-    public List<Group> getGroupsByCompany(Long cmpId) {
-        return groupRepository.findByCmpId(cmpId);
+    public Window<Group> getGroupsByCompany(Long cmpId, KeysetPage page) {
+        return page.scroll("grpName", "grpId", (nameFrom, position, sort, limit) ->
+                groupRepository.findByCmpIdAndIsDeletedFalseAndGrpNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
     }
     
     /**
      * Get active groups for a company
      */
-    public List<Group> getActiveGroups(Long cmpId) {
-        return groupRepository.findByCmpIdAndIsActiveAndIsDeleted(cmpId, true, false);
+    public Window<Group> getActiveGroups(Long cmpId, KeysetPage page) {
+        return page.scroll("grpName", "grpId", (nameFrom, position, sort, limit) ->
+                groupRepository.findByCmpIdAndIsActiveAndIsDeletedAndGrpNameGreaterThanEqual(
+                        cmpId, true, false, nameFrom, position, sort, limit));
+    }
+
+    /**
+     * Rows of the group list screen (projection, no Group entities)
+     */
+    @Transactional(readOnly = true)
+    public Window<GroupListItem> getGroupListItems(Long cmpId, KeysetPage page) {
+        return page.scroll("grpName", "grpId", (nameFrom, position, sort, limit) ->
+                groupRepository.findListItemsByCmpIdAndIsDeletedFalseAndGrpNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
+    }
+
+    /**
+     * Active groups for a picker: id and name only
+     */
+    @Transactional(readOnly = true)
+    public Window<GroupOption> getGroupOptions(Long cmpId, KeysetPage page) {
+        return page.scroll("grpName", "grpId", (nameFrom, position, sort, limit) ->
+                groupRepository.findOptionsByCmpIdAndIsActiveTrueAndIsDeletedFalseAndGrpNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
     }
     
     /**
@@ -86,6 +148,7 @@ public class GroupService {
      */
     public Group upsertGroup(Group group) {
         // Use reconciliation identifier: cmpId + masterId
+        syncLocks.lock(MasterDescriptors.GROUP, group.getCmpId());
         Optional<Group> existingGroup = groupRepository.findByCmpIdAndMasterId(
             group.getCmpId(), 
             group.getMasterId()
@@ -95,26 +158,18 @@ public class GroupService {
             // UPDATE existing group
             Group existing = existingGroup.get();
             
+            // Same alterId = unchanged in Tally; same values = nothing to write either. A soft-deleted row is
+            // always written, so that sending it again restores it
+            if ((group.getAlterId() != null && group.getAlterId().equals(existing.getAlterId())
+                    && !Boolean.TRUE.equals(existing.getIsDeleted()))
+                    || !MasterChangeDetector.hasChanges(MasterDescriptors.GROUP, existing, group)) {
+                return existing;
+            }
+            
             // System.out.println("   ♻️  Updating existing group: " + existing.getGrpName() 
             //     + " for Company #" + existing.getCmpId());
             
-            // Update all fields except primary key
-            existing.setGuid(group.getGuid());              // Update company-specific GUID
-            existing.setMasterId(group.getMasterId());      // Update Tally Master ID
-            existing.setAlterId(group.getAlterId());        // Update Tally Alter ID
-            existing.setGrpCode(group.getGrpCode());
-            existing.setGrpAlias(group.getGrpAlias());
-            existing.setGrpParent(group.getGrpParent());
-            existing.setGrpPrimaryGroup(group.getGrpPrimaryGroup());
-            existing.setGrpNature(group.getGrpNature());
-            existing.setIsRevenue(group.getIsRevenue());
-            existing.setIsReserved(group.getIsReserved());
-            existing.setReservedName(group.getReservedName());
-            existing.setAlternateNames(group.getAlternateNames());
-            existing.setLanguageId(group.getLanguageId());
-            existing.setParentGrpId(group.getParentGrpId());
-            existing.setLevelNumber(group.getLevelNumber());
-            existing.setFullPath(group.getFullPath());
+            groupMapper.copySyncFields(group, existing);
             existing.setIsActive(true);
             existing.setIsDeleted(false);
             existing.setSyncStatus("SYNCED");
@@ -190,36 +245,46 @@ public class GroupService {
     /**
      * Get primary groups (top-level groups with no parent)
      */
-    public List<Group> getPrimaryGroups(Long cmpId) {
-        return groupRepository.findPrimaryGroups(cmpId);
+    public Window<Group> getPrimaryGroups(Long cmpId, KeysetPage page) {
+        return page.scroll("grpName", "grpId", (nameFrom, position, sort, limit) ->
+                groupRepository.findByCmpIdAndParentGrpIdIsNullAndIsDeletedFalseAndGrpNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
     }
     
     /**
      * Get child groups of a parent
      */
-    public List<Group> getChildGroups(Long parentGrpId) {
-        return groupRepository.findByParentGrpId(parentGrpId);
+    public Window<Group> getChildGroups(Long parentGrpId, KeysetPage page) {
+        return page.scroll("grpName", "grpId", (nameFrom, position, sort, limit) ->
+                groupRepository.findByParentGrpIdAndGrpNameGreaterThanEqual(
+                        parentGrpId, nameFrom, position, sort, limit));
     }
     
     /**
      * Get revenue groups (P&L groups)
      */
-    public List<Group> getRevenueGroups(Long cmpId) {
-        return groupRepository.findByCmpIdAndIsRevenue(cmpId, true);
+    public Window<Group> getRevenueGroups(Long cmpId, KeysetPage page) {
+        return page.scroll("grpName", "grpId", (nameFrom, position, sort, limit) ->
+                groupRepository.findByCmpIdAndIsRevenueAndGrpNameGreaterThanEqual(
+                        cmpId, true, nameFrom, position, sort, limit));
     }
     
     /**
      * Get balance sheet groups
      */
-    public List<Group> getBalanceSheetGroups(Long cmpId) {
-        return groupRepository.findByCmpIdAndIsRevenue(cmpId, false);
+    public Window<Group> getBalanceSheetGroups(Long cmpId, KeysetPage page) {
+        return page.scroll("grpName", "grpId", (nameFrom, position, sort, limit) ->
+                groupRepository.findByCmpIdAndIsRevenueAndGrpNameGreaterThanEqual(
+                        cmpId, false, nameFrom, position, sort, limit));
     }
     
     /**
      * Search groups by name
      */
-    public List<Group> searchGroups(Long cmpId, String searchTerm) {
-        return groupRepository.searchByName(cmpId, searchTerm);
+    public Window<Group> searchGroups(Long cmpId, String searchTerm, KeysetPage page) {
+        return page.scroll("grpName", "grpId", (nameFrom, position, sort, limit) ->
+                groupRepository.findByCmpIdAndGrpNameContainingIgnoreCaseAndIsDeletedFalse(
+                        cmpId, searchTerm, position, sort, limit));
     }
     
     /**
@@ -239,10 +304,13 @@ public class GroupService {
     /**
      * Sync groups from Tally (bulk operation)
      */
-    @Transactional
-    public void syncGroupsFromTally(List<Group> tallyGroups) {
-        for (Group group : tallyGroups) {
-            upsertGroup(group);
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncGroupsFromTally(List<Group> tallyGroups) {
+        return masterSyncEngine.sync(MasterDescriptors.GROUP, tallyGroups);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncGroupsFromTally(InputStream json, boolean fullSnapshot) {
+        return masterSyncEngine.sync(MasterDescriptors.GROUP, json, fullSnapshot);
     }
 }
@@ -1,15 +1,28 @@
 package com.tally.service;
 
+import com.tally.dto.LedgerListItem;
+import com.tally.dto.LedgerOption;
+import com.tally.dto.LedgerSummary;
 import com.tally.entity.Ledger;
+import com.tally.mapper.LedgerMapper;
 import com.tally.repository.LedgerRepository;
+import com.tally.sync.MasterChangeDetector;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.sync.SyncLocks;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -18,9 +31,20 @@ public class LedgerService {
     @Autowired
     private LedgerRepository ledgerRepository;
     
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private LedgerMapper ledgerMapper;
+    
     // ========== CRITICAL: Multi-Company Upsert Logic ==========
     public Ledger upsertLedger(Ledger ledger) {
         // Use reconciliation identifier: cmpId + masterId
+        // serialised with the bulk sync of the same company, or both may insert the same master
+        syncLocks.lock(MasterDescriptors.LEDGER, ledger.getCmpId());
         Optional<Ledger> existingLedger = ledgerRepository.findByCmpIdAndMasterId(
             ledger.getCmpId(), 
             ledger.getMasterId()
@@ -29,92 +53,20 @@ public class LedgerService {
         if (existingLedger.isPresent()) {
             // UPDATE existing ledger
             Ledger existing = existingLedger.get();
+            
+            // Same alterId = unchanged in Tally; same values = nothing to write either. A soft-deleted row is
+            // always written, so that sending it again restores it
+            if ((ledger.getAlterId() != null && ledger.getAlterId().equals(existing.getAlterId())
+                    && !Boolean.TRUE.equals(existing.getIsDeleted()))
+                    || !MasterChangeDetector.hasChanges(MasterDescriptors.LEDGER, existing, ledger)) {
+                return existing;
+            }
             // System.out.println("♻️ Updating Ledger: " + existing.getLedName() 
             //     + " (ID: " + existing.getLedId() + ") for Company #" + existing.getCmpId());
             
-            // Update Tally identifiers
-            existing.setMasterId(ledger.getMasterId());
-            existing.setAlterId(ledger.getAlterId());
-            existing.setGuid(ledger.getGuid()); // Company-specific GUID
-            
-            // Update basic information
-            existing.setLedCode(ledger.getLedCode());
-            existing.setLedAlias(ledger.getLedAlias());
-            existing.setLedParent(ledger.getLedParent());
-            existing.setLedPrimaryGroup(ledger.getLedPrimaryGroup());
-            existing.setLedDescription(ledger.getLedDescription());
-            existing.setLedNote(ledger.getLedNote());
-            
-            // Update classification
-            existing.setIsRevenue(ledger.getIsRevenue());
-            existing.setIsReserved(ledger.getIsReserved());
-            existing.setReservedName(ledger.getReservedName());
-            existing.setLastParent(ledger.getLastParent());
-            
-            // Update features
-            existing.setLedBillwiseOn(ledger.getLedBillwiseOn());
-            existing.setLedIsCostcentreOn(ledger.getLedIsCostcentreOn());
-            
-            // Update hierarchy
-            existing.setParentLedId(ledger.getParentLedId());
-            existing.setGrpId(ledger.getGrpId());
-            existing.setLevelNumber(ledger.getLevelNumber());
-            existing.setFullPath(ledger.getFullPath());
-            existing.setParentHierarchy(ledger.getParentHierarchy());
-            
-            // Update contact information
-            existing.setLedMailingName(ledger.getLedMailingName());
-            existing.setLedAddress1(ledger.getLedAddress1());
-            existing.setLedAddress2(ledger.getLedAddress2());
-            existing.setLedAddress3(ledger.getLedAddress3());
-            existing.setLedAddress4(ledger.getLedAddress4());
-            existing.setLedState(ledger.getLedState());
-            existing.setLedCountry(ledger.getLedCountry());
-            existing.setLedPincode(ledger.getLedPincode());
-            existing.setLedContact(ledger.getLedContact());
-            existing.setLedPhone(ledger.getLedPhone());
-            existing.setLedCountryIsdCode(ledger.getLedCountryIsdCode());
-            existing.setLedMobile(ledger.getLedMobile());
-            existing.setLedEmail(ledger.getLedEmail());
-            existing.setLedWebsite(ledger.getLedWebsite());
-            
-            // Update financial information
-            existing.setLedOpeningBalance(ledger.getLedOpeningBalance());
-            existing.setCurrencyName(ledger.getCurrencyName());
-            existing.setIncomeTaxNumber(ledger.getIncomeTaxNumber());
-            
-            // Update GST configuration
-            existing.setGstApplicable(ledger.getGstApplicable());
-            existing.setGstRegistrationType(ledger.getGstRegistrationType());
-            existing.setGstRegistrationDate(ledger.getGstRegistrationDate());
-            existing.setGstGstin(ledger.getGstGstin());
-            existing.setGstIsFreezone(ledger.getGstIsFreezone());
-            existing.setGstState(ledger.getGstState());
-            existing.setGstPlaceOfSupply(ledger.getGstPlaceOfSupply());
-            existing.setGstTransporterId(ledger.getGstTransporterId());
-            existing.setGstIsOtherTerritoryAssessee(ledger.getGstIsOtherTerritoryAssessee());
-            existing.setGstConsiderPurchaseForExport(ledger.getGstConsiderPurchaseForExport());
-            existing.setGstIsTransporter(ledger.getGstIsTransporter());
-            existing.setGstIsCommonParty(ledger.getGstIsCommonParty());
-            
-            // Update VAT configuration
-            existing.setVatApplicable(ledger.getVatApplicable());
-            existing.setVatRegistrationType(ledger.getVatRegistrationType());
-            existing.setVatRegistrationDate(ledger.getVatRegistrationDate());
-            existing.setVatTinNumber(ledger.getVatTinNumber());
-            existing.setVatIsFreezone(ledger.getVatIsFreezone());
-            
-            // Update multilingual support
-            existing.setLanguageId(ledger.getLanguageId());
-            existing.setAlternateNames(ledger.getAlternateNames());
-            
-            // Update status & metadata
-            existing.setIsActive(ledger.getIsActive());
-            existing.setIsDeleted(ledger.getIsDeleted());
+            ledgerMapper.copySyncFields(ledger, existing);
             existing.setSyncStatus("SYNCED");
             existing.setLastSyncDate(LocalDateTime.now());
-            existing.setMailingDetailsApplicableFrom(ledger.getMailingDetailsApplicableFrom());
-            existing.setGstDetailsApplicableFrom(ledger.getGstDetailsApplicableFrom());
             
             return ledgerRepository.save(existing);
         } else {
@@ -128,16 +80,35 @@ public class LedgerService {
     }
     
     // ========== BULK SYNC FROM TALLY ==========
-    public List<Ledger> syncLedgersFromTally(List<Ledger> ledgers) {
-        System.out.println("🔄 Starting bulk sync for " + ledgers.size() + " ledgers...");
-        return ledgers.stream()
-            .map(this::upsertLedger)
-            .toList();
+    /**
+     * Bulk upsert: each chunk is written with one INSERT ... ON CONFLICT batch
+     * instead of a find + save per ledger. Not transactional here: the engine commits chunk by chunk,
+     * and an idle outer transaction would pin a second connection for the whole sync.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncLedgersFromTally(List<Ledger> ledgers) {
+        return masterSyncEngine.sync(MasterDescriptors.LEDGER, ledgers);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncLedgersFromTally(InputStream json, boolean fullSnapshot) {
+        return masterSyncEngine.sync(MasterDescriptors.LEDGER, json, fullSnapshot);
     }
     
     // ========== BASIC CRUD OPERATIONS ==========
-    public List<Ledger> getAllLedgers() {
-        return ledgerRepository.findAll();
+    public Window<Ledger> getAllLedgers(KeysetPage page) {
+        return page.scroll("ledName", "ledId", ledgerRepository::findByLedNameGreaterThanEqual);
+    }
+
+    // Export streams: call inside MasterExportService.export, whose transaction keeps the cursor open
+    @Transactional(readOnly = true)
+    public Stream<Ledger> streamAllLedgers() {
+        return ledgerRepository.streamAll();
+    }
+
+    @Transactional(readOnly = true)
+    public Stream<Ledger> streamLedgersByCompany(Long cmpId) {
+        return ledgerRepository.streamByCmpIdAndIsDeletedFalseOrderByLedId(cmpId);
     }
     
     public Optional<Ledger> getLedgerById(Long ledId) {
@@ -163,30 +134,8 @@ public class LedgerService {
         Ledger ledger = ledgerRepository.findById(ledId)
                 .orElseThrow(() -> new RuntimeException("Ledger not found with ID: " + ledId));
         
-        // Update all fields
-        ledger.setLedName(ledgerDetails.getLedName());
-        ledger.setLedCode(ledgerDetails.getLedCode());
-        ledger.setLedAlias(ledgerDetails.getLedAlias());
-        ledger.setLedParent(ledgerDetails.getLedParent());
-        ledger.setLedDescription(ledgerDetails.getLedDescription());
-        ledger.setLedNote(ledgerDetails.getLedNote());
-        ledger.setGrpId(ledgerDetails.getGrpId());
-        ledger.setLedOpeningBalance(ledgerDetails.getLedOpeningBalance());
-        
-        // Update contact information
-        ledger.setLedMailingName(ledgerDetails.getLedMailingName());
-        ledger.setLedAddress1(ledgerDetails.getLedAddress1());
-        ledger.setLedAddress2(ledgerDetails.getLedAddress2());
-        ledger.setLedState(ledgerDetails.getLedState());
-        ledger.setLedCountry(ledgerDetails.getLedCountry());
-        ledger.setLedPincode(ledgerDetails.getLedPincode());
-        ledger.setLedMobile(ledgerDetails.getLedMobile());
-        ledger.setLedEmail(ledgerDetails.getLedEmail());
-        
-        // Update GST
-        ledger.setGstApplicable(ledgerDetails.getGstApplicable());
-        ledger.setGstGstin(ledgerDetails.getGstGstin());
-        ledger.setGstState(ledgerDetails.getGstState());
+        // Same field list as the sync, minus what only Tally or the hierarchy resolver may change
+        ledgerMapper.copyEditableFields(ledgerDetails, ledger);
         
         return ledgerRepository.save(ledger);
     }
@@ -204,48 +153,66 @@ public class LedgerService {
     }
     
     // ========== COMPANY-SPECIFIC QUERIES ==========
-    public List<Ledger> getLedgersByCompany(Long cmpId) {
-        return ledgerRepository.findByCmpId(cmpId);
+    public Window<Ledger> getLedgersByCompany(Long cmpId, KeysetPage page) {
+        return page.scroll("ledName", "ledId", (nameFrom, position, sort, limit) ->
+                ledgerRepository.findByCmpIdAndIsDeletedFalseAndLedNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
     }
     
-    public List<Ledger> getActiveLedgersByCompany(Long cmpId) {
-        return ledgerRepository.findActiveLedgersByCompany(cmpId);
+    public Window<Ledger> getActiveLedgersByCompany(Long cmpId, KeysetPage page) {
+        return page.scroll("ledName", "ledId", (nameFrom, position, sort, limit) ->
+                ledgerRepository.findByCmpIdAndIsActiveTrueAndIsDeletedFalseAndLedNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
     }
     
     // ========== GROUP-BASED QUERIES ==========
-    public List<Ledger> getLedgersByGroup(Long grpId) {
-        return ledgerRepository.findByGrpId(grpId);
+    public Window<Ledger> getLedgersByGroup(Long grpId, KeysetPage page) {
+        return page.scroll("ledName", "ledId", (nameFrom, position, sort, limit) ->
+                ledgerRepository.findByGrpIdAndLedNameGreaterThanEqual(grpId, nameFrom, position, sort, limit));
     }
     
-    public List<Ledger> getLedgersByCompanyAndGroup(Long cmpId, Long grpId) {
-        return ledgerRepository.findByCmpIdAndGrpId(cmpId, grpId);
+    public Window<Ledger> getLedgersByCompanyAndGroup(Long cmpId, Long grpId, KeysetPage page) {
+        return page.scroll("ledName", "ledId", (nameFrom, position, sort, limit) ->
+                ledgerRepository.findByCmpIdAndGrpIdAndLedNameGreaterThanEqual(
+                        cmpId, grpId, nameFrom, position, sort, limit));
     }
     
     // ========== CLASSIFICATION QUERIES ==========
-    public List<Ledger> getCustomers(Long cmpId) {
-        return ledgerRepository.findByCmpIdAndLedPrimaryGroup(cmpId, "Sundry Debtors");
+    public Window<Ledger> getCustomers(Long cmpId, KeysetPage page) {
+        return page.scroll("ledName", "ledId", (nameFrom, position, sort, limit) ->
+                ledgerRepository.findByCmpIdAndLedPrimaryGroupAndLedNameGreaterThanEqual(
+                        cmpId, "Sundry Debtors", nameFrom, position, sort, limit));
     }
     
-    public List<Ledger> getSuppliers(Long cmpId) {
-        return ledgerRepository.findByCmpIdAndLedPrimaryGroup(cmpId, "Sundry Creditors");
+    public Window<Ledger> getSuppliers(Long cmpId, KeysetPage page) {
+        return page.scroll("ledName", "ledId", (nameFrom, position, sort, limit) ->
+                ledgerRepository.findByCmpIdAndLedPrimaryGroupAndLedNameGreaterThanEqual(
+                        cmpId, "Sundry Creditors", nameFrom, position, sort, limit));
     }
     
-    public List<Ledger> getBankAccounts(Long cmpId) {
-        return ledgerRepository.findByCmpIdAndLedPrimaryGroup(cmpId, "Bank Accounts");
+    public Window<Ledger> getBankAccounts(Long cmpId, KeysetPage page) {
+        return page.scroll("ledName", "ledId", (nameFrom, position, sort, limit) ->
+                ledgerRepository.findByCmpIdAndLedPrimaryGroupAndLedNameGreaterThanEqual(
+                        cmpId, "Bank Accounts", nameFrom, position, sort, limit));
     }
     
-    public List<Ledger> getCashAccounts(Long cmpId) {
-        return ledgerRepository.findByCmpIdAndLedPrimaryGroup(cmpId, "Cash-in-Hand");
+    public Window<Ledger> getCashAccounts(Long cmpId, KeysetPage page) {
+        return page.scroll("ledName", "ledId", (nameFrom, position, sort, limit) ->
+                ledgerRepository.findByCmpIdAndLedPrimaryGroupAndLedNameGreaterThanEqual(
+                        cmpId, "Cash-in-Hand", nameFrom, position, sort, limit));
     }
     
     // ========== SEARCH & FILTER ==========
-    public List<Ledger> searchLedgers(Long cmpId, String searchTerm) {
-        return ledgerRepository.searchByName(cmpId, searchTerm);
+    public Window<Ledger> searchLedgers(Long cmpId, String searchTerm, KeysetPage page) {
+        return page.scroll("ledName", "ledId", (nameFrom, position, sort, limit) ->
+                ledgerRepository.searchByName(cmpId, searchTerm, position, sort, limit));
     }
     
     // ========== GST QUERIES ==========
-    public List<Ledger> getGstRegisteredLedgers(Long cmpId) {
-        return ledgerRepository.findGstRegisteredLedgers(cmpId);
+    public Window<Ledger> getGstRegisteredLedgers(Long cmpId, KeysetPage page) {
+        return page.scroll("ledName", "ledId", (nameFrom, position, sort, limit) ->
+                ledgerRepository.findByCmpIdAndGstApplicableTrueAndGstGstinIsNotNullAndIsActiveTrueAndLedNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
     }
     
     public Optional<Ledger> getLedgerByGstin(String gstGstin) {
@@ -261,15 +228,24 @@ public class LedgerService {
         return ledgerRepository.findByLedMobile(mobile);
     }
     
-    // ========== STATISTICS ==========
-    public BigDecimal getTotalOpeningBalance(Long cmpId) {
-        return ledgerRepository.findActiveLedgersByCompany(cmpId).stream()
-                .map(Ledger::getLedOpeningBalance)
-                .filter(balance -> balance != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // ========== LIST / PICKER VIEWS ==========
+    @Transactional(readOnly = true)
+    public Window<LedgerListItem> getLedgerListItems(Long cmpId, KeysetPage page) {
+        return page.scroll("ledName", "ledId", (nameFrom, position, sort, limit) ->
+                ledgerRepository.findListItemsByCmpIdAndIsDeletedFalseAndLedNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public Window<LedgerOption> getLedgerOptions(Long cmpId, KeysetPage page) {
+        return page.scroll("ledName", "ledId", (nameFrom, position, sort, limit) ->
+                ledgerRepository.findOptionsByCmpIdAndIsActiveTrueAndIsDeletedFalseAndLedNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
     }
     
-    public long getActiveLedgersCount(Long cmpId) {
-        return ledgerRepository.findActiveLedgersByCompany(cmpId).size();
+    // ========== STATISTICS ==========
+    @Transactional(readOnly = true)
+    public LedgerSummary getActiveLedgersSummary(Long cmpId) {
+        return ledgerRepository.summarizeActiveLedgers(cmpId);
     }
 }
@@ -0,0 +1,90 @@
+package com.tally.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Export endpoints (/ledgers/export, /groups/export, ...) that return every row of a master in one response.
+ *
+ * Rows come from a repository Stream - a forward-only JDBC cursor read FETCH_SIZE rows at a time - and each one
+ * is written to the response and detached before the next is read, so heap use does not grow with the table
+ * and the first rows go out before the query has finished. The body is
+ * {"success":true,"data":[...],"count":n}.
+ */
+@Service
+public class MasterExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MasterExportService.class);
+
+    /** rows per round trip of the export cursors (a @QueryHint value, hence a String) */
+    public static final String FETCH_SIZE = "1000";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param rows opens the stream; it is called on the thread writing the response, inside a read-only
+     *             transaction (PostgreSQL only uses a cursor for the fetch size when autocommit is off)
+     */
+    public <T> ResponseEntity<StreamingResponseBody> export(Supplier<Stream<T>> rows) {
+        StreamingResponseBody body = out -> {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            try {
+                transaction.executeWithoutResult(status -> write(out, rows));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private <T> void write(OutputStream out, Supplier<Stream<T>> rows) {
+        long count = 0;
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeArrayFieldStart("data");
+            json.flush();
+            try (Stream<T> stream = rows.get()) {
+                Iterator<T> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    T row = iterator.next();
+                    json.writeObject(row);
+                    entityManager.detach(row);
+                    count++;
+                }
+            }
+            json.writeEndArray();
+            json.writeNumberField("count", count);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.debug("Exported {} rows", count);
+    }
+}
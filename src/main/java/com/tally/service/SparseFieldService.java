@@ -0,0 +1,317 @@
+package com.tally.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tally.sync.MasterColumn;
+import com.tally.sync.MasterDescriptor;
+import com.tally.sync.MasterDescriptors;
+import com.tally.util.KeysetPage;
+import jakarta.persistence.Column;
+import jakarta.persistence.Id;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sparse fieldsets on the company list endpoints, e.g. GET /ledgers/company/9?fields=ledName,gstGstin,ledMobile
+ *
+ * The requested fields are checked against a whitelist per master - the fields whose column the sync descriptor
+ * writes, plus the id and the timestamps - and compiled into a narrow SELECT and the JSON writer for it. Plans
+ * are cached per field set. Rows go to the response as they come off the ResultSet; no entity is built.
+ *
+ * Pages like the other lists (KeysetPage, same cursors). The body is always
+ * {"success":true,"data":[...],"count":n,"hasMore":b,"nextCursor":c}: the cursor is only known after the rows
+ * have been written, so it cannot go in a header.
+ */
+@Service
+public class SparseFieldService {
+
+    /** plans are cached per distinct field set up to this many; further field sets are compiled per request */
+    public static final int MAX_CACHED_PLANS = 1000;
+
+    // ========== SOURCES ==========
+    public static final Source LEDGERS = new Source(MasterDescriptors.LEDGER, "led_name");
+    public static final Source GROUPS = new Source(MasterDescriptors.GROUP, "grp_name");
+    public static final Source STOCK_ITEMS = new Source(MasterDescriptors.STOCK_ITEM, "name");
+    public static final Source STOCK_GROUPS = new Source(MasterDescriptors.STOCK_GROUP, "name");
+    public static final Source STOCK_CATEGORIES = new Source(MasterDescriptors.STOCK_CATEGORY, "name");
+    public static final Source GODOWNS = new Source(MasterDescriptors.GODOWN, "name");
+    public static final Source UNITS = new Source(MasterDescriptors.UNITS, "unit_name");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, Plan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * One page of the company's rows with only the requested fields
+     *
+     * @param fields comma-separated JSON field names, as in the full response
+     * @throws InvalidFieldsException when fields is empty or names a field that is not on the whitelist
+     */
+    public ResponseEntity<StreamingResponseBody> stream(Source source, Long cmpId, String fields, KeysetPage page) {
+        Plan plan = plan(source, fields);
+        List<Object> after = page.keysAfter(source.nameField.json, source.idField.json);
+
+        List<Object> args = new ArrayList<>();
+        args.add(cmpId);
+        if (after != null) {
+            args.addAll(after);
+        }
+        // one row more than the page, to know whether there is a next one
+        args.add(page.getSize() + 1);
+        String sql = plan.sql(page.isSortedByName(), after != null);
+
+        StreamingResponseBody body = out -> write(out, plan, sql, args.toArray(), page);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // ========== PLANS ==========
+    private Plan plan(Source source, String fields) {
+        List<String> requested = parse(fields);
+        String key = source.descriptor.getEntityType() + ":" + String.join(",", requested);
+        Plan plan = plans.get(key);
+        if (plan == null) {
+            plan = new Plan(source, requested);
+            if (plans.size() < MAX_CACHED_PLANS) {
+                plans.putIfAbsent(key, plan);
+            }
+        }
+        return plan;
+    }
+
+    private static List<String> parse(String fields) {
+        Set<String> names = new LinkedHashSet<>();
+        if (fields != null) {
+            for (String name : fields.split(",")) {
+                if (!name.isBlank()) {
+                    names.add(name.trim());
+                }
+            }
+        }
+        if (names.isEmpty()) {
+            throw new InvalidFieldsException("fields must name at least one field");
+        }
+        return List.copyOf(names);
+    }
+
+    // ========== WRITING ==========
+    private void write(OutputStream out, Plan plan, String sql, Object[] args, KeysetPage page) throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeArrayFieldStart("data");
+            PageWriter rows = new PageWriter(json, plan, page.getSize(), page.isSortedByName());
+            try {
+                jdbcTemplate.query(sql, rows, args);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            json.writeEndArray();
+            json.writeNumberField("count", rows.count);
+            json.writeBooleanField("hasMore", rows.hasMore);
+            json.writeStringField("nextCursor", rows.hasMore ? page.cursorAfter(rows.lastKeys) : null);
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes each row as a JSON object and remembers the keys of the last one for the cursor
+     */
+    private static class PageWriter implements RowCallbackHandler {
+        private final JsonGenerator json;
+        private final Plan plan;
+        private final int size;
+        private final boolean byName;
+        private int count;
+        private boolean hasMore;
+        private Map<String, Object> lastKeys;
+
+        PageWriter(JsonGenerator json, Plan plan, int size, boolean byName) {
+            this.json = json;
+            this.plan = plan;
+            this.size = size;
+            this.byName = byName;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (count == size) {
+                hasMore = true;
+                return;
+            }
+            try {
+                json.writeStartObject();
+                for (int i = 0; i < plan.output.size(); i++) {
+                    EntityField field = plan.output.get(i);
+                    json.writeFieldName(field.json);
+                    json.writeObject(rs.getObject(i + 1, field.type));
+                }
+                json.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            lastKeys = new LinkedHashMap<>();
+            if (byName) {
+                lastKeys.put(plan.source.nameField.json, rs.getString(plan.nameIndex));
+            }
+            lastKeys.put(plan.source.idField.json, rs.getLong(plan.idIndex));
+            count++;
+        }
+    }
+
+    /**
+     * Compiled field set: the SELECT for each sort and page, and the fields written per row in request order.
+     * The id and name are selected after the requested columns when they were not asked for, for the cursor.
+     */
+    private static class Plan {
+        private final Source source;
+        private final List<EntityField> output = new ArrayList<>();
+        private final int idIndex;
+        private final int nameIndex;
+        private final String firstById;
+        private final String nextById;
+        private final String firstByName;
+        private final String nextByName;
+
+        Plan(Source source, List<String> requested) {
+            this.source = source;
+            List<String> columns = new ArrayList<>();
+            for (String name : requested) {
+                EntityField field = source.fields.get(name);
+                if (field == null) {
+                    throw new InvalidFieldsException("Unknown field '" + name + "'; allowed: " +
+                                                     String.join(", ", source.fields.keySet()));
+                }
+                output.add(field);
+                columns.add(field.column);
+            }
+            this.idIndex = indexOf(columns, source.idField.column);
+            this.nameIndex = indexOf(columns, source.nameField.column);
+
+            String id = source.idField.column;
+            String name = source.nameField.column;
+            String from = "SELECT " + String.join(", ", columns) + " FROM " + source.descriptor.getTable() +
+                          " WHERE cmpid = ? AND is_deleted = false";
+            this.firstById = from + " ORDER BY " + id + " LIMIT ?";
+            this.nextById = from + " AND " + id + " > ? ORDER BY " + id + " LIMIT ?";
+            this.firstByName = from + " ORDER BY " + name + ", " + id + " LIMIT ?";
+            // a row comparison, unlike name > ? OR (name = ? AND id > ?), is a range on the (cmpid, name, id) index
+            this.nextByName = from + " AND (" + name + ", " + id + ") > (?, ?) ORDER BY " + name + ", " + id + " LIMIT ?";
+        }
+
+        /** 1-based position of column in the select list, appended when not requested */
+        private static int indexOf(List<String> columns, String column) {
+            int index = columns.indexOf(column);
+            if (index < 0) {
+                columns.add(column);
+                index = columns.size() - 1;
+            }
+            return index + 1;
+        }
+
+        String sql(boolean byName, boolean afterCursor) {
+            if (byName) {
+                return afterCursor ? nextByName : firstByName;
+            }
+            return afterCursor ? nextById : firstById;
+        }
+    }
+
+    /**
+     * A master that can be read with sparse fields, and its whitelist (JSON field name to column)
+     */
+    public static final class Source {
+        private final MasterDescriptor<?> descriptor;
+        private final Map<String, EntityField> fields;
+        private final EntityField idField;
+        private final EntityField nameField;
+
+        /**
+         * @param nameColumn column of the name sort
+         */
+        Source(MasterDescriptor<?> descriptor, String nameColumn) {
+            this.descriptor = descriptor;
+
+            Set<String> allowed = new HashSet<>();
+            for (MasterColumn<?> column : descriptor.getColumns()) {
+                allowed.add(column.name());
+            }
+            allowed.add(descriptor.getIdColumn());
+            allowed.add("created_at");
+            allowed.add("updated_at");
+
+            Map<String, EntityField> byName = new LinkedHashMap<>();
+            EntityField id = null;
+            EntityField name = null;
+            for (Field field : descriptor.getEntityClass().getDeclaredFields()) {
+                Column column = field.getAnnotation(Column.class);
+                if (column == null || !allowed.contains(column.name()) || field.isAnnotationPresent(JsonIgnore.class)) {
+                    continue;
+                }
+                JsonProperty property = field.getAnnotation(JsonProperty.class);
+                EntityField entityField = new EntityField(
+                        property != null && !property.value().isEmpty() ? property.value() : field.getName(),
+                        column.name(),
+                        MethodType.methodType(field.getType()).wrap().returnType());
+                byName.put(entityField.json, entityField);
+                if (field.isAnnotationPresent(Id.class)) {
+                    id = entityField;
+                }
+                if (column.name().equals(nameColumn)) {
+                    name = entityField;
+                }
+            }
+            if (id == null || name == null) {
+                throw new IllegalStateException("No @Id or " + nameColumn + " field on " +
+                                                descriptor.getEntityClass().getSimpleName());
+            }
+            this.fields = Collections.unmodifiableMap(byName);
+            this.idField = id;
+            this.nameField = name;
+        }
+    }
+
+    /**
+     * @param json   field name in the JSON of the entity
+     * @param column table column
+     * @param type   Java type read from the ResultSet (boxed)
+     */
+    private record EntityField(String json, String column, Class<?> type) {
+    }
+
+    /**
+     * Empty or unknown ?fields=; answered with 400 and the message by GlobalExceptionHandler
+     */
+    public static class InvalidFieldsException extends IllegalArgumentException {
+        public InvalidFieldsException(String message) {
+            super(message);
+        }
+    }
+}
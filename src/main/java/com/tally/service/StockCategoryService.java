@@ -1,11 +1,20 @@
 package com.tally.service;
 
 import com.tally.entity.StockCategory;
+import com.tally.mapper.StockCategoryMapper;
 import com.tally.repository.StockCategoryRepository;
+import com.tally.sync.MasterChangeDetector;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.sync.SyncLocks;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,12 +25,23 @@ public class StockCategoryService {
     @Autowired
     private StockCategoryRepository stockCategoryRepository;
 
-    public List<StockCategory> getAll() {
-        return stockCategoryRepository.findAll();
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private StockCategoryMapper stockCategoryMapper;
+
+    public Window<StockCategory> getAll(KeysetPage page) {
+        return page.scroll("name", "id", stockCategoryRepository::findByNameGreaterThanEqual);
     }
 
-    public List<StockCategory> getByCmpId(Long cmpId) {
-        return stockCategoryRepository.findByCmpId(cmpId);
+    public Window<StockCategory> getByCmpId(Long cmpId, KeysetPage page) {
+        return page.scroll("name", "id", (nameFrom, position, sort, limit) ->
+                stockCategoryRepository.findByCmpIdAndIsDeletedFalseAndNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
     }
 
     public StockCategory create(StockCategory stockCategory) {
@@ -30,29 +50,37 @@ public class StockCategoryService {
 
     public StockCategory upsert(StockCategory stockCategory) {
         // Use reconciliation identifier: cmpId + masterId
+        syncLocks.lock(MasterDescriptors.STOCK_CATEGORY, stockCategory.getCmpId());
         Optional<StockCategory> existing = stockCategoryRepository.findByCmpIdAndMasterId(
                 stockCategory.getCmpId(),
                 stockCategory.getMasterId());
 
         if (existing.isPresent()) {
             StockCategory e = existing.get();
-            e.setGuid(stockCategory.getGuid());
-            e.setMasterId(stockCategory.getMasterId());
-            e.setAlterId(stockCategory.getAlterId());
-            e.setParent(stockCategory.getParent());
-            e.setReservedName(stockCategory.getReservedName());
-            e.setUserId(stockCategory.getUserId());
-            e.setUpdatedAt(LocalDateTime.now());
+            if (!MasterChangeDetector.hasChanges(MasterDescriptors.STOCK_CATEGORY, e, stockCategory)) {
+                return e;
+            }
+
+            stockCategoryMapper.copySyncFields(stockCategory, e);
+            e.setIsDeleted(false);
             return stockCategoryRepository.save(e);
         } else {
             return stockCategoryRepository.save(stockCategory);
         }
     }
 
-    public void syncFromTally(List<StockCategory> items) {
-        for (StockCategory item : items) {
-            upsert(item);
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(List<StockCategory> items) {
+        return masterSyncEngine.sync(MasterDescriptors.STOCK_CATEGORY, items);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(InputStream json, boolean fullSnapshot) {
+        return masterSyncEngine.sync(MasterDescriptors.STOCK_CATEGORY, json, fullSnapshot);
+    }
+
+    public boolean deleteByMasterId(Long cmpId, Long masterId) {
+        return masterSyncEngine.delete(MasterDescriptors.STOCK_CATEGORY, cmpId, masterId);
     }
 
     public List<StockCategory> saveAll(List<StockCategory> items) {
@@ -1,11 +1,20 @@
 package com.tally.service;
 
 import com.tally.entity.StockGroup;
+import com.tally.mapper.StockGroupMapper;
 import com.tally.repository.StockGroupRepository;
+import com.tally.sync.MasterChangeDetector;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.sync.SyncLocks;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,12 +25,23 @@ public class StockGroupService {
     @Autowired
     private StockGroupRepository stockGroupRepository;
 
-    public List<StockGroup> getAll() {
-        return stockGroupRepository.findAll();
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private StockGroupMapper stockGroupMapper;
+
+    public Window<StockGroup> getAll(KeysetPage page) {
+        return page.scroll("name", "id", stockGroupRepository::findByNameGreaterThanEqual);
     }
 
-    public List<StockGroup> getByCmpId(Long cmpId) {
-        return stockGroupRepository.findByCmpId(cmpId);
+    public Window<StockGroup> getByCmpId(Long cmpId, KeysetPage page) {
+        return page.scroll("name", "id", (nameFrom, position, sort, limit) ->
+                stockGroupRepository.findByCmpIdAndIsDeletedFalseAndNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
     }
 
     public StockGroup create(StockGroup stockGroup) {
@@ -30,29 +50,37 @@ public class StockGroupService {
 
     public StockGroup upsert(StockGroup stockGroup) {
         // Use reconciliation identifier: cmpId + masterId
+        syncLocks.lock(MasterDescriptors.STOCK_GROUP, stockGroup.getCmpId());
         Optional<StockGroup> existing = stockGroupRepository.findByCmpIdAndMasterId(
                 stockGroup.getCmpId(),
                 stockGroup.getMasterId());
 
         if (existing.isPresent()) {
             StockGroup e = existing.get();
-            e.setGuid(stockGroup.getGuid());
-            e.setMasterId(stockGroup.getMasterId());
-            e.setAlterId(stockGroup.getAlterId());
-            e.setParent(stockGroup.getParent());
-            e.setReservedName(stockGroup.getReservedName());
-            e.setUserId(stockGroup.getUserId());
-            e.setUpdatedAt(LocalDateTime.now());
+            if (!MasterChangeDetector.hasChanges(MasterDescriptors.STOCK_GROUP, e, stockGroup)) {
+                return e;
+            }
+
+            stockGroupMapper.copySyncFields(stockGroup, e);
+            e.setIsDeleted(false);
             return stockGroupRepository.save(e);
         } else {
             return stockGroupRepository.save(stockGroup);
         }
     }
 
-    public void syncFromTally(List<StockGroup> items) {
-        for (StockGroup item : items) {
-            upsert(item);
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(List<StockGroup> items) {
+        return masterSyncEngine.sync(MasterDescriptors.STOCK_GROUP, items);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(InputStream json, boolean fullSnapshot) {
+        return masterSyncEngine.sync(MasterDescriptors.STOCK_GROUP, json, fullSnapshot);
+    }
+
+    public boolean deleteByMasterId(Long cmpId, Long masterId) {
+        return masterSyncEngine.delete(MasterDescriptors.STOCK_GROUP, cmpId, masterId);
     }
 
     public List<StockGroup> saveAll(List<StockGroup> items) {
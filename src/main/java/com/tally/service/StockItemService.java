@@ -1,13 +1,26 @@
 package com.tally.service;
 
+import com.tally.dto.StockItemListItem;
+import com.tally.dto.StockItemOption;
+import com.tally.dto.StockItemSummary;
 import com.tally.entity.StockItem;
+import com.tally.mapper.StockItemMapper;
 import com.tally.repository.StockItemRepository;
+import com.tally.sync.MasterChangeDetector;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.sync.SyncLocks;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -16,12 +29,53 @@ public class StockItemService {
     @Autowired
     private StockItemRepository stockItemRepository;
 
-    public List<StockItem> getAll() {
-        return stockItemRepository.findAll();
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private StockItemMapper stockItemMapper;
+
+    public Window<StockItem> getAll(KeysetPage page) {
+        return page.scroll("name", "id", stockItemRepository::findByNameGreaterThanEqual);
+    }
+
+    // For MasterExportService.export, which opens the transaction the stream is read in
+    @Transactional(readOnly = true)
+    public Stream<StockItem> streamAll() {
+        return stockItemRepository.streamAll();
+    }
+
+    @Transactional(readOnly = true)
+    public Stream<StockItem> streamByCmpId(Long cmpId) {
+        return stockItemRepository.streamByCmpIdAndIsDeletedFalseOrderById(cmpId);
+    }
+
+    public Window<StockItem> getByCmpId(Long cmpId, KeysetPage page) {
+        return page.scroll("name", "id", (nameFrom, position, sort, limit) ->
+                stockItemRepository.findByCmpIdAndIsDeletedFalseAndNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public Window<StockItemListItem> getListItems(Long cmpId, KeysetPage page) {
+        return page.scroll("name", "id", (nameFrom, position, sort, limit) ->
+                stockItemRepository.findListItemsByCmpIdAndIsDeletedFalseAndNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
     }
 
-    public List<StockItem> getByCmpId(Long cmpId) {
-        return stockItemRepository.findByCmpId(cmpId);
+    @Transactional(readOnly = true)
+    public Window<StockItemOption> getOptions(Long cmpId, KeysetPage page) {
+        return page.scroll("name", "id", (nameFrom, position, sort, limit) ->
+                stockItemRepository.findOptionsByCmpIdAndIsDeletedFalseAndNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public StockItemSummary getSummary(Long cmpId) {
+        return stockItemRepository.summarize(cmpId);
     }
     
 
@@ -31,43 +85,37 @@ public class StockItemService {
 
     public StockItem upsert(StockItem stockItem) {
         // Use reconciliation identifier: cmpId + masterId
+        syncLocks.lock(MasterDescriptors.STOCK_ITEM, stockItem.getCmpId());
         Optional<StockItem> existing = stockItemRepository.findByCmpIdAndMasterId(
                 stockItem.getCmpId(),
                 stockItem.getMasterId());
 
         if (existing.isPresent()) {
             StockItem e = existing.get();
-            e.setGuid(stockItem.getGuid());
-            e.setMasterId(stockItem.getMasterId());
-            e.setAlterId(stockItem.getAlterId());
-            e.setParent(stockItem.getParent());
-            e.setCategory(stockItem.getCategory());
-            e.setDescription(stockItem.getDescription());
-            e.setMailingName(stockItem.getMailingName());
-            e.setReservedName(stockItem.getReservedName());
-            e.setBaseUnits(stockItem.getBaseUnits());
-            e.setAdditionalUnits(stockItem.getAdditionalUnits());
-            e.setOpeningBalance(stockItem.getOpeningBalance());
-            e.setOpeningValue(stockItem.getOpeningValue());
-            e.setOpeningRate(stockItem.getOpeningRate());
-            e.setCostingMethod(stockItem.getCostingMethod());
-            e.setValuationMethod(stockItem.getValuationMethod());
-            e.setGstTypeOfSupply(stockItem.getGstTypeOfSupply());
-            e.setHsnCode(stockItem.getHsnCode());
-            e.setBatchWiseOn(stockItem.getBatchWiseOn());
-            e.setCostCentersOn(stockItem.getCostCentersOn());
-            e.setUserId(stockItem.getUserId());
-            e.setUpdatedAt(LocalDateTime.now());
+            if (!MasterChangeDetector.hasChanges(MasterDescriptors.STOCK_ITEM, e, stockItem)) {
+                return e;
+            }
+
+            stockItemMapper.copySyncFields(stockItem, e);
+            e.setIsDeleted(false);
             return stockItemRepository.save(e);
         } else {
             return stockItemRepository.save(stockItem);
         }
     }
 
-    public void syncFromTally(List<StockItem> items) {
-        for (StockItem item : items) {
-            upsert(item);
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(List<StockItem> items) {
+        return masterSyncEngine.sync(MasterDescriptors.STOCK_ITEM, items);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(InputStream json, boolean fullSnapshot) {
+        return masterSyncEngine.sync(MasterDescriptors.STOCK_ITEM, json, fullSnapshot);
+    }
+
+    public boolean deleteByMasterId(Long cmpId, Long masterId) {
+        return masterSyncEngine.delete(MasterDescriptors.STOCK_ITEM, cmpId, masterId);
     }
 
     public List<StockItem> saveAll(List<StockItem> items) {
@@ -1,11 +1,20 @@
 package com.tally.service;
 
 import com.tally.entity.TaxUnit;
+import com.tally.mapper.TaxUnitMapper;
 import com.tally.repository.TaxUnitRepository;
+import com.tally.sync.MasterChangeDetector;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.sync.SyncLocks;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,8 +25,17 @@ public class TaxUnitService {
     @Autowired
     private TaxUnitRepository taxUnitRepository;
 
-    public List<TaxUnit> getAll() {
-        return taxUnitRepository.findAll();
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private TaxUnitMapper taxUnitMapper;
+
+    public Window<TaxUnit> getAll(KeysetPage page) {
+        return page.scroll("name", "id", taxUnitRepository::findByNameGreaterThanEqual);
     }
 
     public TaxUnit create(TaxUnit taxUnit) {
@@ -26,27 +44,36 @@ public class TaxUnitService {
 
     public TaxUnit upsert(TaxUnit taxUnit) {
         // Use reconciliation identifier: cmpId + masterId
+        syncLocks.lock(MasterDescriptors.TAX_UNIT, taxUnit.getCmpId());
         Optional<TaxUnit> existing = taxUnitRepository.findByCmpIdAndMasterId(
                 taxUnit.getCmpId(),
                 taxUnit.getMasterId());
 
         if (existing.isPresent()) {
             TaxUnit e = existing.get();
-            e.setGuid(taxUnit.getGuid());
-            e.setMasterId(taxUnit.getMasterId());
-            e.setAlterId(taxUnit.getAlterId());
-            e.setIsActive(taxUnit.getIsActive());
-            e.setUserId(taxUnit.getUserId());
-            e.setUpdatedAt(LocalDateTime.now());
+            if (!MasterChangeDetector.hasChanges(MasterDescriptors.TAX_UNIT, e, taxUnit)) {
+                return e;
+            }
+
+            taxUnitMapper.copySyncFields(taxUnit, e);
+            e.setIsDeleted(false);
             return taxUnitRepository.save(e);
         } else {
             return taxUnitRepository.save(taxUnit);
         }
     }
 
-    public void syncFromTally(List<TaxUnit> items) {
-        for (TaxUnit item : items) {
-            upsert(item);
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(List<TaxUnit> items) {
+        return masterSyncEngine.sync(MasterDescriptors.TAX_UNIT, items);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(InputStream json, boolean fullSnapshot) {
+        return masterSyncEngine.sync(MasterDescriptors.TAX_UNIT, json, fullSnapshot);
+    }
+
+    public boolean deleteByMasterId(Long cmpId, Long masterId) {
+        return masterSyncEngine.delete(MasterDescriptors.TAX_UNIT, cmpId, masterId);
     }
 }
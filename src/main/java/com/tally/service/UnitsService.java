@@ -1,11 +1,20 @@
 package com.tally.service;
 
 import com.tally.entity.Units;
+import com.tally.mapper.UnitsMapper;
 import com.tally.repository.UnitsRepository;
+import com.tally.sync.MasterChangeDetector;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.sync.SyncLocks;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,34 +24,55 @@ public class UnitsService {
     @Autowired
     private UnitsRepository unitsRepository;
 
-    public List<Units> getallUnits() {
-        return unitsRepository.findAll();
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private UnitsMapper unitsMapper;
+
+    public Window<Units> getallUnits(KeysetPage page) {
+        return page.scroll("unitName", "unitId", unitsRepository::findByUnitNameGreaterThanEqual);
     }
 
-    public List<Units> getByCmpId(Long cmpId) {
-        return unitsRepository.findByCmpId(cmpId);
+    public Window<Units> getByCmpId(Long cmpId, KeysetPage page) {
+        return page.scroll("unitName", "unitId", (nameFrom, position, sort, limit) ->
+                unitsRepository.findByCmpIdAndIsDeletedFalseAndUnitNameGreaterThanEqual(
+                        cmpId, nameFrom, position, sort, limit));
     }
 
-    @Transactional
-    public void syncUnitFromTally(List<Units> units) {
-        for (Units unit : units) {
-            upsertUnits(unit);
-        }
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public SyncResult syncUnitFromTally(List<Units> units) {
+        return masterSyncEngine.sync(MasterDescriptors.UNITS, units);
+    }
+
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public SyncResult syncUnitFromTally(InputStream json, boolean fullSnapshot) {
+        return masterSyncEngine.sync(MasterDescriptors.UNITS, json, fullSnapshot);
     }
 
+    public boolean deleteByMasterId(Long cmpId, Long masterId) {
+        return masterSyncEngine.delete(MasterDescriptors.UNITS, cmpId, masterId);
+    }
+
+    @Transactional
     public Units upsertUnits(Units unit) {
         // Use reconciliation identifier: cmpId + masterId
+        syncLocks.lock(MasterDescriptors.UNITS, unit.getCmpId());
         Optional<Units> existingUnits = unitsRepository.findByCmpIdAndMasterId(
                 unit.getCmpId(),
                 unit.getMasterId());
 
         if (existingUnits.isPresent()) {
             Units existing = existingUnits.get();
+            if (!MasterChangeDetector.hasChanges(MasterDescriptors.UNITS, existing, unit)) {
+                return existing;
+            }
 
-            existing.setUnitName(unit.getUnitName());
-            existing.setAlterId(unit.getAlterId());
-            existing.setMasterId(unit.getMasterId());
-            existing.setSimpleUnit(unit.isSimpleUnit());
+            unitsMapper.copySyncFields(unit, existing);
+            existing.setIsDeleted(false);
 
             return unitsRepository.save(existing);
 
@@ -1,11 +1,20 @@
 package com.tally.service;
 
 import com.tally.entity.VoucherType;
+import com.tally.mapper.VoucherTypeMapper;
 import com.tally.repository.VoucherTypeRepository;
+import com.tally.sync.MasterChangeDetector;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.sync.SyncLocks;
+import com.tally.sync.SyncResult;
+import com.tally.util.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,8 +25,17 @@ public class VoucherTypeService {
     @Autowired
     private VoucherTypeRepository voucherTypeRepository;
 
-    public List<VoucherType> getAll() {
-        return voucherTypeRepository.findAll();
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private VoucherTypeMapper voucherTypeMapper;
+
+    public Window<VoucherType> getAll(KeysetPage page) {
+        return page.scroll("name", "id", voucherTypeRepository::findByNameGreaterThanEqual);
     }
 
     public VoucherType create(VoucherType voucherType) {
@@ -26,29 +44,36 @@ public class VoucherTypeService {
 
     public VoucherType upsert(VoucherType voucherType) {
         // Use reconciliation identifier: cmpId + masterId
+        syncLocks.lock(MasterDescriptors.VOUCHER_TYPE, voucherType.getCmpId());
         Optional<VoucherType> existing = voucherTypeRepository.findByCmpIdAndMasterId(
                 voucherType.getCmpId(),
                 voucherType.getMasterId());
 
         if (existing.isPresent()) {
             VoucherType e = existing.get();
-            e.setGuid(voucherType.getGuid());
-            e.setMasterId(voucherType.getMasterId());
-            e.setAlterId(voucherType.getAlterId());
-            e.setParent(voucherType.getParent());
-            e.setNumberingMethod(voucherType.getNumberingMethod());
-            e.setIsActive(voucherType.getIsActive());
-            e.setUserId(voucherType.getUserId());
-            e.setUpdatedAt(LocalDateTime.now());
+            if (!MasterChangeDetector.hasChanges(MasterDescriptors.VOUCHER_TYPE, e, voucherType)) {
+                return e;
+            }
+
+            voucherTypeMapper.copySyncFields(voucherType, e);
+            e.setIsDeleted(false);
             return voucherTypeRepository.save(e);
         } else {
             return voucherTypeRepository.save(voucherType);
         }
     }
 
-    public void syncFromTally(List<VoucherType> items) {
-        for (VoucherType item : items) {
-            upsert(item);
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(List<VoucherType> items) {
+        return masterSyncEngine.sync(MasterDescriptors.VOUCHER_TYPE, items);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SyncResult syncFromTally(InputStream json, boolean fullSnapshot) {
+        return masterSyncEngine.sync(MasterDescriptors.VOUCHER_TYPE, json, fullSnapshot);
+    }
+
+    public boolean deleteByMasterId(Long cmpId, Long masterId) {
+        return masterSyncEngine.delete(MasterDescriptors.VOUCHER_TYPE, cmpId, masterId);
     }
 }
@@ -0,0 +1,23 @@
+package com.tally.sync;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of a whole-company sync: one SyncResult per master that went through,
+ * and the reason for every master that failed or was skipped because a dependency failed
+ */
+@Data
+public class CompanySyncResult {
+
+    private Long cmpId;
+    private long elapsedMs;
+    private Map<String, SyncResult> results = new LinkedHashMap<>();
+    private Map<String, String> failures = new LinkedHashMap<>();
+
+    public boolean isSuccess() {
+        return failures.isEmpty();
+    }
+}
@@ -0,0 +1,221 @@
+package com.tally.sync;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Derives the group / ledger hierarchy columns on the server instead of trusting the client.
+ *
+ * After groups or ledgers of a company change, the whole company is loaded with one query per table,
+ * parent names (grp_parent, led_parent) are resolved to IDs in memory and levels / paths are computed
+ * in one pass. Only rows whose derived values differ are written back, in a single batch.
+ *
+ * Top-level groups (parent "Primary") are level 0 with path "Primary > Name"; a ledger sits one level
+ * below its group and its parent_hierarchy is the JSON array of the group path.
+ */
+@Component
+public class HierarchyResolver implements MasterSyncPostProcessor {
+
+    private static final String PRIMARY = "Primary";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void afterSync(String entityType, Set<Long> changedCompanies) {
+        boolean groups = MasterDescriptors.GROUP.getEntityType().equals(entityType);
+        boolean ledgers = MasterDescriptors.LEDGER.getEntityType().equals(entityType);
+        if (!groups && !ledgers) {
+            return;
+        }
+        for (Long cmpId : changedCompanies) {
+            Map<String, GroupNode> tree = resolveGroups(cmpId, groups);
+            // a group change can move every ledger below it, so ledgers follow either way
+            resolveLedgers(cmpId, tree);
+        }
+    }
+
+    // ========== GROUPS ==========
+    /**
+     * Build the company's group tree; when writeBack is set, store the rows whose derived columns moved
+     */
+    Map<String, GroupNode> resolveGroups(Long cmpId, boolean writeBack) {
+        Map<String, GroupNode> byName = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT grpid, grp_name, grp_parent, parent_grpid, level_number, full_path FROM groups " +
+                "WHERE cmpid = ? AND COALESCE(is_deleted, FALSE) = FALSE",
+                rs -> {
+                    GroupNode node = new GroupNode();
+                    node.id = rs.getLong("grpid");
+                    node.name = rs.getString("grp_name");
+                    node.parentName = normalize(rs.getString("grp_parent"));
+                    node.storedParentId = rs.getObject("parent_grpid", Long.class);
+                    node.storedLevel = rs.getObject("level_number", Integer.class);
+                    node.storedPath = rs.getString("full_path");
+                    byName.put(node.name, node);
+                }, cmpId);
+
+        for (GroupNode node : byName.values()) {
+            resolve(node, byName, new HashSet<>());
+        }
+
+        if (writeBack) {
+            List<GroupNode> moved = new ArrayList<>();
+            for (GroupNode node : byName.values()) {
+                if (!Objects.equals(node.parentId, node.storedParentId)
+                        || !Objects.equals(node.level, node.storedLevel)
+                        || !Objects.equals(node.path, node.storedPath)) {
+                    moved.add(node);
+                }
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(
+                    "UPDATE groups SET parent_grpid = ?, level_number = ?, full_path = ?, updated_at = ? WHERE grpid = ?",
+                    moved, 500, (ps, node) -> {
+                        ps.setObject(1, node.parentId, Types.BIGINT);
+                        ps.setInt(2, node.level);
+                        ps.setString(3, node.path);
+                        ps.setTimestamp(4, now);
+                        ps.setLong(5, node.id);
+                    });
+        }
+        return byName;
+    }
+
+    /**
+     * Memoised walk up the parent chain. A missing parent is treated as a top-level group of that name,
+     * a cycle (bad data) is cut where it closes.
+     */
+    private static void resolve(GroupNode node, Map<String, GroupNode> byName, Set<String> visiting) {
+        if (node.path != null) {
+            return;
+        }
+        GroupNode parent = isPrimary(node.parentName) ? null : byName.get(node.parentName);
+        if (parent != null && visiting.add(node.name)) {
+            resolve(parent, byName, visiting);
+        }
+        if (parent != null && parent.path != null) {
+            node.parentId = parent.id;
+            node.level = parent.level + 1;
+            node.path = parent.path + " > " + node.name;
+            node.chain = new ArrayList<>(parent.chain);
+            node.chain.add(parent.name);
+        } else if (isPrimary(node.parentName)) {
+            node.level = 0;
+            node.path = PRIMARY + " > " + node.name;
+            node.chain = List.of(PRIMARY);
+        } else {
+            node.level = 1;
+            node.path = PRIMARY + " > " + node.parentName + " > " + node.name;
+            node.chain = List.of(PRIMARY, node.parentName);
+        }
+    }
+
+    // ========== LEDGERS ==========
+    private void resolveLedgers(Long cmpId, Map<String, GroupNode> groups) {
+        List<Object[]> moved = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT ledid, led_name, led_parent, grpid, level_number, full_path, parent_hierarchy FROM ledgers " +
+                "WHERE cmpid = ? AND COALESCE(is_deleted, FALSE) = FALSE",
+                rs -> {
+                    String name = rs.getString("led_name");
+                    String parentName = normalize(rs.getString("led_parent"));
+                    GroupNode group = groups.get(parentName);
+
+                    Long grpId = group != null ? group.id : null;
+                    int level;
+                    String path;
+                    List<String> hierarchy = new ArrayList<>();
+                    if (group != null) {
+                        level = group.level + 1;
+                        path = group.path + " > " + name;
+                        hierarchy.addAll(group.chain);
+                        hierarchy.add(group.name);
+                    } else if (isPrimary(parentName)) {
+                        level = 0;
+                        path = PRIMARY + " > " + name;
+                        hierarchy.add(PRIMARY);
+                    } else {
+                        level = 1;
+                        path = PRIMARY + " > " + parentName + " > " + name;
+                        hierarchy.add(PRIMARY);
+                        hierarchy.add(parentName);
+                    }
+                    String hierarchyJson = toJson(hierarchy);
+
+                    if (!Objects.equals(grpId, rs.getObject("grpid", Long.class))
+                            || !Objects.equals(level, rs.getObject("level_number", Integer.class))
+                            || !Objects.equals(path, rs.getString("full_path"))
+                            || !Objects.equals(hierarchyJson, rs.getString("parent_hierarchy"))) {
+                        moved.add(new Object[] { grpId, level, path, hierarchyJson, rs.getLong("ledid") });
+                    }
+                }, cmpId);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "UPDATE ledgers SET grpid = ?, level_number = ?, full_path = ?, parent_hierarchy = ?, updated_at = ? " +
+                "WHERE ledid = ?",
+                moved, 500, (ps, row) -> {
+                    ps.setObject(1, row[0], Types.BIGINT);
+                    ps.setInt(2, (Integer) row[1]);
+                    ps.setString(3, (String) row[2]);
+                    ps.setString(4, (String) row[3]);
+                    ps.setTimestamp(5, now);
+                    ps.setLong(6, (Long) row[4]);
+                });
+    }
+
+    // ========== HELPERS ==========
+    /**
+     * Tally exports the root as "&#4; Primary" (a control character before the name)
+     */
+    private static String normalize(String parentName) {
+        if (parentName == null) {
+            return null;
+        }
+        return parentName.replace("&#4;", "").replaceAll("\\p{Cntrl}", "").trim();
+    }
+
+    private static boolean isPrimary(String parentName) {
+        return parentName == null || parentName.isEmpty() || PRIMARY.equalsIgnoreCase(parentName);
+    }
+
+    private String toJson(List<String> hierarchy) {
+        try {
+            return objectMapper.writeValueAsString(hierarchy);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialise ledger hierarchy", e);
+        }
+    }
+
+    static class GroupNode {
+        long id;
+        String name;
+        String parentName;
+        Long storedParentId;
+        Integer storedLevel;
+        String storedPath;
+
+        Long parentId;
+        int level;
+        String path;
+        List<String> chain;
+    }
+}
@@ -0,0 +1,16 @@
+package com.tally.sync;
+
+/**
+ * A sync payload that can never be applied as sent: malformed JSON, an unknown entity type, a record without
+ * cmpId/masterId or for another company. Retrying it cannot help, unlike a lock timeout or a database outage.
+ */
+public class InvalidSyncPayloadException extends RuntimeException {
+
+    public InvalidSyncPayloadException(String message) {
+        super(message);
+    }
+
+    public InvalidSyncPayloadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
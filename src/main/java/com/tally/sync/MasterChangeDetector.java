@@ -0,0 +1,36 @@
+package com.tally.sync;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Field-level comparison of a stored master with the incoming one, driven by the descriptor's column getters
+ * (plain method references, no reflection). Used by the per-record upserts to skip the save when Tally sent
+ * the same values again; the entities are @DynamicUpdate, so a save only writes the columns that differ.
+ */
+public final class MasterChangeDetector {
+
+    private MasterChangeDetector() {
+    }
+
+    /**
+     * True when any updatable column of the incoming record differs from the stored row
+     */
+    public static <T> boolean hasChanges(MasterDescriptor<T> descriptor, T stored, T incoming) {
+        for (MasterColumn<T> column : descriptor.getColumns()) {
+            if (column.isUpdatable()
+                    && !sameValue(column.getter().apply(stored), column.getter().apply(incoming))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean sameValue(Object stored, Object incoming) {
+        if (stored instanceof BigDecimal a && incoming instanceof BigDecimal b) {
+            // NUMERIC comes back with the column's scale: 100.00 is the 100 Tally sent
+            return a.compareTo(b) == 0;
+        }
+        return Objects.equals(stored, incoming);
+    }
+}
@@ -0,0 +1,27 @@
+package com.tally.sync;
+
+import java.util.function.Function;
+
+/**
+ * One table column of a Tally master, with how to read it from the entity
+ * and what to write on conflict.
+ *
+ * @param name      column name in the table
+ * @param sqlType   java.sql.Types constant used for binding (and for NULLs)
+ * @param getter    reads the value from the incoming entity
+ * @param updateSql SQL assigned on conflict ("EXCLUDED.name" to copy the incoming value),
+ *                  or null when the column is only written on insert
+ */
+public record MasterColumn<T>(String name, int sqlType, Function<T, Object> getter, String updateSql) {
+
+    public boolean isUpdatable() {
+        return updateSql != null;
+    }
+
+    /**
+     * Updated with the incoming value (rather than a fixed SQL expression), so it is bound in an UPDATE by key
+     */
+    public boolean isCopiedOnUpdate() {
+        return ("EXCLUDED." + name).equals(updateSql);
+    }
+}
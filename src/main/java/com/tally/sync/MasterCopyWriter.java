@@ -0,0 +1,95 @@
+package com.tally.sync;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Streams new rows into a master table with the PostgreSQL COPY protocol.
+ *
+ * Only used for (cmpId, masterId) pairs known not to exist yet (initial load of a company)
+ * or for the staging table, since COPY has no ON CONFLICT. Runs on the transaction's connection, so a failure later in the
+ * sync rolls the copied rows back too.
+ */
+@Component
+public class MasterCopyWriter {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public <T> long copy(MasterDescriptor<T> descriptor, List<T> records, Timestamp timestamp) {
+        return copy(descriptor, records, timestamp, descriptor.getCopySql());
+    }
+
+    /**
+     * COPY the records with the given COPY statement, e.g. into the master's staging table
+     */
+    public <T> long copy(MasterDescriptor<T> descriptor, List<T> records, Timestamp timestamp, String copySql) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+            try {
+                StringBuilder line = new StringBuilder(512);
+                for (T entity : records) {
+                    line.setLength(0);
+                    appendRow(line, descriptor, entity, timestamp);
+                    byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                }
+                return copyIn.endCopy();
+            } catch (SQLException | RuntimeException e) {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                throw e;
+            }
+        });
+        return copied != null ? copied : 0;
+    }
+
+    private static <T> void appendRow(StringBuilder line, MasterDescriptor<T> descriptor, T entity, Timestamp timestamp) {
+        for (MasterColumn<T> column : descriptor.getColumns()) {
+            appendValue(line, column.getter().apply(entity));
+            line.append(',');
+        }
+        if (descriptor.hasSyncMetadata()) {
+            line.append("SYNCED,");
+            appendValue(line, timestamp);
+            line.append(',');
+        }
+        appendValue(line, timestamp);
+        line.append(',');
+        appendValue(line, timestamp);
+        line.append('\n');
+    }
+
+    /**
+     * CSV: NULL is an empty unquoted field, text is always quoted so '' stays an empty string
+     */
+    private static void appendValue(StringBuilder line, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof String text) {
+            line.append('"').append(text.replace("\"", "\"\"")).append('"');
+        } else if (value instanceof Boolean flag) {
+            line.append(flag ? 't' : 'f');
+        } else if (value instanceof BigDecimal decimal) {
+            line.append(decimal.toPlainString());
+        } else {
+            // numbers, LocalDate and Timestamp print in a format Postgres parses
+            line.append(value);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.tally.sync;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Describes how one Tally master entity maps onto its table so that
+ * {@link MasterSyncEngine} can sync it without entity-specific code.
+ *
+ * Every master is reconciled on (cmpid, masterid); cmpid, masterid and alterid
+ * are always the first three columns. Every master table has is_deleted (soft delete).
+ */
+public class MasterDescriptor<T> {
+
+    private final String entityType;
+    private final Class<T> entityClass;
+    private final String table;
+    private final String idColumn;
+    private final Function<T, Long> cmpId;
+    private final Function<T, Long> masterId;
+    private final Function<T, Long> alterId;
+    private final List<MasterColumn<T>> columns;
+    private final boolean syncMetadata;
+    private final List<String> dependencies;
+    private final String upsertSql;
+    private final String updateByIdSql;
+    private final String copySql;
+    private final String stagingTable;
+    private final String stagingDdl;
+    private final String stagingCopySql;
+    private final String mergeSql;
+
+    private MasterDescriptor(Builder<T> builder) {
+        this.entityType = builder.entityType;
+        this.entityClass = builder.entityClass;
+        this.table = builder.table;
+        this.idColumn = builder.idColumn;
+        this.cmpId = builder.cmpId;
+        this.masterId = builder.masterId;
+        this.alterId = builder.alterId;
+        this.columns = Collections.unmodifiableList(builder.columns);
+        this.syncMetadata = builder.syncMetadata;
+        this.dependencies = List.copyOf(builder.dependencies);
+        this.upsertSql = buildUpsertSql();
+        this.updateByIdSql = buildUpdateByIdSql();
+        this.copySql = buildCopySql(table);
+        this.stagingTable = "sync_stage_" + table;
+        this.stagingDdl = buildStagingDdl();
+        this.stagingCopySql = buildCopySql(stagingTable);
+        this.mergeSql = buildMergeSql();
+    }
+
+    public static <T> Builder<T> builder(Class<T> entityClass, String entityType, String table, String idColumn) {
+        return new Builder<>(entityClass, entityType, table, idColumn);
+    }
+
+    public String getEntityType() { return entityType; }
+    public Class<T> getEntityClass() { return entityClass; }
+    public String getTable() { return table; }
+    public String getIdColumn() { return idColumn; }
+    public List<MasterColumn<T>> getColumns() { return columns; }
+    public boolean hasSyncMetadata() { return syncMetadata; }
+    public List<String> getDependencies() { return dependencies; }
+    public String getUpsertSql() { return upsertSql; }
+    public String getUpdateByIdSql() { return updateByIdSql; }
+    public String getCopySql() { return copySql; }
+    public String getStagingTable() { return stagingTable; }
+    public String getStagingDdl() { return stagingDdl; }
+    public String getStagingCopySql() { return stagingCopySql; }
+    public String getMergeSql() { return mergeSql; }
+
+    public Long cmpIdOf(T entity) { return cmpId.apply(entity); }
+    public Long masterIdOf(T entity) { return masterId.apply(entity); }
+    public Long alterIdOf(T entity) { return alterId.apply(entity); }
+
+    /**
+     * INSERT ... ON CONFLICT (cmpid, masterid) DO UPDATE over all columns, followed by
+     * [sync_status, last_sync_date,] created_at, updated_at. The timestamps are bound, not now(),
+     * so a whole sync shares one timestamp. A conflicting row whose alterid already matches is left untouched
+     * unless it was soft-deleted.
+     */
+    private String buildUpsertSql() {
+        StringBuilder names = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        StringBuilder updates = new StringBuilder();
+
+        for (MasterColumn<T> column : columns) {
+            names.append(column.name()).append(", ");
+            values.append("?, ");
+            if (column.isUpdatable()) {
+                updates.append(column.name()).append(" = ").append(column.updateSql()).append(", ");
+            }
+        }
+        if (syncMetadata) {
+            names.append("sync_status, last_sync_date, ");
+            values.append("'SYNCED', ?, ");
+            updates.append("sync_status = 'SYNCED', last_sync_date = EXCLUDED.last_sync_date, ");
+        }
+        names.append("created_at, updated_at");
+        values.append("?, ?");
+        updates.append("updated_at = EXCLUDED.updated_at");
+
+        return "INSERT INTO " + table + " (" + names + ") VALUES (" + values + ") " +
+               "ON CONFLICT (cmpid, masterid) DO UPDATE SET " + updates +
+               " WHERE " + table + ".alterid IS DISTINCT FROM EXCLUDED.alterid OR " + table + ".is_deleted IS TRUE";
+    }
+
+    /**
+     * UPDATE by primary key for rows already known to exist. The values are bound once, in column order, into
+     * a one-row VALUES list followed by [last_sync_date,] updated_at and the ID; fixed update expressions are
+     * inlined. Each copied column is only assigned when its value differs, so an unchanged TOASTed text keeps
+     * its stored pointer instead of being compressed and written out again.
+     */
+    private String buildUpdateByIdSql() {
+        StringBuilder updates = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (MasterColumn<T> column : columns) {
+            if (column.isCopiedOnUpdate()) {
+                updates.append(assignIfChanged(column.name(), "v")).append(", ");
+                values.append("?::").append(castType(column.sqlType())).append(" AS ").append(column.name()).append(", ");
+            } else if (column.isUpdatable()) {
+                updates.append(column.name()).append(" = ").append(column.updateSql()).append(", ");
+            }
+        }
+        if (syncMetadata) {
+            updates.append("sync_status = 'SYNCED', last_sync_date = v.last_sync_date, ");
+            values.append("?::timestamp AS last_sync_date, ");
+        }
+        updates.append("updated_at = v.updated_at");
+        values.append("?::timestamp AS updated_at");
+        return "UPDATE " + table + " t SET " + updates + " FROM (SELECT " + values + ") v " +
+               "WHERE t." + idColumn + " = ?";
+    }
+
+    /**
+     * Keep the stored value (and with it any out-of-line storage) unless the source row has a different one
+     */
+    private static String assignIfChanged(String name, String source) {
+        return name + " = CASE WHEN t." + name + " IS DISTINCT FROM " + source + "." + name +
+               " THEN " + source + "." + name + " ELSE t." + name + " END";
+    }
+
+    private static String castType(int sqlType) {
+        return switch (sqlType) {
+            case Types.BIGINT -> "bigint";
+            case Types.INTEGER -> "integer";
+            case Types.BOOLEAN -> "boolean";
+            case Types.NUMERIC -> "numeric";
+            case Types.DATE -> "date";
+            case Types.TIMESTAMP -> "timestamp";
+            case Types.VARCHAR -> "text";
+            default -> throw new IllegalArgumentException("Unsupported SQL type " + sqlType);
+        };
+    }
+
+    /**
+     * COPY ... FROM STDIN (CSV) with the same column order as the upsert, used to load an empty company
+     * and to fill the staging table
+     */
+    private String buildCopySql(String target) {
+        return "COPY " + target + " (" + copyColumns() + ") FROM STDIN WITH (FORMAT csv)";
+    }
+
+    private String copyColumns() {
+        StringBuilder names = new StringBuilder();
+        for (MasterColumn<T> column : columns) {
+            names.append(column.name()).append(", ");
+        }
+        if (syncMetadata) {
+            names.append("sync_status, last_sync_date, ");
+        }
+        names.append("created_at, updated_at");
+        return names.toString();
+    }
+
+    // ========== STAGING ==========
+    /**
+     * Session-local staging table with the COPY columns of the master and no constraints.
+     * Temp tables are never WAL-logged, and ON COMMIT DELETE ROWS empties it for the next sync on the connection.
+     */
+    private String buildStagingDdl() {
+        return "CREATE TEMP TABLE IF NOT EXISTS " + stagingTable + " ON COMMIT DELETE ROWS AS " +
+               "SELECT " + copyColumns() + " FROM " + table + " WITH NO DATA";
+    }
+
+    /**
+     * Merges the staging table into the master in one statement: changed rows are updated, new ones inserted,
+     * and the result is one (cmpid, inserted, updated) row per company that changed.
+     * Both CTEs see the table as it was before the statement, so a row is never counted twice.
+     */
+    private String buildMergeSql() {
+        StringBuilder updates = new StringBuilder();
+        for (MasterColumn<T> column : columns) {
+            if (column.isCopiedOnUpdate()) {
+                updates.append(assignIfChanged(column.name(), "s")).append(", ");
+            } else if (column.isUpdatable()) {
+                updates.append(column.name()).append(" = ").append(column.updateSql()).append(", ");
+            }
+        }
+        if (syncMetadata) {
+            updates.append("sync_status = 'SYNCED', last_sync_date = s.last_sync_date, ");
+        }
+        updates.append("updated_at = s.updated_at");
+
+        String columnList = copyColumns();
+        return "WITH updated AS (" +
+               "UPDATE " + table + " t SET " + updates + " FROM " + stagingTable + " s " +
+               "WHERE t.cmpid = s.cmpid AND t.masterid = s.masterid " +
+               "AND (t.alterid IS DISTINCT FROM s.alterid OR t.is_deleted IS TRUE) " +
+               "RETURNING t.cmpid), " +
+               "inserted AS (" +
+               "INSERT INTO " + table + " (" + columnList + ") SELECT " + columnList + " FROM " + stagingTable + " s " +
+               "WHERE NOT EXISTS (SELECT 1 FROM " + table + " t WHERE t.cmpid = s.cmpid AND t.masterid = s.masterid) " +
+               "RETURNING cmpid) " +
+               "SELECT cmpid, COUNT(*) FILTER (WHERE is_insert) AS inserted, COUNT(*) FILTER (WHERE NOT is_insert) AS updated " +
+               "FROM (SELECT cmpid, TRUE AS is_insert FROM inserted UNION ALL SELECT cmpid, FALSE FROM updated) changes " +
+               "GROUP BY cmpid";
+    }
+
+    public static class Builder<T> {
+        private final Class<T> entityClass;
+        private final String entityType;
+        private final String table;
+        private final String idColumn;
+        private final List<MasterColumn<T>> columns = new ArrayList<>();
+        private final Set<String> names = new HashSet<>();
+        private final List<String> dependencies = new ArrayList<>();
+        private Function<T, Long> cmpId;
+        private Function<T, Long> masterId;
+        private Function<T, Long> alterId;
+        private boolean syncMetadata;
+
+        private Builder(Class<T> entityClass, String entityType, String table, String idColumn) {
+            this.entityClass = entityClass;
+            this.entityType = entityType;
+            this.table = table;
+            this.idColumn = idColumn;
+        }
+
+        /**
+         * Reconciliation key and change marker - becomes cmpid, masterid (never updated) and alterid
+         */
+        public Builder<T> keys(Function<T, Long> cmpId, Function<T, Long> masterId, Function<T, Long> alterId) {
+            this.cmpId = cmpId;
+            this.masterId = masterId;
+            this.alterId = alterId;
+            add(new MasterColumn<>("cmpid", Types.BIGINT, cmpId::apply, null));
+            add(new MasterColumn<>("masterid", Types.BIGINT, masterId::apply, null));
+            add(new MasterColumn<>("alterid", Types.BIGINT, alterId::apply, "EXCLUDED.alterid"));
+            return this;
+        }
+
+        /**
+         * Column copied from Tally on insert and on update
+         */
+        public Builder<T> column(String name, int sqlType, Function<T, Object> getter) {
+            return add(new MasterColumn<>(name, sqlType, getter, "EXCLUDED." + name));
+        }
+
+        /**
+         * Column written on insert only (e.g. the name, which is the business key)
+         */
+        public Builder<T> insertOnly(String name, int sqlType, Function<T, Object> getter) {
+            return add(new MasterColumn<>(name, sqlType, getter, null));
+        }
+
+        /**
+         * Column taken from Tally on insert but forced to a SQL expression on update
+         */
+        public Builder<T> column(String name, int sqlType, Function<T, Object> getter, String updateSql) {
+            return add(new MasterColumn<>(name, sqlType, getter, updateSql));
+        }
+
+        /**
+         * Table has sync_status / last_sync_date (groups, ledgers)
+         */
+        public Builder<T> withSyncMetadata() {
+            this.syncMetadata = true;
+            return this;
+        }
+
+        /**
+         * Masters (by entity type) that must be synced first when a whole company is synced,
+         * e.g. groups before ledgers
+         */
+        public Builder<T> dependsOn(String... entityTypes) {
+            dependencies.addAll(List.of(entityTypes));
+            return this;
+        }
+
+        public MasterDescriptor<T> build() {
+            if (cmpId == null) {
+                throw new IllegalStateException("keys() not set for " + entityType);
+            }
+            for (MasterColumn<T> column : columns) {
+                if (column.isUpdatable() && !column.isCopiedOnUpdate() && column.updateSql().contains("EXCLUDED.")) {
+                    // only the upsert has EXCLUDED; the update by key and the staging merge could not express it
+                    throw new IllegalStateException("Unsupported update expression for " + entityType + "." + column.name());
+                }
+            }
+            return new MasterDescriptor<>(this);
+        }
+
+        private Builder<T> add(MasterColumn<T> column) {
+            if (!names.add(column.name())) {
+                throw new IllegalStateException("Duplicate column " + column.name() + " for " + entityType);
+            }
+            columns.add(column);
+            return this;
+        }
+    }
+}
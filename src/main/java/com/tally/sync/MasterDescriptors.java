@@ -0,0 +1,276 @@
+package com.tally.sync;
+
+import com.tally.entity.CostCategory;
+import com.tally.entity.CostCenter;
+import com.tally.entity.Currency;
+import com.tally.entity.Godown;
+import com.tally.entity.Group;
+import com.tally.entity.Ledger;
+import com.tally.entity.StockCategory;
+import com.tally.entity.StockGroup;
+import com.tally.entity.StockItem;
+import com.tally.entity.TaxUnit;
+import com.tally.entity.Units;
+import com.tally.entity.VoucherType;
+
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Table mapping of every Tally master synced through {@link MasterSyncEngine}.
+ *
+ * Updatable columns mirror what the per-entity upsert methods copy onto an existing row;
+ * everything else (userid where the service never changed it, the business name) is insert-only.
+ * Entity types use the same keys as CompanySyncStatusService.getEntityAlterIdMapping.
+ */
+public final class MasterDescriptors {
+
+    private MasterDescriptors() {
+    }
+
+    public static final MasterDescriptor<Group> GROUP = MasterDescriptor
+            .builder(Group.class, "group", "groups", "grpid")
+            .keys(Group::getCmpId, Group::getMasterId, Group::getAlterId)
+            .insertOnly("userid", Types.BIGINT, Group::getUserId)
+            .column("guid", Types.VARCHAR, Group::getGuid)
+            .insertOnly("grp_name", Types.VARCHAR, Group::getGrpName)
+            .column("grp_code", Types.VARCHAR, Group::getGrpCode)
+            .column("grp_alias", Types.VARCHAR, Group::getGrpAlias)
+            .column("grp_parent", Types.VARCHAR, Group::getGrpParent)
+            .column("grp_primary_group", Types.VARCHAR, Group::getGrpPrimaryGroup)
+            .column("grp_nature", Types.VARCHAR, Group::getGrpNature)
+            .column("is_revenue", Types.BOOLEAN, Group::getIsRevenue)
+            .column("is_reserved", Types.BOOLEAN, Group::getIsReserved)
+            .column("reserved_name", Types.VARCHAR, Group::getReservedName)
+            .column("parent_grpid", Types.BIGINT, Group::getParentGrpId)
+            .column("level_number", Types.INTEGER, Group::getLevelNumber)
+            .column("full_path", Types.VARCHAR, Group::getFullPath)
+            .column("language_id", Types.INTEGER, Group::getLanguageId)
+            .column("alternate_names", Types.VARCHAR, Group::getAlternateNames)
+            .column("is_active", Types.BOOLEAN, g -> g.getIsActive() != null ? g.getIsActive() : Boolean.TRUE, "TRUE")
+            .column("is_deleted", Types.BOOLEAN, g -> g.getIsDeleted() != null ? g.getIsDeleted() : Boolean.FALSE, "FALSE")
+            .withSyncMetadata()
+            .build();
+
+    public static final MasterDescriptor<Ledger> LEDGER = MasterDescriptor
+            .builder(Ledger.class, "ledger", "ledgers", "ledid")
+            .keys(Ledger::getCmpId, Ledger::getMasterId, Ledger::getAlterId)
+            .dependsOn("group")
+            .insertOnly("userid", Types.BIGINT, Ledger::getUserId)
+            .column("guid", Types.VARCHAR, Ledger::getGuid)
+            .insertOnly("led_name", Types.VARCHAR, Ledger::getLedName)
+            .column("led_code", Types.VARCHAR, Ledger::getLedCode)
+            .column("led_alias", Types.VARCHAR, Ledger::getLedAlias)
+            .column("led_parent", Types.VARCHAR, Ledger::getLedParent)
+            .column("led_primary_group", Types.VARCHAR, Ledger::getLedPrimaryGroup)
+            .column("led_description", Types.VARCHAR, Ledger::getLedDescription)
+            .column("led_note", Types.VARCHAR, Ledger::getLedNote)
+            .column("is_revenue", Types.BOOLEAN, Ledger::getIsRevenue)
+            .column("is_reserved", Types.BOOLEAN, Ledger::getIsReserved)
+            .column("reserved_name", Types.VARCHAR, Ledger::getReservedName)
+            .column("last_parent", Types.VARCHAR, Ledger::getLastParent)
+            .column("led_billwise_on", Types.BOOLEAN, Ledger::getLedBillwiseOn)
+            .column("led_is_costcentre_on", Types.BOOLEAN, Ledger::getLedIsCostcentreOn)
+            .column("parent_ledid", Types.BIGINT, Ledger::getParentLedId)
+            .column("grpid", Types.BIGINT, Ledger::getGrpId)
+            .column("level_number", Types.INTEGER, Ledger::getLevelNumber)
+            .column("full_path", Types.VARCHAR, Ledger::getFullPath)
+            .column("parent_hierarchy", Types.VARCHAR, Ledger::getParentHierarchy)
+            .column("led_mailing_name", Types.VARCHAR, Ledger::getLedMailingName)
+            .column("led_address_1", Types.VARCHAR, Ledger::getLedAddress1)
+            .column("led_address_2", Types.VARCHAR, Ledger::getLedAddress2)
+            .column("led_address_3", Types.VARCHAR, Ledger::getLedAddress3)
+            .column("led_address_4", Types.VARCHAR, Ledger::getLedAddress4)
+            .column("led_state", Types.VARCHAR, Ledger::getLedState)
+            .column("led_country", Types.VARCHAR, Ledger::getLedCountry)
+            .column("led_pincode", Types.VARCHAR, Ledger::getLedPincode)
+            .column("led_contact", Types.VARCHAR, Ledger::getLedContact)
+            .column("led_phone", Types.VARCHAR, Ledger::getLedPhone)
+            .column("led_country_isd_code", Types.VARCHAR, Ledger::getLedCountryIsdCode)
+            .column("led_mobile", Types.VARCHAR, Ledger::getLedMobile)
+            .column("led_email", Types.VARCHAR, Ledger::getLedEmail)
+            .column("led_website", Types.VARCHAR, Ledger::getLedWebsite)
+            .column("led_opening_balance", Types.NUMERIC, Ledger::getLedOpeningBalance)
+            .column("currency_name", Types.VARCHAR, Ledger::getCurrencyName)
+            .column("income_tax_number", Types.VARCHAR, Ledger::getIncomeTaxNumber)
+            .column("gst_applicable", Types.BOOLEAN, Ledger::getGstApplicable)
+            .column("gst_registration_type", Types.VARCHAR, Ledger::getGstRegistrationType)
+            .column("gst_registration_date", Types.DATE, Ledger::getGstRegistrationDate)
+            .column("gst_gstin", Types.VARCHAR, Ledger::getGstGstin)
+            .column("gst_is_freezone", Types.BOOLEAN, Ledger::getGstIsFreezone)
+            .column("gst_state", Types.VARCHAR, Ledger::getGstState)
+            .column("gst_place_of_supply", Types.VARCHAR, Ledger::getGstPlaceOfSupply)
+            .column("gst_transporter_id", Types.VARCHAR, Ledger::getGstTransporterId)
+            .column("gst_is_other_territory_assessee", Types.BOOLEAN, Ledger::getGstIsOtherTerritoryAssessee)
+            .column("gst_consider_purchase_for_export", Types.BOOLEAN, Ledger::getGstConsiderPurchaseForExport)
+            .column("gst_is_transporter", Types.BOOLEAN, Ledger::getGstIsTransporter)
+            .column("gst_is_common_party", Types.BOOLEAN, Ledger::getGstIsCommonParty)
+            .column("vat_applicable", Types.BOOLEAN, Ledger::getVatApplicable)
+            .column("vat_registration_type", Types.VARCHAR, Ledger::getVatRegistrationType)
+            .column("vat_registration_date", Types.DATE, Ledger::getVatRegistrationDate)
+            .column("vat_tin_number", Types.VARCHAR, Ledger::getVatTinNumber)
+            .column("vat_is_freezone", Types.BOOLEAN, Ledger::getVatIsFreezone)
+            .column("language_id", Types.INTEGER, Ledger::getLanguageId)
+            .column("alternate_names", Types.VARCHAR, Ledger::getAlternateNames)
+            .column("is_active", Types.BOOLEAN, Ledger::getIsActive)
+            .column("is_deleted", Types.BOOLEAN, Ledger::getIsDeleted)
+            .column("mailing_details_applicable_from", Types.DATE, Ledger::getMailingDetailsApplicableFrom)
+            .column("gst_details_applicable_from", Types.DATE, Ledger::getGstDetailsApplicableFrom)
+            .withSyncMetadata()
+            .build();
+
+    public static final MasterDescriptor<Currency> CURRENCY = MasterDescriptor
+            .builder(Currency.class, "currency", "currency", "currency_id")
+            .keys(Currency::getCmpId, Currency::getMasterId, Currency::getAlterId)
+            .column("userid", Types.BIGINT, Currency::getUserId)
+            .column("guid", Types.VARCHAR, Currency::getGuid)
+            .insertOnly("name", Types.VARCHAR, Currency::getName)
+            .column("symbol", Types.VARCHAR, Currency::getSymbol)
+            .column("formalname", Types.VARCHAR, Currency::getFormalName)
+            .column("decimalplaces", Types.INTEGER, Currency::getDecimalPlaces)
+            .column("decimalseparator", Types.VARCHAR, Currency::getDecimalSeparator)
+            .column("showamountinwords", Types.VARCHAR, Currency::getShowAmountInWords)
+            .column("suffixsymbol", Types.VARCHAR, Currency::getSuffixSymbol)
+            .column("spacebetweenamountandsymbol", Types.VARCHAR, Currency::getSpaceBetweenAmountAndSymbol)
+            .column("languageid", Types.INTEGER, Currency::getLanguageId)
+            .column("is_deleted", Types.BOOLEAN, c -> c.getIsDeleted() != null ? c.getIsDeleted() : Boolean.FALSE, "FALSE")
+            .build();
+
+    public static final MasterDescriptor<Units> UNITS = MasterDescriptor
+            .builder(Units.class, "units", "units", "unit_id")
+            .keys(Units::getCmpId, Units::getMasterId, Units::getAlterId)
+            .insertOnly("userid", Types.BIGINT, Units::getUserId)
+            .insertOnly("guid", Types.VARCHAR, Units::getGuid)
+            .column("unit_name", Types.VARCHAR, Units::getUnitName)
+            .insertOnly("original_name", Types.VARCHAR, Units::getOriginalName)
+            .column("is_simple_unit", Types.BOOLEAN, Units::isSimpleUnit)
+            .insertOnly("reserved_name", Types.VARCHAR, Units::getReservedName)
+            .column("is_deleted", Types.BOOLEAN, u -> u.getIsDeleted() != null ? u.getIsDeleted() : Boolean.FALSE, "FALSE")
+            .build();
+
+    public static final MasterDescriptor<StockGroup> STOCK_GROUP = MasterDescriptor
+            .builder(StockGroup.class, "stockgroup", "stock_groups", "stockgroup_id")
+            .keys(StockGroup::getCmpId, StockGroup::getMasterId, StockGroup::getAlterId)
+            .column("userid", Types.BIGINT, StockGroup::getUserId)
+            .column("guid", Types.VARCHAR, StockGroup::getGuid)
+            .insertOnly("name", Types.VARCHAR, StockGroup::getName)
+            .column("parent", Types.VARCHAR, StockGroup::getParent)
+            .column("reserved_name", Types.VARCHAR, StockGroup::getReservedName)
+            .column("is_deleted", Types.BOOLEAN, g -> g.getIsDeleted() != null ? g.getIsDeleted() : Boolean.FALSE, "FALSE")
+            .build();
+
+    public static final MasterDescriptor<StockCategory> STOCK_CATEGORY = MasterDescriptor
+            .builder(StockCategory.class, "stockcategory", "stock_categories", "stockcategory_id")
+            .keys(StockCategory::getCmpId, StockCategory::getMasterId, StockCategory::getAlterId)
+            .column("userid", Types.BIGINT, StockCategory::getUserId)
+            .column("guid", Types.VARCHAR, StockCategory::getGuid)
+            .insertOnly("name", Types.VARCHAR, StockCategory::getName)
+            .column("parent", Types.VARCHAR, StockCategory::getParent)
+            .column("reserved_name", Types.VARCHAR, StockCategory::getReservedName)
+            .column("is_deleted", Types.BOOLEAN, c -> c.getIsDeleted() != null ? c.getIsDeleted() : Boolean.FALSE, "FALSE")
+            .build();
+
+    public static final MasterDescriptor<Godown> GODOWN = MasterDescriptor
+            .builder(Godown.class, "godown", "godowns", "godown_id")
+            .keys(Godown::getCmpId, Godown::getMasterId, Godown::getAlterId)
+            .column("userid", Types.BIGINT, Godown::getUserId)
+            .column("guid", Types.VARCHAR, Godown::getGuid)
+            .insertOnly("name", Types.VARCHAR, Godown::getName)
+            .column("address", Types.VARCHAR, Godown::getAddress)
+            .column("reserved_name", Types.VARCHAR, Godown::getReservedName)
+            .column("is_deleted", Types.BOOLEAN, g -> g.getIsDeleted() != null ? g.getIsDeleted() : Boolean.FALSE, "FALSE")
+            .build();
+
+    public static final MasterDescriptor<StockItem> STOCK_ITEM = MasterDescriptor
+            .builder(StockItem.class, "stockitem", "stock_items", "stockitem_id")
+            .keys(StockItem::getCmpId, StockItem::getMasterId, StockItem::getAlterId)
+            .dependsOn("units", "stockgroup", "stockcategory")
+            .column("userid", Types.BIGINT, StockItem::getUserId)
+            .column("guid", Types.VARCHAR, StockItem::getGuid)
+            .insertOnly("name", Types.VARCHAR, StockItem::getName)
+            .column("parent", Types.VARCHAR, StockItem::getParent)
+            .column("category", Types.VARCHAR, StockItem::getCategory)
+            .column("description", Types.VARCHAR, StockItem::getDescription)
+            .column("mailing_name", Types.VARCHAR, StockItem::getMailingName)
+            .column("reserved_name", Types.VARCHAR, StockItem::getReservedName)
+            .column("base_units", Types.VARCHAR, StockItem::getBaseUnits)
+            .column("additional_units", Types.VARCHAR, StockItem::getAdditionalUnits)
+            .column("opening_balance", Types.NUMERIC, StockItem::getOpeningBalance)
+            .column("opening_value", Types.NUMERIC, StockItem::getOpeningValue)
+            .column("opening_rate", Types.NUMERIC, StockItem::getOpeningRate)
+            .column("costing_method", Types.VARCHAR, StockItem::getCostingMethod)
+            .column("valuation_method", Types.VARCHAR, StockItem::getValuationMethod)
+            .column("gst_type_of_supply", Types.VARCHAR, StockItem::getGstTypeOfSupply)
+            .column("hsn_code", Types.VARCHAR, StockItem::getHsnCode)
+            .column("is_batch_wise_on", Types.BOOLEAN, StockItem::getBatchWiseOn)
+            .column("is_cost_centers_on", Types.BOOLEAN, StockItem::getCostCentersOn)
+            .column("is_deleted", Types.BOOLEAN, i -> i.getIsDeleted() != null ? i.getIsDeleted() : Boolean.FALSE, "FALSE")
+            .build();
+
+    public static final MasterDescriptor<TaxUnit> TAX_UNIT = MasterDescriptor
+            .builder(TaxUnit.class, "taxunit", "taxunit", "taxunit_id")
+            .keys(TaxUnit::getCmpId, TaxUnit::getMasterId, TaxUnit::getAlterId)
+            .column("userid", Types.BIGINT, TaxUnit::getUserId)
+            .column("guid", Types.VARCHAR, TaxUnit::getGuid)
+            .insertOnly("name", Types.VARCHAR, TaxUnit::getName)
+            .column("is_active", Types.BOOLEAN, TaxUnit::getIsActive)
+            .column("is_deleted", Types.BOOLEAN, t -> t.getIsDeleted() != null ? t.getIsDeleted() : Boolean.FALSE, "FALSE")
+            .build();
+
+    public static final MasterDescriptor<VoucherType> VOUCHER_TYPE = MasterDescriptor
+            .builder(VoucherType.class, "vouchertype", "vouchertype", "vouchertype_id")
+            .keys(VoucherType::getCmpId, VoucherType::getMasterId, VoucherType::getAlterId)
+            .column("userid", Types.BIGINT, VoucherType::getUserId)
+            .column("guid", Types.VARCHAR, VoucherType::getGuid)
+            .insertOnly("name", Types.VARCHAR, VoucherType::getName)
+            .column("parent", Types.VARCHAR, VoucherType::getParent)
+            .column("numbering_method", Types.VARCHAR, VoucherType::getNumberingMethod)
+            .column("is_active", Types.BOOLEAN, VoucherType::getIsActive)
+            .column("is_deleted", Types.BOOLEAN, v -> v.getIsDeleted() != null ? v.getIsDeleted() : Boolean.FALSE, "FALSE")
+            .build();
+
+    public static final MasterDescriptor<CostCategory> COST_CATEGORY = MasterDescriptor
+            .builder(CostCategory.class, "costcategory", "cost_categories", "costcategory_id")
+            .keys(CostCategory::getCmpId, CostCategory::getMasterId, CostCategory::getAlterId)
+            .column("userid", Types.BIGINT, CostCategory::getUserId)
+            .column("guid", Types.VARCHAR, CostCategory::getGuid)
+            .insertOnly("name", Types.VARCHAR, CostCategory::getName)
+            .column("allocate_revenue", Types.BOOLEAN, CostCategory::getAllocateRevenue)
+            .column("allocate_non_revenue", Types.BOOLEAN, CostCategory::getAllocateNonRevenue)
+            .column("is_active", Types.BOOLEAN, CostCategory::getIsActive)
+            .column("is_deleted", Types.BOOLEAN, c -> c.getIsDeleted() != null ? c.getIsDeleted() : Boolean.FALSE, "FALSE")
+            .build();
+
+    public static final MasterDescriptor<CostCenter> COST_CENTER = MasterDescriptor
+            .builder(CostCenter.class, "costcenter", "costcentre", "costcentre_id")
+            .keys(CostCenter::getCmpId, CostCenter::getMasterId, CostCenter::getAlterId)
+            .dependsOn("costcategory")
+            .column("userid", Types.BIGINT, CostCenter::getUserId)
+            .column("guid", Types.VARCHAR, CostCenter::getGuid)
+            .insertOnly("name", Types.VARCHAR, CostCenter::getName)
+            .column("parent", Types.VARCHAR, CostCenter::getParent)
+            .column("category", Types.VARCHAR, CostCenter::getCategory)
+            .column("is_active", Types.BOOLEAN, CostCenter::getIsActive)
+            .column("is_deleted", Types.BOOLEAN, c -> c.getIsDeleted() != null ? c.getIsDeleted() : Boolean.FALSE, "FALSE")
+            .build();
+
+    private static final Map<String, MasterDescriptor<?>> BY_ENTITY_TYPE = new LinkedHashMap<>();
+
+    static {
+        for (MasterDescriptor<?> descriptor : List.of(GROUP, LEDGER, CURRENCY, UNITS, STOCK_GROUP, STOCK_CATEGORY,
+                GODOWN, STOCK_ITEM, TAX_UNIT, VOUCHER_TYPE, COST_CATEGORY, COST_CENTER)) {
+            BY_ENTITY_TYPE.put(descriptor.getEntityType(), descriptor);
+        }
+    }
+
+    public static List<MasterDescriptor<?>> all() {
+        return List.copyOf(BY_ENTITY_TYPE.values());
+    }
+
+    public static Optional<MasterDescriptor<?>> byEntityType(String entityType) {
+        return Optional.ofNullable(BY_ENTITY_TYPE.get(entityType));
+    }
+}
@@ -0,0 +1,154 @@
+package com.tally.sync;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Hash tree over the (masterId, alterId) pairs of one master of one company, so a client can check that
+ * the server matches Tally without resending everything.
+ *
+ * Leaves are buckets of 256 masterIds (bucket = masterId &gt;&gt; 8), stored in master_sync_hash. The hash of
+ * a master is the first 8 bytes of md5("&lt;masterId&gt;:&lt;alterId&gt;") (alterId empty when null) read as a
+ * big-endian signed long; a bucket hash is the XOR over its live masters. Every level above groups 16 nodes:
+ * node n of level L covers the buckets whose number &gt;&gt; (4 * L) equals n, and its hash is the XOR of its
+ * children. The client computes the same tree from Tally and descends only into nodes whose hashes differ.
+ *
+ * A company's tree is built from its master table the first time it is read ({@link #rebuild}); from then on
+ * triggers on the master table apply every write to its buckets in the writing transaction, whatever the path -
+ * bulk sync, single-record JPA endpoints, manual SQL (sql/create_master_sync_hash_table.sql).
+ */
+@Component
+public class MasterHashTree {
+
+    static final int BUCKET_BITS = 8;
+    static final int FANOUT_BITS = 4;
+
+    private static final String MASTER_HASH =
+            "('x' || left(md5(t.masterid || ':' || COALESCE(t.alterid::text, '')), 16))::bit(64)::bigint";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    // ========== MAINTENANCE ==========
+    /**
+     * Recompute every bucket of a company from the master table and mark its tree built, so the triggers
+     * maintain it from here on.
+     * The exclusive tree lock waits for writers still in flight (the triggers hold it shared until commit) and
+     * makes new ones wait for this rebuild, so no write is missed or applied twice.
+     */
+    @Transactional
+    public void rebuild(MasterDescriptor<?> descriptor, Long cmpId) {
+        syncLocks.lock(descriptor, cmpId);
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(master_sync_hash_lock_key(?, ?))", rs -> null,
+                descriptor.getEntityType(), cmpId);
+        String sql = "WITH agg AS (" +
+                     "SELECT t.masterid >> " + BUCKET_BITS + " AS bucket, bit_xor(" + MASTER_HASH + ") AS hash, " +
+                     "COUNT(*) AS master_count FROM " + descriptor.getTable() + " t " +
+                     "WHERE t.cmpid = ? AND t.is_deleted IS NOT TRUE GROUP BY 1), " +
+                     "upserted AS (" +
+                     "INSERT INTO master_sync_hash (cmpid, entity_type, bucket, hash, master_count, updated_at) " +
+                     "SELECT ?, ?, bucket, hash, master_count, ? FROM agg " +
+                     "ON CONFLICT (cmpid, entity_type, bucket) DO UPDATE SET hash = EXCLUDED.hash, " +
+                     "master_count = EXCLUDED.master_count, updated_at = EXCLUDED.updated_at) " +
+                     "DELETE FROM master_sync_hash WHERE cmpid = ? AND entity_type = ? " +
+                     "AND bucket NOT IN (SELECT bucket FROM agg)";
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.update(sql, cmpId, cmpId, descriptor.getEntityType(), now, cmpId, descriptor.getEntityType());
+        jdbcTemplate.update("INSERT INTO master_sync_hash_built (cmpid, entity_type, built_at) VALUES (?, ?, ?) " +
+                            "ON CONFLICT (cmpid, entity_type) DO UPDATE SET built_at = EXCLUDED.built_at",
+                cmpId, descriptor.getEntityType(), now);
+    }
+
+    /**
+     * Build the company's tree if it has never been built - including companies with buckets written by
+     * versions that only hashed what a bulk sync touched, whose trees are incomplete
+     */
+    private void ensureBuilt(MasterDescriptor<?> descriptor, Long cmpId) {
+        Boolean built = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM master_sync_hash_built WHERE cmpid = ? AND entity_type = ?)",
+                Boolean.class, cmpId, descriptor.getEntityType());
+        if (!Boolean.TRUE.equals(built)) {
+            rebuild(descriptor, cmpId);
+        }
+    }
+
+    // ========== READ ==========
+    /**
+     * Root of the tree: node 0 of the lowest level that covers every bucket (level 0 when there is at most one).
+     * A company whose tree was never built is built first.
+     */
+    @Transactional
+    public HashNode root(MasterDescriptor<?> descriptor, Long cmpId) {
+        ensureBuilt(descriptor, cmpId);
+        HashNode root = loadRoot(descriptor, cmpId);
+        return root != null ? root : new HashNode(0, 0, toHex(0), 0);
+    }
+
+    private HashNode loadRoot(MasterDescriptor<?> descriptor, Long cmpId) {
+        return jdbcTemplate.query(
+                "SELECT bit_xor(hash), SUM(master_count), MAX(bucket) FROM master_sync_hash " +
+                "WHERE cmpid = ? AND entity_type = ?",
+                rs -> {
+                    rs.next();
+                    long maxBucket = rs.getLong(3);
+                    if (rs.wasNull()) {
+                        return null;
+                    }
+                    int level = 0;
+                    while ((maxBucket >> (FANOUT_BITS * level)) > 0) {
+                        level++;
+                    }
+                    return new HashNode(level, 0, toHex(rs.getLong(1)), rs.getLong(2));
+                }, cmpId, descriptor.getEntityType());
+    }
+
+    /**
+     * Non-empty children of node n at level L (L &gt;= 1): the nodes of level L - 1, buckets when L is 1
+     */
+    @Transactional
+    public List<HashNode> children(MasterDescriptor<?> descriptor, Long cmpId, int level, long node) {
+        if (level < 1) {
+            throw new IllegalArgumentException("Level 0 nodes are buckets; list their masters instead");
+        }
+        ensureBuilt(descriptor, cmpId);
+        int childShift = FANOUT_BITS * (level - 1);
+        int shift = FANOUT_BITS * level;
+        return jdbcTemplate.query(
+                "SELECT bucket >> " + childShift + " AS child, bit_xor(hash), SUM(master_count) FROM master_sync_hash " +
+                "WHERE cmpid = ? AND entity_type = ? AND bucket >= ? AND bucket < ? GROUP BY 1 ORDER BY 1",
+                (rs, rowNum) -> new HashNode(level - 1, rs.getLong(1), toHex(rs.getLong(2)), rs.getLong(3)),
+                cmpId, descriptor.getEntityType(), node << shift, (node + 1) << shift);
+    }
+
+    /**
+     * Live (masterId, alterId) pairs of one bucket, for pinpointing the records that differ
+     */
+    public List<MasterVersion> masters(MasterDescriptor<?> descriptor, Long cmpId, long bucket) {
+        return jdbcTemplate.query(
+                "SELECT masterid, alterid FROM " + descriptor.getTable() + " " +
+                "WHERE cmpid = ? AND masterid >= ? AND masterid < ? AND is_deleted IS NOT TRUE ORDER BY masterid",
+                (rs, rowNum) -> new MasterVersion(rs.getLong(1), rs.getObject(2, Long.class)),
+                cmpId, bucket << BUCKET_BITS, (bucket + 1) << BUCKET_BITS);
+    }
+
+    /**
+     * Fixed-width hex: JSON numbers above 2^53 lose precision in JavaScript clients
+     */
+    private static String toHex(long hash) {
+        return String.format("%016x", hash);
+    }
+
+    public record HashNode(int level, long node, String hash, long masterCount) {
+    }
+
+    public record MasterVersion(long masterId, Long alterId) {
+    }
+}
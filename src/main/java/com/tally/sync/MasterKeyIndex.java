@@ -0,0 +1,100 @@
+package com.tally.sync;
+
+/**
+ * masterId -> (primary key, alterId) of the rows of one company that already exist, for one chunk.
+ *
+ * Open addressing over parallel long arrays instead of a Map&lt;Long, ...&gt;: no boxing, no entry objects,
+ * about 50 bytes per row at the default load factor, so even a 100k-row company fits in a few MB.
+ */
+final class MasterKeyIndex {
+
+    /** alterId stored as NULL */
+    static final long NO_ALTER_ID = Long.MIN_VALUE;
+
+    /** stored in place of the alterId of a soft-deleted row: matches no incoming alterId, so the row is rewritten */
+    static final long DELETED = Long.MIN_VALUE + 1;
+
+    private long[] masterIds;
+    private long[] ids;
+    private long[] alterIds;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    MasterKeyIndex(int expectedSize) {
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1));
+    }
+
+    void put(long masterId, long id, long alterId) {
+        if ((size + 1) * 2 > used.length) {
+            grow();
+        }
+        int slot = probe(masterId);
+        if (!used[slot]) {
+            used[slot] = true;
+            masterIds[slot] = masterId;
+            size++;
+        }
+        ids[slot] = id;
+        alterIds[slot] = alterId;
+    }
+
+    /**
+     * @return slot of masterId for {@link #idAt} / {@link #alterIdAt}, or -1 when the row does not exist
+     */
+    int slotOf(long masterId) {
+        int slot = probe(masterId);
+        return used[slot] ? slot : -1;
+    }
+
+    long idAt(int slot) {
+        return ids[slot];
+    }
+
+    long alterIdAt(int slot) {
+        return alterIds[slot];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // ========== HASHING ==========
+    private int probe(long masterId) {
+        int slot = hash(masterId) & mask;
+        while (used[slot] && masterIds[slot] != masterId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * masterIds are mostly consecutive; spread them so neighbours do not form one long probe run
+     */
+    private static int hash(long masterId) {
+        long h = masterId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void grow() {
+        long[] oldMasterIds = masterIds;
+        long[] oldIds = ids;
+        long[] oldAlterIds = alterIds;
+        boolean[] oldUsed = used;
+        allocate(oldUsed.length * 2);
+        size = 0;
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                put(oldMasterIds[i], oldIds[i], oldAlterIds[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        masterIds = new long[capacity];
+        ids = new long[capacity];
+        alterIds = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+}
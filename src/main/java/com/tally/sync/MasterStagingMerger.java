@@ -0,0 +1,51 @@
+package com.tally.sync;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based write path for large chunks: the records are COPY'd into an unlogged staging table
+ * and merged into the master with a single UPDATE ... FROM / INSERT ... SELECT statement, so the
+ * alterId comparison and the inserted / updated counts happen in the database instead of in Java.
+ *
+ * Must run inside the sync transaction - the staging table is a temp table of that connection.
+ */
+@Component
+public class MasterStagingMerger {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MasterCopyWriter masterCopyWriter;
+
+    /**
+     * @param records deduplicated on (cmpId, masterId)
+     * @return inserted / updated counts per company that changed; unchanged records are not listed
+     */
+    public <T> Map<Long, MergeCounts> merge(MasterDescriptor<T> descriptor, List<T> records, Timestamp timestamp) {
+        Map<Long, MergeCounts> changes = new LinkedHashMap<>();
+        if (records.isEmpty()) {
+            return changes;
+        }
+        jdbcTemplate.execute(descriptor.getStagingDdl());
+        jdbcTemplate.execute("TRUNCATE " + descriptor.getStagingTable());
+        masterCopyWriter.copy(descriptor, records, timestamp, descriptor.getStagingCopySql());
+        // a fresh temp table has no statistics; without them the planner guesses the join badly
+        jdbcTemplate.execute("ANALYZE " + descriptor.getStagingTable());
+
+        jdbcTemplate.query(descriptor.getMergeSql(), rs -> {
+            changes.put(rs.getLong("cmpid"), new MergeCounts(rs.getInt("inserted"), rs.getInt("updated")));
+        });
+        return changes;
+    }
+
+    public record MergeCounts(int inserted, int updated) {
+    }
+}
@@ -0,0 +1,596 @@
+package com.tally.sync;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import jakarta.annotation.PostConstruct;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk sync of any Tally master described by a {@link MasterDescriptor}.
+ *
+ * The payload is split into chunks (sync.chunk-size); each chunk looks up its existing rows in one query
+ * and is written as JDBC batches (INSERT ... ON CONFLICT for new rows, UPDATE by ID for changed ones)
+ * instead of a find + save per record.
+ * The InputStream variant parses the JSON array record by record, so at most one chunk is on the heap.
+ * A company with no rows of the master yet (first-time onboarding) is loaded with COPY instead,
+ * and chunks with many changed records are merged through a staging table.
+ *
+ * Every chunk commits in its own transaction, so a failure late in a large payload keeps the chunks before it.
+ * A chunk the database rejects (duplicate name, value too long, ...) is written again record by record under
+ * savepoints; the rejected records are reported in the SyncResult and everything else in the chunk lands.
+ */
+@Service
+public class MasterSyncEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(MasterSyncEngine.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private List<MasterSyncPostProcessor> postProcessors = List.of();
+
+    @Autowired
+    private MasterCopyWriter masterCopyWriter;
+
+    @Autowired
+    private MasterStagingMerger masterStagingMerger;
+
+    @Autowired
+    private SyncLocks syncLocks;
+
+    @Autowired
+    private SyncMetrics syncMetrics;
+
+    @Value("${sync.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${sync.initial-load.copy-enabled:true}")
+    private boolean copyEnabled;
+
+    @Value("${sync.staging.threshold:1000}")
+    private int stagingThreshold;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate chunkTransaction;
+
+    @PostConstruct
+    public void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ========== SYNC ==========
+    // The sync methods manage their own per-chunk transactions; a caller's transaction is suspended meanwhile.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public <T> SyncResult sync(MasterDescriptor<T> descriptor, List<T> records) {
+        long started = System.nanoTime();
+        SyncResult result = newResult(descriptor);
+        SyncRun run = new SyncRun(false);
+
+        try {
+            for (int from = 0; from < records.size(); from += chunkSize) {
+                commitChunk(descriptor, records.subList(from, Math.min(from + chunkSize, records.size())), result, run);
+            }
+            finish(descriptor, result, run);
+        } catch (RuntimeException e) {
+            syncMetrics.failed(descriptor, records.size(), System.nanoTime() - started);
+            throw e;
+        }
+        result.setElapsedMs((System.nanoTime() - started) / 1_000_000);
+        syncMetrics.completed(descriptor, result, System.nanoTime() - started);
+        return result;
+    }
+
+    /**
+     * Streaming sync of a JSON array of records: each chunk is written as soon as it has been read
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public <T> SyncResult sync(MasterDescriptor<T> descriptor, InputStream json) {
+        return sync(descriptor, json, false);
+    }
+
+    /**
+     * Streaming sync; with fullSnapshot the payload is taken as the complete list of the master for every
+     * company in it, and stored rows missing from it are soft-deleted
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public <T> SyncResult sync(MasterDescriptor<T> descriptor, InputStream json, boolean fullSnapshot) {
+        return sync(descriptor, json, null, fullSnapshot, result -> { });
+    }
+
+    /**
+     * Streaming sync that reports the running totals after every chunk (used by async sync jobs)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public <T> SyncResult sync(MasterDescriptor<T> descriptor, InputStream json, boolean fullSnapshot,
+                               Consumer<SyncResult> onChunk) {
+        return sync(descriptor, json, null, fullSnapshot, onChunk);
+    }
+
+    /**
+     * Streaming sync restricted to one company when cmpId is set: a record with another cmpId fails the whole
+     * sync, and a full snapshot of that company may be empty (every stored row is then deleted)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public <T> SyncResult sync(MasterDescriptor<T> descriptor, InputStream json, Long cmpId, boolean fullSnapshot,
+                               Consumer<SyncResult> onChunk) {
+        long started = System.nanoTime();
+        SyncResult result = newResult(descriptor);
+        SyncRun run = new SyncRun(fullSnapshot);
+        long received = 0;
+
+        try (MappingIterator<T> records = objectMapper.readerFor(descriptor.getEntityClass()).readValues(json)) {
+            List<T> chunk = new ArrayList<>(chunkSize);
+            long parseStarted = System.nanoTime();
+            while (records.hasNextValue()) {
+                T record = records.nextValue();
+                received++;
+                if (cmpId != null && !cmpId.equals(descriptor.cmpIdOf(record))) {
+                    throw new InvalidSyncPayloadException(descriptor.getEntityType() + " " + descriptor.masterIdOf(record) +
+                            " belongs to company " + descriptor.cmpIdOf(record) + ", not " + cmpId);
+                }
+                chunk.add(record);
+                if (chunk.size() == chunkSize) {
+                    syncMetrics.parsed(descriptor, System.nanoTime() - parseStarted);
+                    commitChunk(descriptor, chunk, result, run);
+                    onChunk.accept(result);
+                    chunk = new ArrayList<>(chunkSize);
+                    parseStarted = System.nanoTime();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                syncMetrics.parsed(descriptor, System.nanoTime() - parseStarted);
+                commitChunk(descriptor, chunk, result, run);
+                onChunk.accept(result);
+            }
+            if (fullSnapshot && cmpId != null) {
+                run.seenMasterIds.computeIfAbsent(cmpId, id -> new SyncRun.MasterIds());
+            }
+            finish(descriptor, result, run);
+        } catch (IOException | RuntimeException e) {
+            syncMetrics.failed(descriptor, received, System.nanoTime() - started);
+            throw e instanceof RuntimeException runtime ? runtime
+                    : new InvalidSyncPayloadException("Invalid " + descriptor.getEntityType() + " payload: " + e.getMessage(), e);
+        }
+        result.setElapsedMs((System.nanoTime() - started) / 1_000_000);
+        syncMetrics.completed(descriptor, result, System.nanoTime() - started);
+        return result;
+    }
+
+    // ========== CHUNK TRANSACTIONS ==========
+    /**
+     * Write and commit one chunk. When the database rejects it, the chunk is rolled back and written again
+     * one record at a time, so a single bad record costs its own row instead of the whole chunk.
+     */
+    private <T> void commitChunk(MasterDescriptor<T> descriptor, List<T> records, SyncResult result, SyncRun run) {
+        long started = System.nanoTime();
+        List<T> chunk = dedupe(descriptor, records);
+        if (run.fullSnapshot) {
+            // a rejected record still exists in Tally, so it counts as seen either way
+            for (T entity : chunk) {
+                run.seen(descriptor.cmpIdOf(entity), descriptor.masterIdOf(entity));
+            }
+        }
+        try {
+            inTransaction(run, () -> writeChunk(descriptor, chunk, result, run));
+        } catch (DataIntegrityViolationException e) {
+            writeRecordByRecord(descriptor, chunk, result, run);
+        }
+        syncMetrics.written(descriptor, System.nanoTime() - started);
+    }
+
+    /**
+     * Retry of a rejected chunk: one transaction, a savepoint per record, reported as a single chunk
+     */
+    private <T> void writeRecordByRecord(MasterDescriptor<T> descriptor, List<T> chunk, SyncResult result,
+                                         SyncRun run) {
+        SyncResult written = newResult(descriptor);
+        List<SyncResult.RecordFailure> failures = new ArrayList<>();
+        inTransaction(run, () -> {
+            for (T entity : chunk) {
+                // JDBC savepoints on the transaction's connection; the JPA dialect does not offer them
+                Savepoint savepoint = jdbcTemplate.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+                try {
+                    writeChunk(descriptor, List.of(entity), written, run);
+                    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                        connection.releaseSavepoint(savepoint);
+                        return null;
+                    });
+                } catch (DataIntegrityViolationException e) {
+                    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                        connection.rollback(savepoint);
+                        return null;
+                    });
+                    failures.add(new SyncResult.RecordFailure(descriptor.cmpIdOf(entity), descriptor.masterIdOf(entity),
+                            reasonOf(e)));
+                }
+            }
+        });
+        result.addChunk(chunk.size(), written.getInserted(), written.getUpdated(), written.getUnchanged(),
+                failures.size());
+        for (SyncResult.RecordFailure failure : failures) {
+            result.addFailure(failure.getCmpId(), failure.getMasterId(), failure.getReason());
+        }
+        if (!failures.isEmpty()) {
+            SyncResult.RecordFailure first = failures.get(0);
+            logger.warn("{} sync: {} of {} records rejected, first: cmpId {} masterId {}: {}",
+                    descriptor.getEntityType(), failures.size(), chunk.size(), first.getCmpId(), first.getMasterId(),
+                    first.getReason());
+        }
+    }
+
+    /**
+     * Compact reason: the first line of the driver message plus the offending key, never the whole failing row
+     */
+    private static String reasonOf(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message == null) {
+            return e.getClass().getSimpleName();
+        }
+        String[] lines = message.split("\\n");
+        StringBuilder reason = new StringBuilder(lines[0].replaceFirst("^ERROR: ", "").trim());
+        for (int i = 1; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.startsWith("Detail: Key")) {
+                reason.append("; ").append(line.substring("Detail: ".length()));
+            }
+        }
+        return reason.toString();
+    }
+
+    /**
+     * Run in a new transaction; the company locks taken inside are released when it ends
+     */
+    private void inTransaction(SyncRun run, Runnable work) {
+        run.lockedCompanies.clear();
+        try {
+            chunkTransaction.executeWithoutResult(status -> work.run());
+        } finally {
+            run.lockedCompanies.clear();
+        }
+    }
+
+    /**
+     * Work done once per sync after the last chunk, in its own transaction:
+     * full-snapshot deletions, post-processors
+     */
+    private void finish(MasterDescriptor<?> descriptor, SyncResult result, SyncRun run) {
+        long started = System.nanoTime();
+        inTransaction(run, () -> {
+            if (run.fullSnapshot) {
+                deleteMissing(descriptor, result, run);
+            }
+            afterSync(descriptor, run.changedCompanies);
+        });
+        syncMetrics.finished(descriptor, System.nanoTime() - started);
+    }
+
+    private void afterSync(MasterDescriptor<?> descriptor, Set<Long> changedCompanies) {
+        if (changedCompanies.isEmpty()) {
+            return;
+        }
+        for (MasterSyncPostProcessor postProcessor : postProcessors) {
+            postProcessor.afterSync(descriptor.getEntityType(), changedCompanies);
+        }
+    }
+
+    private static SyncResult newResult(MasterDescriptor<?> descriptor) {
+        SyncResult result = new SyncResult();
+        result.setEntityType(descriptor.getEntityType());
+        return result;
+    }
+
+    /**
+     * Write one chunk. Records of a company that had no rows of this master when the sync started
+     * are COPY-loaded. For the rest, the existing (masterId -> id, alterId) pairs are loaded in one query
+     * per company: new records are upserted and changed ones updated by primary key, one JDBC batch each.
+     * Rows whose stored alterId equals the incoming one are skipped - Tally bumps alterId on every change,
+     * so nothing about them can differ.
+     * When at least sync.staging.threshold records changed they are merged through the staging table instead.
+     */
+    private <T> void writeChunk(MasterDescriptor<T> descriptor, List<T> chunk, SyncResult result, SyncRun run) {
+        List<Long> cmpIds = new ArrayList<>();
+        for (T entity : chunk) {
+            cmpIds.add(descriptor.cmpIdOf(entity));
+        }
+        lock(descriptor, cmpIds, run);
+        List<T> upserts = copyInitialLoad(descriptor, chunk, run);
+        int copied = chunk.size() - upserts.size();
+        Map<Long, MasterKeyIndex> existing = loadKeys(descriptor, upserts);
+
+        List<T> inserts = new ArrayList<>();
+        List<T> updates = new ArrayList<>();
+        long[] updateIds = new long[upserts.size()];
+        for (T entity : upserts) {
+            MasterKeyIndex index = existing.get(descriptor.cmpIdOf(entity));
+            int slot = index != null ? index.slotOf(descriptor.masterIdOf(entity)) : -1;
+            if (slot < 0) {
+                inserts.add(entity);
+            } else if (index.alterIdAt(slot) != alterIdKey(descriptor.alterIdOf(entity))) {
+                updateIds[updates.size()] = index.idAt(slot);
+                updates.add(entity);
+            }
+        }
+        int changed = inserts.size() + updates.size();
+        int unchanged = upserts.size() - changed;
+
+        if (stagingThreshold > 0 && changed >= stagingThreshold) {
+            List<T> staged = new ArrayList<>(inserts);
+            staged.addAll(updates);
+            mergeStaged(descriptor, staged, chunk.size(), copied, unchanged, result, run);
+            return;
+        }
+        for (T entity : inserts) {
+            run.changed(descriptor.cmpIdOf(entity));
+        }
+        for (T entity : updates) {
+            run.changed(descriptor.cmpIdOf(entity));
+        }
+        if (!inserts.isEmpty()) {
+            // still ON CONFLICT: another sync may have inserted the row since the keys were loaded
+            jdbcTemplate.batchUpdate(descriptor.getUpsertSql(), inserts, inserts.size(),
+                    (ps, entity) -> bind(ps, descriptor, entity, run.timestamp));
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(descriptor.getUpdateByIdSql(), new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    bindUpdate(ps, descriptor, updates.get(i), updateIds[i], run.timestamp);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return updates.size();
+                }
+            });
+        }
+        result.addChunk(chunk.size(), copied + inserts.size(), updates.size(), unchanged);
+    }
+
+    /**
+     * Merge the changed records of a chunk through the staging table. The counts come back from the merge
+     * itself, so a row another sync wrote in the meantime is reported as unchanged rather than guessed.
+     */
+    private <T> void mergeStaged(MasterDescriptor<T> descriptor, List<T> changed, int chunkSize, int copied,
+                                 int unchanged, SyncResult result, SyncRun run) {
+        int inserted = 0;
+        int updated = 0;
+        for (Map.Entry<Long, MasterStagingMerger.MergeCounts> entry
+                : masterStagingMerger.merge(descriptor, changed, run.timestamp).entrySet()) {
+            run.changedCompanies.add(entry.getKey());
+            inserted += entry.getValue().inserted();
+            updated += entry.getValue().updated();
+        }
+        result.addChunk(chunkSize, copied + inserted, updated, unchanged + changed.size() - inserted - updated);
+    }
+
+    // ========== DELETIONS ==========
+    /**
+     * Full snapshot: soft-delete every live row of the synced companies whose masterId was not received,
+     * one statement per company (hash anti-join against the received masterIds)
+     */
+    private void deleteMissing(MasterDescriptor<?> descriptor, SyncResult result, SyncRun run) {
+        String sql = "UPDATE " + descriptor.getTable() + " SET is_deleted = TRUE, updated_at = ? " +
+                     "WHERE cmpid = ? AND is_deleted IS NOT TRUE " +
+                     "AND masterid NOT IN (SELECT unnest(?::bigint[])) RETURNING masterid";
+        int deleted = 0;
+        lock(descriptor, run.seenMasterIds.keySet(), run);
+        for (Map.Entry<Long, SyncRun.MasterIds> entry : run.seenMasterIds.entrySet()) {
+            List<Long> masterIds = jdbcTemplate.queryForList(sql, Long.class,
+                    run.timestamp, entry.getKey(), entry.getValue().toArray());
+            if (!masterIds.isEmpty()) {
+                run.changed(entry.getKey());
+            }
+            deleted += masterIds.size();
+        }
+        result.setDeleted(deleted);
+    }
+
+    /**
+     * Soft-delete one master of a company
+     *
+     * @return false when no live row matched
+     */
+    @Transactional
+    public boolean delete(MasterDescriptor<?> descriptor, Long cmpId, Long masterId) {
+        syncLocks.lock(descriptor, cmpId);
+        int rows = jdbcTemplate.update(
+                "UPDATE " + descriptor.getTable() + " SET is_deleted = TRUE, updated_at = ? " +
+                "WHERE cmpid = ? AND masterid = ? AND is_deleted IS NOT TRUE",
+                new Timestamp(System.currentTimeMillis()), cmpId, masterId);
+        if (rows > 0) {
+            afterSync(descriptor, Set.of(cmpId));
+        }
+        return rows > 0;
+    }
+
+    // ========== LOCKING ==========
+    /**
+     * Take the companies' locks the first time the chunk transaction writes to them; concurrent syncs of the same
+     * master of a company queue here instead of racing into the unique constraints. All companies of the chunk are
+     * locked up front in SyncLocks' order, never one by one in payload order.
+     */
+    private void lock(MasterDescriptor<?> descriptor, Collection<Long> cmpIds, SyncRun run) {
+        List<Long> unlocked = new ArrayList<>();
+        for (Long cmpId : cmpIds) {
+            run.companies.add(cmpId);
+            if (run.lockedCompanies.add(cmpId)) {
+                unlocked.add(cmpId);
+            }
+        }
+        syncLocks.lockAll(descriptor, unlocked);
+    }
+
+    // ========== INITIAL LOAD ==========
+    /**
+     * COPY the records of companies that are being loaded for the first time.
+     * A company counts as new when it has no rows of this master the first time this sync sees it;
+     * a masterId repeated across chunks of such a company falls back to the upsert.
+     *
+     * @return records that still need the upsert path
+     */
+    private <T> List<T> copyInitialLoad(MasterDescriptor<T> descriptor, List<T> chunk, SyncRun run) {
+        if (!copyEnabled) {
+            return chunk;
+        }
+        List<T> copies = new ArrayList<>();
+        List<T> upserts = new ArrayList<>();
+        for (T entity : chunk) {
+            Long cmpId = descriptor.cmpIdOf(entity);
+            // HashMap.computeIfAbsent does not store null, so companies with rows are recorded explicitly
+            if (!run.initialLoads.containsKey(cmpId)) {
+                run.initialLoads.put(cmpId, isEmptyCompany(descriptor, cmpId) ? new HashSet<>() : null);
+            }
+            Set<Long> loaded = run.initialLoads.get(cmpId);
+            if (loaded != null && loaded.add(descriptor.masterIdOf(entity))) {
+                copies.add(entity);
+            } else {
+                upserts.add(entity);
+            }
+        }
+        if (!copies.isEmpty()) {
+            masterCopyWriter.copy(descriptor, copies, run.timestamp);
+            for (T entity : copies) {
+                run.changed(descriptor.cmpIdOf(entity));
+            }
+        }
+        return upserts;
+    }
+
+    private boolean isEmptyCompany(MasterDescriptor<?> descriptor, Long cmpId) {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + descriptor.getTable() + " WHERE cmpid = ?)", Boolean.class, cmpId);
+        return !Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * ID and alterId of every (cmpId, masterId) of the chunk that already exists, indexed per company -
+     * one query per company, nothing boxed per row. A soft-deleted row always counts as changed, so a master
+     * sent again is restored even if its alterId did not move.
+     */
+    private <T> Map<Long, MasterKeyIndex> loadKeys(MasterDescriptor<T> descriptor, List<T> chunk) {
+        if (chunk.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<Long>> masterIdsByCompany = chunk.stream()
+                .collect(Collectors.groupingBy(descriptor::cmpIdOf, LinkedHashMap::new,
+                        Collectors.mapping(descriptor::masterIdOf, Collectors.toList())));
+
+        String sql = "SELECT masterid, " + descriptor.getIdColumn() + ", alterid, is_deleted FROM " + descriptor.getTable() +
+                     " WHERE cmpid = ? AND masterid = ANY (?)";
+        Map<Long, MasterKeyIndex> existing = new HashMap<>();
+        for (Map.Entry<Long, List<Long>> entry : masterIdsByCompany.entrySet()) {
+            MasterKeyIndex index = new MasterKeyIndex(entry.getValue().size());
+            jdbcTemplate.query(sql, rs -> {
+                long alterId = rs.getLong(3);
+                if (rs.wasNull()) {
+                    alterId = MasterKeyIndex.NO_ALTER_ID;
+                }
+                index.put(rs.getLong(1), rs.getLong(2), rs.getBoolean(4) ? MasterKeyIndex.DELETED : alterId);
+            }, entry.getKey(), entry.getValue().toArray(new Long[0]));
+            existing.put(entry.getKey(), index);
+        }
+        return existing;
+    }
+
+    private static long alterIdKey(Long alterId) {
+        return alterId != null ? alterId : MasterKeyIndex.NO_ALTER_ID;
+    }
+
+    private static <T> String keyOf(MasterDescriptor<T> descriptor, T entity) {
+        return descriptor.cmpIdOf(entity) + ":" + descriptor.masterIdOf(entity);
+    }
+
+    /**
+     * Keep only the last occurrence of each (cmpId, masterId) - Postgres refuses to
+     * touch the same row twice in one ON CONFLICT statement
+     */
+    static <T> List<T> dedupe(MasterDescriptor<T> descriptor, List<T> chunk) {
+        Map<String, T> unique = new LinkedHashMap<>();
+        for (T entity : chunk) {
+            if (descriptor.cmpIdOf(entity) == null || descriptor.masterIdOf(entity) == null) {
+                throw new InvalidSyncPayloadException(descriptor.getEntityType() + " record without cmpId/masterId cannot be synced");
+            }
+            unique.put(keyOf(descriptor, entity), entity);
+        }
+        return unique.size() == chunk.size() ? chunk : new ArrayList<>(unique.values());
+    }
+
+    private static <T> void bind(PreparedStatement ps, MasterDescriptor<T> descriptor, T entity, Timestamp timestamp)
+            throws SQLException {
+        int index = 1;
+        for (MasterColumn<T> column : descriptor.getColumns()) {
+            setValue(ps, index++, column, column.getter().apply(entity));
+        }
+        if (descriptor.hasSyncMetadata()) {
+            ps.setTimestamp(index++, timestamp);   // last_sync_date
+        }
+        ps.setTimestamp(index++, timestamp);       // created_at
+        ps.setTimestamp(index, timestamp);         // updated_at
+    }
+
+    private static <T> void bindUpdate(PreparedStatement ps, MasterDescriptor<T> descriptor, T entity, long id,
+                                       Timestamp timestamp) throws SQLException {
+        int index = 1;
+        for (MasterColumn<T> column : descriptor.getColumns()) {
+            if (column.isCopiedOnUpdate()) {
+                setValue(ps, index++, column, column.getter().apply(entity));
+            }
+        }
+        if (descriptor.hasSyncMetadata()) {
+            ps.setTimestamp(index++, timestamp);   // last_sync_date
+        }
+        ps.setTimestamp(index++, timestamp);       // updated_at
+        ps.setLong(index, id);
+    }
+
+    private static <T> void setValue(PreparedStatement ps, int index, MasterColumn<T> column, Object value)
+            throws SQLException {
+        if (value == null) {
+            ps.setNull(index, column.sqlType());
+        } else if (value instanceof LocalDate date) {
+            ps.setObject(index, date, Types.DATE);
+        } else {
+            ps.setObject(index, value, column.sqlType());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.tally.sync;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Syncs every master of one company in a single request.
+ *
+ * Masters are scheduled along the dependency DAG declared on their descriptors (groups before ledgers,
+ * units / stock groups / stock categories before stock items, cost categories before cost centres).
+ * Independent branches run in parallel on syncMasterExecutor, each on its own connection,
+ * so the wall time approaches the longest chain instead of the sum of all masters.
+ */
+@Service
+public class MasterSyncOrchestrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MasterSyncOrchestrator.class);
+
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ThreadPoolTaskExecutor syncMasterExecutor;
+
+    /**
+     * @param body         JSON object keyed by entity type, e.g. {"group": [...], "ledger": [...], "units": [...]}
+     * @param fullSnapshot every master present in the body is the complete list for the company: stored rows
+     *                     not in it are soft-deleted (an empty array deletes them all); absent masters are untouched
+     */
+    public CompanySyncResult syncCompany(Long cmpId, InputStream body, boolean fullSnapshot) {
+        long started = System.nanoTime();
+        Map<String, Path> payloads = spool(body);
+        try {
+            CompanySyncResult result = run(cmpId, payloads, fullSnapshot);
+            result.setElapsedMs((System.nanoTime() - started) / 1_000_000);
+            return result;
+        } finally {
+            payloads.values().forEach(MasterSyncOrchestrator::deleteQuietly);
+        }
+    }
+
+    // ========== DAG EXECUTION ==========
+    private CompanySyncResult run(Long cmpId, Map<String, Path> payloads, boolean fullSnapshot) {
+        Map<String, CompletableFuture<SyncResult>> futures = new LinkedHashMap<>();
+        for (String entityType : payloads.keySet()) {
+            schedule(entityType, cmpId, fullSnapshot, payloads, futures, new HashSet<>());
+        }
+
+        // futures are in dependency order, so a dependency's failure is known before its dependents
+        CompanySyncResult result = new CompanySyncResult();
+        result.setCmpId(cmpId);
+        for (Map.Entry<String, CompletableFuture<SyncResult>> entry : futures.entrySet()) {
+            String entityType = entry.getKey();
+            try {
+                result.getResults().put(entityType, entry.getValue().join());
+            } catch (CompletionException e) {
+                String failedDependency = MasterDescriptors.byEntityType(entityType).get().getDependencies().stream()
+                        .filter(result.getFailures()::containsKey)
+                        .findFirst().orElse(null);
+                result.getFailures().put(entityType, failedDependency != null
+                        ? "Skipped, " + failedDependency + " failed"
+                        : e.getCause().getMessage());
+            }
+        }
+        return result;
+    }
+
+    private CompletableFuture<SyncResult> schedule(String entityType, Long cmpId, boolean fullSnapshot,
+                                                   Map<String, Path> payloads,
+                                                   Map<String, CompletableFuture<SyncResult>> futures,
+                                                   Set<String> visiting) {
+        CompletableFuture<SyncResult> scheduled = futures.get(entityType);
+        if (scheduled != null) {
+            return scheduled;
+        }
+        if (!visiting.add(entityType)) {
+            throw new IllegalStateException("Dependency cycle at " + entityType);
+        }
+        MasterDescriptor<?> descriptor = MasterDescriptors.byEntityType(entityType).get();
+
+        List<CompletableFuture<SyncResult>> dependencies = new ArrayList<>();
+        for (String dependency : descriptor.getDependencies()) {
+            if (payloads.containsKey(dependency)) {
+                dependencies.add(schedule(dependency, cmpId, fullSnapshot, payloads, futures, visiting));
+            }
+        }
+
+        CompletableFuture<SyncResult> future = CompletableFuture
+                .allOf(dependencies.toArray(new CompletableFuture[0]))
+                .thenApplyAsync(ignored -> syncOne(descriptor, payloads.get(entityType), cmpId, fullSnapshot),
+                        syncMasterExecutor);
+        futures.put(entityType, future);
+        return future;
+    }
+
+    private SyncResult syncOne(MasterDescriptor<?> descriptor, Path payload, Long cmpId, boolean fullSnapshot) {
+        try (InputStream json = Files.newInputStream(payload)) {
+            return masterSyncEngine.sync(descriptor, json, cmpId, fullSnapshot, progress -> { });
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read " + descriptor.getEntityType() + " payload: " + e.getMessage(), e);
+        }
+    }
+
+    // ========== PAYLOAD ==========
+    /**
+     * Split the company payload into one temp file per master without materialising any records
+     */
+    private Map<String, Path> spool(InputStream body) {
+        Map<String, Path> payloads = new LinkedHashMap<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("Expected a JSON object keyed by entity type");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String entityType = parser.getCurrentName();
+                if (MasterDescriptors.byEntityType(entityType).isEmpty()) {
+                    throw new RuntimeException("Unknown entity type: " + entityType);
+                }
+                if (payloads.containsKey(entityType)) {
+                    throw new RuntimeException("Duplicate entity type: " + entityType);
+                }
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new RuntimeException("Expected an array of records for " + entityType);
+                }
+                Path file = Files.createTempFile("tally-sync-" + entityType + "-", ".json");
+                payloads.put(entityType, file);
+                try (OutputStream out = Files.newOutputStream(file);
+                     JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                    generator.copyCurrentStructure(parser);
+                }
+            }
+            return payloads;
+        } catch (IOException | RuntimeException e) {
+            payloads.values().forEach(MasterSyncOrchestrator::deleteQuietly);
+            throw e instanceof RuntimeException runtime ? runtime
+                    : new RuntimeException("Invalid company sync payload: " + e.getMessage(), e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete company sync spool file {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.tally.sync;
+
+import java.util.Set;
+
+/**
+ * Hook run by {@link MasterSyncEngine} at the end of a sync, inside the same transaction,
+ * for the companies that had at least one record inserted or updated
+ */
+public interface MasterSyncPostProcessor {
+
+    void afterSync(String entityType, Set<Long> changedCompanies);
+}
@@ -0,0 +1,219 @@
+package com.tally.sync;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for sync writes: a bounded number run at once, a bounded number wait for a slot,
+ * and everything beyond that is turned away straight away with a Retry-After instead of piling onto
+ * the connection pool and starving interactive requests.
+ *
+ * Two gates, taken licence first so one busy licence queues on its own gate without filling the node queue:
+ * per licence (sync.admission.licence.*, only when the connector sends its licence number) and per node
+ * (sync.admission.*).
+ *
+ * Besides GET /sync/admission, the node gate is exported to Micrometer:
+ * tally.sync.admission.in.flight and tally.sync.admission.queued (gauges), tally.sync.admission.wait (timer of every
+ * admitted sync's wait for its slot) and tally.sync.admission.rejected (counter of 429s, tag gate = node / licence).
+ */
+@Component
+public class SyncAdmission {
+
+    private final Gate node;
+    private final int licenceMaxInFlight;
+    private final int licenceMaxQueue;
+    private final long queueTimeoutMs;
+    private final Map<Long, Gate> licences = new ConcurrentHashMap<>();
+
+    /** moving average of how long an admitted sync holds its slot (-1 until the first one finished), drives Retry-After */
+    private final AtomicLong avgServiceMs = new AtomicLong(-1);
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong queuedTotal = new AtomicLong();
+    private final AtomicLong rejectedNode = new AtomicLong();
+    private final AtomicLong rejectedLicence = new AtomicLong();
+    private final AtomicLong totalQueueWaitMs = new AtomicLong();
+    private final AtomicLong maxQueueWaitMs = new AtomicLong();
+
+    private final Timer queueWait;
+    private final Counter rejectedNodeCounter;
+    private final Counter rejectedLicenceCounter;
+
+    public SyncAdmission(
+            MeterRegistry meterRegistry,
+            @Value("${sync.admission.max-in-flight:4}") int maxInFlight,
+            @Value("${sync.admission.max-queue:50}") int maxQueue,
+            @Value("${sync.admission.queue-timeout-seconds:30}") long queueTimeoutSeconds,
+            @Value("${sync.admission.licence.max-in-flight:2}") int licenceMaxInFlight,
+            @Value("${sync.admission.licence.max-queue:4}") int licenceMaxQueue) {
+        this.node = new Gate(maxInFlight, maxQueue);
+        this.licenceMaxInFlight = licenceMaxInFlight;
+        this.licenceMaxQueue = licenceMaxQueue;
+        this.queueTimeoutMs = TimeUnit.SECONDS.toMillis(queueTimeoutSeconds);
+
+        Gauge.builder("tally.sync.admission.in.flight", node, gate -> gate.maxInFlight - gate.permits.availablePermits())
+                .description("Sync writes holding a node slot")
+                .register(meterRegistry);
+        Gauge.builder("tally.sync.admission.queued", node, gate -> gate.waiting.get())
+                .description("Sync writes waiting for a node slot")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("tally.sync.admission.wait")
+                .description("Time an admitted sync write waited for its slots")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedNodeCounter = rejected(meterRegistry, "node");
+        this.rejectedLicenceCounter = rejected(meterRegistry, "licence");
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String gate) {
+        return Counter.builder("tally.sync.admission.rejected")
+                .description("Sync writes turned away with 429")
+                .tag("gate", gate)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wait for a slot, at most sync.admission.queue-timeout-seconds
+     *
+     * @param licenceNo null when the caller did not identify its licence - only the node gate applies
+     * @return the slot to release when the sync is done
+     * @throws SyncRejectedException when a queue is full or the wait timed out
+     */
+    public Permit admit(Long licenceNo) {
+        long started = System.nanoTime();
+        Gate licence = licenceNo != null
+                ? licences.computeIfAbsent(licenceNo, no -> new Gate(licenceMaxInFlight, licenceMaxQueue))
+                : null;
+        if (licence != null && !licence.enter(queueTimeoutMs)) {
+            rejectedLicence.incrementAndGet();
+            rejectedLicenceCounter.increment();
+            throw new SyncRejectedException("Too many syncs for licence " + licenceNo, retryAfterSeconds(licence));
+        }
+        long remainingMs = queueTimeoutMs - (System.nanoTime() - started) / 1_000_000;
+        if (!node.enter(Math.max(0, remainingMs))) {
+            if (licence != null) {
+                licence.exit();
+            }
+            rejectedNode.incrementAndGet();
+            rejectedNodeCounter.increment();
+            throw new SyncRejectedException("Server is busy with other syncs", retryAfterSeconds(node));
+        }
+
+        long waitedNanos = System.nanoTime() - started;
+        long waitedMs = waitedNanos / 1_000_000;
+        queueWait.record(waitedNanos, TimeUnit.NANOSECONDS);
+        admitted.incrementAndGet();
+        if (waitedMs > 0) {
+            queuedTotal.incrementAndGet();
+            totalQueueWaitMs.addAndGet(waitedMs);
+            maxQueueWaitMs.accumulateAndGet(waitedMs, Math::max);
+        }
+        return new Permit(licence, System.nanoTime());
+    }
+
+    /**
+     * Seconds until a slot is likely to be free: the work queued ahead spread over the slots,
+     * at the recent average duration of a sync
+     */
+    private long retryAfterSeconds(Gate gate) {
+        long ahead = gate.waiting.get() + gate.maxInFlight;
+        long ms = Math.max(1000, avgServiceMs.get()) * ahead / gate.maxInFlight;
+        return Math.min(300, Math.max(1, (ms + 999) / 1000));
+    }
+
+    // ========== STATS ==========
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", node.maxInFlight - node.permits.availablePermits());
+        stats.put("queued", node.waiting.get());
+        stats.put("maxInFlight", node.maxInFlight);
+        stats.put("maxQueue", node.maxQueue);
+        stats.put("admitted", admitted.get());
+        stats.put("admittedAfterQueueing", queuedTotal.get());
+        stats.put("rejectedNode", rejectedNode.get());
+        stats.put("rejectedLicence", rejectedLicence.get());
+        stats.put("avgQueueWaitMs", queuedTotal.get() > 0 ? totalQueueWaitMs.get() / queuedTotal.get() : 0);
+        stats.put("maxQueueWaitMs", maxQueueWaitMs.get());
+        stats.put("avgServiceMs", Math.max(0, avgServiceMs.get()));
+        stats.put("busyLicences", licences.entrySet().stream()
+                .filter(entry -> entry.getValue().permits.availablePermits() < licenceMaxInFlight)
+                .map(Map.Entry::getKey)
+                .toList());
+        return stats;
+    }
+
+    /**
+     * A held slot; release exactly once, when the sync request has completed
+     */
+    public final class Permit {
+        private final Gate licence;
+        private final long admittedAt;
+
+        private Permit(Gate licence, long admittedAt) {
+            this.licence = licence;
+            this.admittedAt = admittedAt;
+        }
+
+        public void release() {
+            long serviceMs = (System.nanoTime() - admittedAt) / 1_000_000;
+            avgServiceMs.updateAndGet(avg -> avg < 0 ? serviceMs : avg + (serviceMs - avg) / 8);
+            node.exit();
+            if (licence != null) {
+                licence.exit();
+            }
+        }
+    }
+
+    /**
+     * Fair semaphore plus a cap on how many may wait for it
+     */
+    private static final class Gate {
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final int maxInFlight;
+        private final int maxQueue;
+
+        Gate(int maxInFlight, int maxQueue) {
+            this.permits = new Semaphore(maxInFlight, true);
+            this.maxInFlight = maxInFlight;
+            this.maxQueue = maxQueue;
+        }
+
+        boolean enter(long timeoutMs) {
+            try {
+                // the timed form honours fairness; plain tryAcquire() would jump the queue
+                if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+                if (waiting.incrementAndGet() > maxQueue) {
+                    waiting.decrementAndGet();
+                    return false;
+                }
+                try {
+                    return permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        void exit() {
+            permits.release();
+        }
+    }
+}
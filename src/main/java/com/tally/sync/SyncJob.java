@@ -0,0 +1,79 @@
+package com.tally.sync;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an asynchronous /sync/jobs submission, as returned by the polling endpoint. The executor thread writes
+ * it through the synchronized methods below; readers get a snapshot(), never the live object, so the counters
+ * they see all come from the same progress report.
+ */
+@Data
+public class SyncJob {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private String jobId;
+    private String entityType;
+    private Long userId;
+    private volatile String status = QUEUED;
+
+    private volatile int recordsDone;
+    private volatile int inserted;
+    private volatile int updated;
+    private volatile int unchanged;
+    private volatile int deleted;
+    private volatile double recordsPerSecond;
+    private volatile String error;
+
+    private LocalDateTime submittedAt;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public boolean isFinished() {
+        return COMPLETED.equals(status) || FAILED.equals(status);
+    }
+
+    synchronized void start() {
+        status = RUNNING;
+        startedAt = LocalDateTime.now();
+    }
+
+    synchronized void recordProgress(SyncResult progress, double recordsPerSecond) {
+        recordsDone = progress.getTotalReceived();
+        inserted = progress.getInserted();
+        updated = progress.getUpdated();
+        unchanged = progress.getUnchanged();
+        deleted = progress.getDeleted();
+        this.recordsPerSecond = recordsPerSecond;
+    }
+
+    synchronized void finish(String status, String error) {
+        this.error = error;
+        finishedAt = LocalDateTime.now();
+        this.status = status;
+    }
+
+    synchronized SyncJob snapshot() {
+        SyncJob copy = new SyncJob();
+        copy.jobId = jobId;
+        copy.entityType = entityType;
+        copy.userId = userId;
+        copy.status = status;
+        copy.recordsDone = recordsDone;
+        copy.inserted = inserted;
+        copy.updated = updated;
+        copy.unchanged = unchanged;
+        copy.deleted = deleted;
+        copy.recordsPerSecond = recordsPerSecond;
+        copy.error = error;
+        copy.submittedAt = submittedAt;
+        copy.startedAt = startedAt;
+        copy.finishedAt = finishedAt;
+        return copy;
+    }
+}
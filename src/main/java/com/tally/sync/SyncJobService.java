@@ -0,0 +1,157 @@
+package com.tally.sync;
+
+import com.tally.websocket.SessionWebSocketHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Asynchronous master sync: the payload is spooled to a temp file, the caller gets a job ID straight away
+ * and the upsert runs on the bounded syncJobExecutor. Progress is pushed to the submitting user's
+ * WebSocket session after every chunk and can also be polled.
+ */
+@Service
+public class SyncJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncJobService.class);
+
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private SessionWebSocketHandler sessionWebSocketHandler;
+
+    @Autowired
+    private ThreadPoolTaskExecutor syncJobExecutor;
+
+    @Value("${sync.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, SyncJob> jobs = new ConcurrentHashMap<>();
+
+    // ========== SUBMIT ==========
+    public SyncJob submit(String entityType, Long userId, boolean fullSnapshot, InputStream body) {
+        MasterDescriptor<?> descriptor = MasterDescriptors.byEntityType(entityType)
+                .orElseThrow(() -> new RuntimeException("Unknown entity type: " + entityType));
+        evictFinishedJobs();
+
+        Path payload = spool(body);
+        SyncJob job = new SyncJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setEntityType(descriptor.getEntityType());
+        job.setUserId(userId);
+        job.setSubmittedAt(LocalDateTime.now());
+        jobs.put(job.getJobId(), job);
+
+        try {
+            syncJobExecutor.execute(() -> run(job, descriptor, payload, fullSnapshot));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getJobId());
+            deleteQuietly(payload);
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<SyncJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(SyncJob::snapshot);
+    }
+
+    // ========== EXECUTION ==========
+    private void run(SyncJob job, MasterDescriptor<?> descriptor, Path payload, boolean fullSnapshot) {
+        job.start();
+        long started = System.nanoTime();
+        publish(job);
+
+        String status = SyncJob.FAILED;
+        String error = null;
+        try (InputStream json = Files.newInputStream(payload)) {
+            SyncResult result = masterSyncEngine.sync(descriptor, json, fullSnapshot, progress -> {
+                record(job, progress, started);
+                publish(job);
+            });
+            record(job, result, started);
+            status = SyncJob.COMPLETED;
+        } catch (Exception e) {
+            logger.error("Sync job {} ({}) failed", job.getJobId(), descriptor.getEntityType(), e);
+            error = e.getMessage();
+        } finally {
+            job.finish(status, error);
+            deleteQuietly(payload);
+        }
+        publish(job);
+    }
+
+    private static void record(SyncJob job, SyncResult progress, long started) {
+        double seconds = Math.max((System.nanoTime() - started) / 1e9, 0.001);
+        job.recordProgress(progress, Math.round(progress.getTotalReceived() / seconds * 10) / 10.0);
+    }
+
+    /**
+     * SYNC_PROGRESS while running, SYNC_COMPLETED / SYNC_FAILED at the end
+     */
+    private void publish(SyncJob live) {
+        if (live.getUserId() == null) {
+            return;
+        }
+        SyncJob job = live.snapshot();
+        Map<String, Object> message = new HashMap<>();
+        message.put("type", SyncJob.COMPLETED.equals(job.getStatus()) ? "SYNC_COMPLETED"
+                : SyncJob.FAILED.equals(job.getStatus()) ? "SYNC_FAILED" : "SYNC_PROGRESS");
+        message.put("jobId", job.getJobId());
+        message.put("entityType", job.getEntityType());
+        message.put("status", job.getStatus());
+        message.put("recordsDone", job.getRecordsDone());
+        message.put("inserted", job.getInserted());
+        message.put("updated", job.getUpdated());
+        message.put("unchanged", job.getUnchanged());
+        message.put("deleted", job.getDeleted());
+        message.put("recordsPerSecond", job.getRecordsPerSecond());
+        if (job.getError() != null) {
+            message.put("error", job.getError());
+        }
+        message.put("timestamp", System.currentTimeMillis());
+        sessionWebSocketHandler.sendToUser(job.getUserId(), message);
+    }
+
+    // ========== HELPERS ==========
+    private static Path spool(InputStream body) {
+        try {
+            Path file = Files.createTempFile("tally-sync-", ".json");
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read sync payload: " + e.getMessage(), e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete sync payload {}", file, e);
+        }
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMinutes(retentionMinutes));
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,490 @@
+package com.tally.sync;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only ingest journal for sync payloads (sync.journal.enabled=true).
+ *
+ * Records go into memory-mapped segment files under sync.journal.dir. An append reserves the record's space
+ * under the journal lock and then copies the request body straight into the mapping, so payloads never sit on
+ * the heap and a slow client does not hold up the others. One flusher thread forces the written pages to disk
+ * every sync.journal.group-commit-ms, so all appends of that window share one fsync; an append returns once its
+ * record - and every record before it - is durable. {@link SyncJournalApplier} reads the records back and
+ * applies them.
+ *
+ * Offsets are logical and keep growing across segments; a segment file is named after the offset of its first
+ * record. Record layout: int length, int CRC32, then the entry (short + entity type, fullSnapshot byte, payload).
+ * The length is written last, so a record whose length is zero or whose CRC does not match was never completed.
+ * An append whose body fails midway still completes its record, with an empty entity type, and readers skip it.
+ * On startup every segment is checked: the journal is cut at the first incomplete record, wherever it is - no
+ * record after it was acknowledged.
+ */
+@Component
+@ConditionalOnProperty(name = "sync.journal.enabled", havingValue = "true")
+public class SyncJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncJournal.class);
+
+    private static final int HEADER_BYTES = 8;
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String APPLIED_OFFSET_FILE = "applied.offset";
+
+    @Value("${sync.journal.dir:./data/sync-journal}")
+    private Path dir;
+
+    @Value("${sync.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${sync.journal.group-commit-ms:5}")
+    private long groupCommitMs;
+
+    /** guarded by this */
+    private final List<Segment> segments = new ArrayList<>();
+    /** guarded by this: segments written since the last flush */
+    private final List<Segment> unflushed = new ArrayList<>();
+    /** guarded by this: end of the last reserved record */
+    private long appendOffset;
+    /** guarded by this: reserved records in offset order, removed from the head once complete */
+    private final ArrayDeque<Reservation> pending = new ArrayDeque<>();
+    /** guarded by this: end of the complete records with no reserved record before them; flushed next */
+    private long completeOffset;
+
+    private volatile long durableOffset;
+    private final Object durableMonitor = new Object();
+    private volatile boolean running;
+    private Thread flusher;
+
+    // ========== LIFECYCLE ==========
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            segments.add(Segment.map(file, base, Files.size(file)));
+        }
+        if (segments.isEmpty()) {
+            segments.add(newSegment(0, 0));
+        }
+        recover();
+        Segment last = segments.get(segments.size() - 1);
+        appendOffset = last.base + last.end;
+        completeOffset = appendOffset;
+        durableOffset = appendOffset;
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "sync-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Sync journal open at {}, {} segment(s), end offset {}", dir.toAbsolutePath(), segments.size(),
+                appendOffset);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            flusher.join(5000);
+        }
+        flush();
+    }
+
+    /**
+     * Check every segment. A segment before the last must hold complete records right up to the base of the next
+     * one; where one stops short (a torn record, possibly followed by complete ones that were never acknowledged),
+     * the journal is cut: the rest of that segment is erased and the segments after it are deleted. The tail of the
+     * last segment is erased too, so stale bytes after the end can never line up as a record later.
+     */
+    private void recover() throws IOException {
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            segment.end = scan(segment);
+            boolean last = i == segments.size() - 1;
+            if (!last && segment.base + segment.end == segments.get(i + 1).base) {
+                continue;
+            }
+            if (!last) {
+                logger.warn("Sync journal: incomplete record at offset {}, dropping {} later segment(s)",
+                        segment.base + segment.end, segments.size() - i - 1);
+                while (segments.size() > i + 1) {
+                    Files.deleteIfExists(segments.remove(segments.size() - 1).file);
+                }
+            }
+            if (eraseFrom(segment, segment.end)) {
+                logger.warn("Sync journal: dropping incomplete record at offset {}", segment.base + segment.end);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Position after the last complete record of the segment
+     */
+    private static int scan(Segment segment) {
+        int position = 0;
+        while (position + HEADER_BYTES <= segment.capacity()) {
+            int length = segment.buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length > segment.capacity()
+                    || crc(segment.buffer, position + HEADER_BYTES, length) != segment.buffer.getInt(position + 4)) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    /**
+     * Zero the segment from position on
+     *
+     * @return false when it was all zeros already
+     */
+    private static boolean eraseFrom(Segment segment, int position) {
+        MappedByteBuffer buffer = segment.buffer;
+        int dirty = position;
+        while (dirty < segment.capacity() && buffer.get(dirty) == 0) {
+            dirty++;
+        }
+        if (dirty == segment.capacity()) {
+            return false;
+        }
+        byte[] zeros = new byte[COPY_BUFFER_BYTES];
+        for (int index = position; index < segment.capacity(); index += zeros.length) {
+            buffer.put(index, zeros, 0, Math.min(zeros.length, segment.capacity() - index));
+        }
+        buffer.force();
+        return true;
+    }
+
+    // ========== APPEND ==========
+    /**
+     * Append one sync payload of payloadLength bytes, read from payload straight into the segment, and wait until
+     * it is on disk
+     *
+     * @return offset of the record, the position the applier will report once it has been applied
+     * @throws EOFException when payload ends before payloadLength bytes; nothing is journaled
+     */
+    public long append(String entityType, boolean fullSnapshot, InputStream payload, long payloadLength)
+            throws IOException {
+        byte[] type = entityType.getBytes(StandardCharsets.UTF_8);
+        long length = 2L + type.length + 1 + payloadLength;
+        if (payloadLength < 0 || length + HEADER_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Payload too large for the sync journal");
+        }
+        if (!running) {
+            throw new IllegalStateException("Sync journal is closed");
+        }
+        Reservation reservation = reserve((int) length);
+        boolean copied = false;
+        try {
+            ByteBuffer buffer = reservation.segment.buffer;
+            int body = reservation.position + HEADER_BYTES;
+            buffer.putShort(body, (short) type.length);
+            buffer.put(body + 2, type);
+            buffer.put(body + 2 + type.length, (byte) (fullSnapshot ? 1 : 0));
+            copy(payload, buffer.slice(body + 3 + type.length, (int) payloadLength));
+            copied = true;
+        } finally {
+            complete(reservation, copied);
+        }
+        awaitDurable(reservation.end());
+        return reservation.offset();
+    }
+
+    private synchronized Reservation reserve(int length) throws IOException {
+        Segment segment = segments.get(segments.size() - 1);
+        if (segment.end + HEADER_BYTES + length > segment.capacity()) {
+            segment = roll(HEADER_BYTES + length);
+        }
+        Reservation reservation = new Reservation(segment, segment.end, length);
+        segment.end += HEADER_BYTES + length;
+        appendOffset = segment.base + segment.end;
+        pending.add(reservation);
+        return reservation;
+    }
+
+    /**
+     * Seal the record - as padding with an empty entity type when the body could not be copied - and move the
+     * complete offset past every finished record at the head of the queue
+     */
+    private void complete(Reservation reservation, boolean copied) {
+        ByteBuffer buffer = reservation.segment.buffer;
+        int body = reservation.position + HEADER_BYTES;
+        if (!copied) {
+            buffer.putShort(body, (short) 0);
+        }
+        buffer.putInt(reservation.position + 4, crc(buffer, body, reservation.length));
+        buffer.putInt(reservation.position, reservation.length);
+        synchronized (this) {
+            reservation.complete = true;
+            if (!unflushed.contains(reservation.segment)) {
+                unflushed.add(reservation.segment);
+            }
+            while (!pending.isEmpty() && pending.peek().complete) {
+                completeOffset = pending.poll().end();
+            }
+        }
+    }
+
+    private static void copy(InputStream in, ByteBuffer target) throws IOException {
+        byte[] chunk = new byte[COPY_BUFFER_BYTES];
+        while (target.hasRemaining()) {
+            int read = in.read(chunk, 0, Math.min(chunk.length, target.remaining()));
+            if (read < 0) {
+                throw new EOFException("Payload ended after " + target.position() + " of " + target.capacity() +
+                        " bytes");
+            }
+            target.put(chunk, 0, read);
+        }
+    }
+
+    private Segment roll(int recordBytes) throws IOException {
+        Segment segment = newSegment(appendOffset, recordBytes);
+        segments.add(segment);
+        return segment;
+    }
+
+    private Segment newSegment(long base, int minBytes) throws IOException {
+        long size = Math.max((long) segmentSizeMb << 20, minBytes);
+        Path file = dir.resolve(String.format("%020d", base) + SEGMENT_SUFFIX);
+        return Segment.map(file, base, size);
+    }
+
+    // ========== GROUP COMMIT ==========
+    private void flushLoop() {
+        while (running) {
+            try {
+                Thread.sleep(groupCommitMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush();
+        }
+    }
+
+    private void flush() {
+        long target;
+        List<Segment> dirty;
+        synchronized (this) {
+            target = completeOffset;
+            if (target == durableOffset) {
+                return;
+            }
+            dirty = new ArrayList<>(unflushed);
+            unflushed.clear();
+        }
+        for (Segment segment : dirty) {
+            segment.buffer.force();
+        }
+        synchronized (durableMonitor) {
+            durableOffset = target;
+            durableMonitor.notifyAll();
+        }
+    }
+
+    private void awaitDurable(long end) throws IOException {
+        synchronized (durableMonitor) {
+            while (durableOffset < end) {
+                if (!running) {
+                    throw new IOException("Sync journal closed before the record was flushed");
+                }
+                try {
+                    durableMonitor.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for the sync journal flush", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Block until a durable record exists at offset or the timeout passes
+     */
+    boolean awaitRecord(long offset, long timeoutMs) throws InterruptedException {
+        synchronized (durableMonitor) {
+            if (durableOffset <= offset) {
+                durableMonitor.wait(timeoutMs);
+            }
+            return durableOffset > offset;
+        }
+    }
+
+    // ========== READ ==========
+    /**
+     * The first durable record at or after offset, skipping padding, or null when the applier has caught up
+     */
+    synchronized Entry read(long offset) {
+        while (offset < durableOffset) {
+            Segment segment = null;
+            for (Segment candidate : segments) {
+                if (candidate.base <= offset) {
+                    segment = candidate;
+                }
+            }
+            if (segment == null) {
+                throw new IllegalStateException("Sync journal offset " + offset + " was already released");
+            }
+            int position = (int) (offset - segment.base);
+            ByteBuffer buffer = segment.buffer.duplicate();
+            int length = buffer.getInt(position);
+            int body = position + HEADER_BYTES;
+            long next = segment.base + body + length;
+            byte[] type = new byte[buffer.getShort(body)];
+            if (type.length == 0) {
+                // an append whose body never arrived in full
+                offset = next;
+                continue;
+            }
+            buffer.get(body + 2, type);
+            boolean fullSnapshot = buffer.get(body + 2 + type.length) == 1;
+            int payloadStart = body + 3 + type.length;
+            ByteBuffer payload = buffer.slice(payloadStart, body + length - payloadStart).asReadOnlyBuffer();
+            return new Entry(offset, next, new String(type, StandardCharsets.UTF_8), fullSnapshot, payload);
+        }
+        return null;
+    }
+
+    /**
+     * Delete the segments that lie entirely before offset (never the one being written)
+     */
+    synchronized void release(long offset) {
+        while (segments.size() > 1 && segments.get(1).base <= offset) {
+            Segment released = segments.remove(0);
+            try {
+                Files.deleteIfExists(released.file);
+            } catch (IOException e) {
+                logger.warn("Could not delete sync journal segment {}: {}", released.file, e.getMessage());
+            }
+        }
+    }
+
+    // ========== APPLIED OFFSET ==========
+    long loadAppliedOffset() throws IOException {
+        Path file = dir.resolve(APPLIED_OFFSET_FILE);
+        if (Files.exists(file)) {
+            return Long.parseLong(Files.readString(file).trim());
+        }
+        synchronized (this) {
+            return segments.get(0).base;
+        }
+    }
+
+    /**
+     * Write to a temp file, fsync, then rename over the old one - a crash leaves either offset, never half of one
+     */
+    void saveAppliedOffset(long offset) {
+        Path tmp = dir.resolve(APPLIED_OFFSET_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Long.toString(offset).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(tmp, dir.resolve(APPLIED_OFFSET_FILE), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ========== STATS ==========
+    long getDurableOffset() {
+        return durableOffset;
+    }
+
+    synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    private static int crc(ByteBuffer buffer, int from, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(from).limit(from + length));
+        return (int) crc.getValue();
+    }
+
+    record Entry(long offset, long nextOffset, String entityType, boolean fullSnapshot, ByteBuffer payload) {
+    }
+
+    /**
+     * Space taken for one record that is still being copied in
+     */
+    private static final class Reservation {
+        final Segment segment;
+        final int position;
+        final int length;
+        /** guarded by the journal */
+        boolean complete;
+
+        Reservation(Segment segment, int position, int length) {
+            this.segment = segment;
+            this.position = position;
+            this.length = length;
+        }
+
+        long offset() {
+            return segment.base + position;
+        }
+
+        long end() {
+            return segment.base + position + HEADER_BYTES + length;
+        }
+    }
+
+    private static final class Segment {
+        final Path file;
+        final long base;
+        final MappedByteBuffer buffer;
+        /** end of the complete records after open, then of the reserved ones; only meaningful for the last segment */
+        int end;
+
+        private Segment(Path file, long base, MappedByteBuffer buffer) {
+            this.file = file;
+            this.base = base;
+            this.buffer = buffer;
+        }
+
+        static Segment map(Path file, long base, long size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                // the mapping outlives the channel
+                return new Segment(file, base, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.tally.sync;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the {@link SyncJournal} into PostgreSQL on one background thread, in journal order, through the same
+ * MasterSyncEngine path as the /sync endpoints.
+ *
+ * The applied offset is saved after every record, so a restart replays from the first record not yet applied
+ * (a record interrupted mid-apply is applied again; the sync is idempotent). The client was acknowledged when the
+ * record was journaled, so a failed apply is retried - database outage, lock timeout behind a concurrent /sync,
+ * anything else - until it succeeds. Only a record that can never apply ({@link InvalidSyncPayloadException}:
+ * bad JSON, unknown entity type, record without keys) is logged, counted and skipped, so it cannot block the
+ * records behind it.
+ */
+@Component
+@ConditionalOnProperty(name = "sync.journal.enabled", havingValue = "true")
+public class SyncJournalApplier {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncJournalApplier.class);
+
+    private static final long RETRY_DELAY_MS = 5000;
+
+    @Autowired
+    private SyncJournal syncJournal;
+
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    private volatile long appliedOffset;
+    private volatile boolean running;
+    private Thread worker;
+
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private volatile String lastError;
+    private volatile LocalDateTime lastAppliedAt;
+
+    @PostConstruct
+    public void start() throws IOException {
+        appliedOffset = syncJournal.loadAppliedOffset();
+        running = true;
+        worker = new Thread(this::applyLoop, "sync-journal-applier");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(30_000);
+        }
+    }
+
+    private void applyLoop() {
+        while (running) {
+            try {
+                SyncJournal.Entry entry = syncJournal.read(appliedOffset);
+                if (entry == null) {
+                    syncJournal.awaitRecord(appliedOffset, 1000);
+                    continue;
+                }
+                if (apply(entry)) {
+                    appliedOffset = entry.nextOffset();
+                    syncJournal.saveAppliedOffset(appliedOffset);
+                    syncJournal.release(appliedOffset);
+                } else {
+                    Thread.sleep(RETRY_DELAY_MS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // journal I/O itself failed; keep the offset and try again
+                logger.error("Sync journal applier: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false when the record should be retried
+     */
+    private boolean apply(SyncJournal.Entry entry) {
+        try (InputStream json = new ByteBufferInputStream(entry.payload())) {
+            MasterDescriptor<?> descriptor = MasterDescriptors.byEntityType(entry.entityType())
+                    .orElseThrow(() -> new InvalidSyncPayloadException("Unknown entity type: " + entry.entityType()));
+            SyncResult result = masterSyncEngine.sync(descriptor, json, entry.fullSnapshot());
+            applied.incrementAndGet();
+            lastAppliedAt = LocalDateTime.now();
+            logger.debug("Applied journal record {}: {} {} in {} ms", entry.offset(), result.getTotalReceived(),
+                    entry.entityType(), result.getElapsedMs());
+            return true;
+        } catch (InvalidSyncPayloadException e) {
+            failed.incrementAndGet();
+            lastError = "Offset " + entry.offset() + ": " + e.getMessage();
+            logger.error("Skipping journal record {} ({}): {}", entry.offset(), entry.entityType(), e.getMessage());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // lock timeout, database outage, ...: the payload itself is fine, so it is never dropped
+            retried.incrementAndGet();
+            lastError = "Offset " + entry.offset() + ": " + e.getMessage();
+            logger.warn("Retrying journal record {} ({}) in {} ms: {}", entry.offset(), entry.entityType(),
+                    RETRY_DELAY_MS, e.getMessage());
+            return false;
+        }
+    }
+
+    // ========== STATS ==========
+    public Map<String, Object> getStats() {
+        long durable = syncJournal.getDurableOffset();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("durableOffset", durable);
+        stats.put("appliedOffset", appliedOffset);
+        stats.put("backlogBytes", durable - appliedOffset);
+        stats.put("segments", syncJournal.getSegmentCount());
+        stats.put("applied", applied.get());
+        stats.put("failed", failed.get());
+        stats.put("retried", retried.get());
+        stats.put("lastAppliedAt", lastAppliedAt);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
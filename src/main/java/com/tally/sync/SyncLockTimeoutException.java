@@ -0,0 +1,16 @@
+package com.tally.sync;
+
+/**
+ * The company's sync lock could not be taken within sync.lock.timeout-seconds because another sync of the same
+ * master held it; the sync can be retried once that one has finished
+ */
+public class SyncLockTimeoutException extends RuntimeException {
+
+    public SyncLockTimeoutException(String message) {
+        super(message);
+    }
+
+    public SyncLockTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
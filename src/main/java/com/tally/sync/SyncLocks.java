@@ -0,0 +1,230 @@
+package com.tally.sync;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serialises writes to one master of one company, held until the surrounding transaction ends.
+ *
+ * Two levels: a striped ReentrantLock queues callers on this node without touching the database, then
+ * pg_advisory_xact_lock(table, cmpId) excludes the other nodes and is released by Postgres on commit or
+ * rollback. Different companies, and different masters of one company (the parallel branches of a
+ * whole-company sync), never wait for each other unless they share a stripe.
+ *
+ * A transaction that locks several companies takes them through lockAll, in one global order (stripe, then cmpId),
+ * so two syncs whose payloads list the same companies in a different order cannot deadlock on each other.
+ *
+ * Waits are counted per company for GET /sync/companies/locks, and per master in Micrometer:
+ * tally.sync.lock.wait (timer, tags entity / contended) and tally.sync.lock.timeouts (counter, tags entity / scope,
+ * node for the stripe, cluster for the advisory lock).
+ */
+@Component
+public class SyncLocks {
+
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sync.lock.timeout-seconds:300}")
+    private long timeoutSeconds;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    private final Map<Long, CompanyLockStats> stats = new ConcurrentHashMap<>();
+
+    public SyncLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+    }
+
+    /**
+     * Lock the master of every given company until the current transaction completes, in the global lock order.
+     * The caller must not hold locks of this master it took before, or the order no longer protects it.
+     */
+    public void lockAll(MasterDescriptor<?> descriptor, Collection<Long> cmpIds) {
+        List<Long> ordered = new ArrayList<>(new HashSet<>(cmpIds));
+        for (Long cmpId : ordered) {
+            if (cmpId == null) {
+                throw new InvalidSyncPayloadException(descriptor.getEntityType() + " without cmpId cannot be synced");
+            }
+        }
+        ordered.sort(Comparator.<Long>comparingInt(cmpId -> stripeOf(descriptor.getTable(), cmpId))
+                .thenComparing(Comparator.naturalOrder()));
+        for (Long cmpId : ordered) {
+            lock(descriptor, cmpId);
+        }
+    }
+
+    /**
+     * Lock the master of the company until the current transaction completes.
+     * Waiting longer than sync.lock.timeout-seconds fails the caller with SyncLockTimeoutException instead of
+     * queueing forever.
+     */
+    public void lock(MasterDescriptor<?> descriptor, Long cmpId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Sync locks are held until commit and need a transaction");
+        }
+        if (cmpId == null) {
+            throw new InvalidSyncPayloadException(descriptor.getEntityType() + " without cmpId cannot be synced");
+        }
+        CompanyLockStats companyStats = stats.computeIfAbsent(cmpId, CompanyLockStats::new);
+        long started = System.nanoTime();
+        boolean contended = false;
+
+        ReentrantLock stripe = stripes[stripeOf(descriptor.getTable(), cmpId)];
+        if (!stripe.tryLock()) {
+            contended = true;
+            try {
+                if (!stripe.tryLock(timeoutSeconds, TimeUnit.SECONDS)) {
+                    companyStats.timeouts.incrementAndGet();
+                    timeouts(descriptor, "node").increment();
+                    throw new SyncLockTimeoutException("Timed out waiting for another " + descriptor.getEntityType() +
+                            " sync of company " + cmpId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SyncLockTimeoutException("Interrupted waiting for the " + descriptor.getEntityType() +
+                        " lock of company " + cmpId, e);
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stripe.unlock();
+            }
+        });
+
+        // ReentrantLock only covers this node; another instance may hold the company
+        int tableKey = descriptor.getTable().hashCode();
+        int companyKey = Long.hashCode(cmpId);
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?, ?)", Boolean.class, tableKey, companyKey))) {
+            contended = true;
+            try {
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '" + timeoutSeconds + "s'");
+                jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> null, tableKey, companyKey);
+                jdbcTemplate.execute("RESET lock_timeout");
+            } catch (DataAccessException e) {
+                companyStats.timeouts.incrementAndGet();
+                timeouts(descriptor, "cluster").increment();
+                throw new SyncLockTimeoutException("Timed out waiting for a " + descriptor.getEntityType() +
+                        " sync of company " + cmpId + " on another node", e);
+            }
+        }
+        long waitNanos = System.nanoTime() - started;
+        companyStats.record(contended, waitNanos);
+        Timer.builder("tally.sync.lock.wait")
+                .description("Time to acquire the sync lock of a company's master")
+                .tag("entity", descriptor.getEntityType())
+                .tag("contended", String.valueOf(contended))
+                .register(meterRegistry)
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Counter timeouts(MasterDescriptor<?> descriptor, String scope) {
+        return Counter.builder("tally.sync.lock.timeouts")
+                .description("Sync lock waits given up after sync.lock.timeout-seconds")
+                .tag("entity", descriptor.getEntityType())
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    private static int stripeOf(String table, Long cmpId) {
+        int h = 31 * table.hashCode() + Long.hashCode(cmpId);
+        h ^= h >>> 16;
+        return h & (STRIPES - 1);
+    }
+
+    // ========== STATS ==========
+    /**
+     * Companies that ever had to wait, longest total wait first
+     */
+    public List<CompanyLockStats> getContendedCompanies() {
+        List<CompanyLockStats> contended = new ArrayList<>();
+        for (CompanyLockStats companyStats : stats.values()) {
+            if (companyStats.getContended() > 0 || companyStats.getTimeouts() > 0) {
+                contended.add(companyStats);
+            }
+        }
+        contended.sort(Comparator.comparingLong(CompanyLockStats::getTotalWaitMs).reversed());
+        return contended;
+    }
+
+    public CompanyLockStats getStats(Long cmpId) {
+        return stats.getOrDefault(cmpId, new CompanyLockStats(cmpId));
+    }
+
+    /**
+     * Lock counters of one company since startup
+     */
+    public static class CompanyLockStats {
+        private final Long cmpId;
+        private final AtomicLong acquired = new AtomicLong();
+        private final AtomicLong contended = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        CompanyLockStats(Long cmpId) {
+            this.cmpId = cmpId;
+        }
+
+        void record(boolean wasContended, long waitNanos) {
+            acquired.incrementAndGet();
+            if (wasContended) {
+                contended.incrementAndGet();
+                totalWaitNanos.addAndGet(waitNanos);
+                maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            }
+        }
+
+        public Long getCmpId() {
+            return cmpId;
+        }
+
+        public long getAcquired() {
+            return acquired.get();
+        }
+
+        /** acquisitions that found the lock held and had to wait */
+        public long getContended() {
+            return contended.get();
+        }
+
+        public long getTimeouts() {
+            return timeouts.get();
+        }
+
+        public long getTotalWaitMs() {
+            return totalWaitNanos.get() / 1_000_000;
+        }
+
+        public long getMaxWaitMs() {
+            return maxWaitNanos.get() / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.tally.sync;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation of MasterSyncEngine, so every entry point (the /sync endpoints, sync jobs,
+ * company sync, the journal applier) is covered:
+ *
+ * tally.sync.duration     timer per sync, tags entity / payload_size / result
+ * tally.sync.records      counter, tags entity / payload_size / outcome (inserted, updated, unchanged, deleted, failed)
+ * tally.sync.throughput   records per second of each sync, tags entity / payload_size
+ * tally.sync.chunk        per-chunk latency histogram, tags entity / phase - parse (JSON deserialisation),
+ *                         write (key lookup + DB batches) and finish (deletions, hash tree, post-processors, per sync)
+ *
+ * payload_size buckets the records the sync received, a count the engine already has, so tagging costs no query:
+ * lt1k, 1k-10k, 10k-100k, gte100k. For a full snapshot that is the size of the company's master.
+ */
+@Component
+public class SyncMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // ========== PER CHUNK ==========
+    void parsed(MasterDescriptor<?> descriptor, long nanos) {
+        chunkTimer(descriptor, "parse").record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void written(MasterDescriptor<?> descriptor, long nanos) {
+        chunkTimer(descriptor, "write").record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void finished(MasterDescriptor<?> descriptor, long nanos) {
+        chunkTimer(descriptor, "finish").record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer chunkTimer(MasterDescriptor<?> descriptor, String phase) {
+        return Timer.builder("tally.sync.chunk")
+                .description("Time per chunk of a master sync, by phase")
+                .tag("entity", descriptor.getEntityType())
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // ========== PER SYNC ==========
+    void completed(MasterDescriptor<?> descriptor, SyncResult result, long nanos) {
+        String payloadSize = payloadSize(result.getTotalReceived());
+        syncTimer(descriptor, payloadSize, "success").record(nanos, TimeUnit.NANOSECONDS);
+        records(descriptor, payloadSize, "inserted").increment(result.getInserted());
+        records(descriptor, payloadSize, "updated").increment(result.getUpdated());
+        records(descriptor, payloadSize, "unchanged").increment(result.getUnchanged());
+        records(descriptor, payloadSize, "deleted").increment(result.getDeleted());
+        records(descriptor, payloadSize, "failed").increment(result.getFailed());
+        if (nanos > 0 && result.getTotalReceived() > 0) {
+            DistributionSummary.builder("tally.sync.throughput")
+                    .description("Records per second of one master sync")
+                    .baseUnit("records/s")
+                    .tag("entity", descriptor.getEntityType())
+                    .tag("payload_size", payloadSize)
+                    .register(meterRegistry)
+                    .record(result.getTotalReceived() * 1e9 / nanos);
+        }
+    }
+
+    /**
+     * @param records records read before the sync failed (chunks committed before the failure are not subtracted)
+     */
+    void failed(MasterDescriptor<?> descriptor, long records, long nanos) {
+        String payloadSize = payloadSize(records);
+        syncTimer(descriptor, payloadSize, "failure").record(nanos, TimeUnit.NANOSECONDS);
+        records(descriptor, payloadSize, "failed").increment(records);
+    }
+
+    private Timer syncTimer(MasterDescriptor<?> descriptor, String payloadSize, String result) {
+        return Timer.builder("tally.sync.duration")
+                .description("Wall time of one master sync")
+                .tag("entity", descriptor.getEntityType())
+                .tag("payload_size", payloadSize)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter records(MasterDescriptor<?> descriptor, String payloadSize, String outcome) {
+        return Counter.builder("tally.sync.records")
+                .description("Records received by master syncs, by outcome")
+                .tag("entity", descriptor.getEntityType())
+                .tag("payload_size", payloadSize)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String payloadSize(long records) {
+        if (records < 1_000) {
+            return "lt1k";
+        }
+        if (records < 10_000) {
+            return "1k-10k";
+        }
+        return records < 100_000 ? "10k-100k" : "gte100k";
+    }
+}
@@ -0,0 +1,18 @@
+package com.tally.sync;
+
+/**
+ * A sync was turned away because too many are running or waiting; answered with 429 and Retry-After
+ */
+public class SyncRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public SyncRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,79 @@
+package com.tally.sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk sync from Tally: totals plus a per-chunk breakdown, and the records the database rejected
+ */
+@Data
+@NoArgsConstructor
+public class SyncResult {
+
+    private String entityType;
+    private int totalReceived;
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    /** rows soft-deleted because a full snapshot no longer contained them */
+    private int deleted;
+    /** records the database rejected (e.g. a duplicate name); the rest of their chunk was still written */
+    private int failed;
+    private long elapsedMs;
+    private List<ChunkResult> chunks = new ArrayList<>();
+    /** the first MAX_LISTED_FAILURES rejected records */
+    private List<RecordFailure> failures = new ArrayList<>();
+
+    public static final int MAX_LISTED_FAILURES = 100;
+
+    public void addChunk(int size, int inserted, int updated, int unchanged) {
+        addChunk(size, inserted, updated, unchanged, 0);
+    }
+
+    public void addChunk(int size, int inserted, int updated, int unchanged, int failed) {
+        chunks.add(new ChunkResult(chunks.size(), size, inserted, updated, unchanged, failed));
+        this.totalReceived += size;
+        this.inserted += inserted;
+        this.updated += updated;
+        this.unchanged += unchanged;
+        this.failed += failed;
+    }
+
+    public void addFailure(Long cmpId, Long masterId, String reason) {
+        if (failures.size() < MAX_LISTED_FAILURES) {
+            failures.add(new RecordFailure(cmpId, masterId, reason));
+        }
+    }
+
+    /**
+     * Records accepted by the sync, including the ones skipped because their alterId had not moved
+     */
+    public int getTotalProcessed() {
+        return inserted + updated + unchanged;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChunkResult {
+        private int index;
+        private int size;
+        private int inserted;
+        private int updated;
+        private int unchanged;
+        private int failed;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordFailure {
+        private Long cmpId;
+        private Long masterId;
+        private String reason;
+    }
+}
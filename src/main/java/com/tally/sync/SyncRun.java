@@ -0,0 +1,72 @@
+package com.tally.sync;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * State of one MasterSyncEngine.sync call, shared by all of its chunks
+ */
+class SyncRun {
+
+    final Timestamp timestamp = Timestamp.valueOf(LocalDateTime.now());
+
+    /** companies with at least one inserted or updated row, handed to the post-processors */
+    final Set<Long> changedCompanies = new HashSet<>();
+
+    /**
+     * Companies found empty for this master when first seen -> masterIds already COPY-loaded in this run.
+     * Companies that already had rows are stored with a null value (looked up once, then always the upsert path).
+     */
+    final Map<Long, Set<Long>> initialLoads = new HashMap<>();
+
+    /** payload is the complete list of this master for its companies - anything stored but not sent was deleted */
+    final boolean fullSnapshot;
+
+    /** full snapshot only: masterIds received per company */
+    final Map<Long, MasterIds> seenMasterIds = new HashMap<>();
+
+    /** every company written by this run */
+    final Set<Long> companies = new HashSet<>();
+
+    /** companies whose sync lock the current chunk transaction already holds */
+    final Set<Long> lockedCompanies = new HashSet<>();
+
+    SyncRun(boolean fullSnapshot) {
+        this.fullSnapshot = fullSnapshot;
+    }
+
+    void seen(Long cmpId, long masterId) {
+        seenMasterIds.computeIfAbsent(cmpId, id -> new MasterIds()).add(masterId);
+    }
+
+    /**
+     * Record a written row: its company goes to the post-processors
+     */
+    void changed(Long cmpId) {
+        changedCompanies.add(cmpId);
+    }
+
+    /**
+     * Growable long[] - a company snapshot can hold hundreds of thousands of masterIds
+     */
+    static final class MasterIds {
+        private long[] values = new long[256];
+        private int size;
+
+        void add(long masterId) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = masterId;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.tally.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset pagination of the master list endpoints: ?sort=id|name&size=&cursor=
+ *
+ * A page is read with WHERE (sort key) > (last key of the previous page) ORDER BY sort key LIMIT size, so every
+ * page costs the same however deep into a large company it is (indexes: sql/alter_masters_add_keyset_indexes.sql).
+ * Name order uses the id as tie-breaker.
+ * The cursor is opaque to clients: Base64url of the sort and the keys of the last row returned.
+ * Controllers take a KeysetPage parameter, resolved from the query string by PagingConfig.
+ */
+public final class KeysetPage {
+
+    public static final int DEFAULT_SIZE = 100;
+    public static final int MAX_SIZE = 500;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String SORT_ID = "id";
+    private static final String SORT_NAME = "name";
+    private static final ObjectMapper CURSOR_MAPPER = new ObjectMapper();
+
+    private final String sort;
+    private final int size;
+    /** keys of the last row of the previous page, null for the first page */
+    private final Map<String, Object> after;
+
+    private KeysetPage(String sort, int size, Map<String, Object> after) {
+        this.sort = sort;
+        this.size = size;
+        this.after = after;
+    }
+
+    /**
+     * @param cursor nextCursor of the previous page, null for the first page
+     * @param size   rows per page, capped at MAX_SIZE
+     * @param sort   "id" or "name"; may be omitted when a cursor is given
+     * @throws InvalidPageException for an unknown sort, a malformed cursor, or a cursor of another sort
+     */
+    public static KeysetPage of(String cursor, Integer size, String sort) {
+        if (sort != null && !SORT_ID.equals(sort) && !SORT_NAME.equals(sort)) {
+            throw new InvalidPageException("Unknown sort '" + sort + "', expected id or name");
+        }
+        int pageSize = size == null ? DEFAULT_SIZE : Math.max(1, Math.min(size, MAX_SIZE));
+        if (cursor == null || cursor.isBlank()) {
+            return new KeysetPage(sort != null ? sort : SORT_ID, pageSize, null);
+        }
+        Cursor decoded = decode(cursor);
+        if (sort != null && !sort.equals(decoded.sort)) {
+            throw new InvalidPageException("Cursor belongs to sort=" + decoded.sort);
+        }
+        return new KeysetPage(decoded.sort, pageSize, decoded.keys);
+    }
+
+    /**
+     * Read one page; nameProperty and idProperty are the entity's attribute names
+     */
+    public <T> Window<T> scroll(String nameProperty, String idProperty, Query<T> query) {
+        Sort order = order(nameProperty, idProperty);
+        ScrollPosition position = position(order);
+        // Spring Data's keyset predicate for (name, id) is name > ? OR (name = ? AND id > ?), which PostgreSQL
+        // cannot turn into an index range; the extra name >= ? gives the scan its starting point
+        String nameFrom = SORT_NAME.equals(sort) && after != null ? String.valueOf(after.get(nameProperty)) : "";
+        return query.scroll(nameFrom, position, order, Limit.of(size));
+    }
+
+    public boolean isSortedByName() {
+        return SORT_NAME.equals(sort);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Keys of the last row of the previous page in sort order - [id] or [name, id] - or null on the first page,
+     * for queries that page in SQL themselves
+     */
+    public List<Object> keysAfter(String nameProperty, String idProperty) {
+        if (after == null) {
+            return null;
+        }
+        return List.copyOf(((KeysetScrollPosition) position(order(nameProperty, idProperty))).getKeys().values());
+    }
+
+    private Sort order(String nameProperty, String idProperty) {
+        return SORT_NAME.equals(sort) ? Sort.by(nameProperty, idProperty) : Sort.by(idProperty);
+    }
+
+    private ScrollPosition position(Sort order) {
+        if (after == null) {
+            return ScrollPosition.keyset();
+        }
+        if (after.size() != order.toList().size()) {
+            throw new InvalidPageException("Cursor does not belong to this list");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order property : order) {
+            Object value = after.get(property.getProperty());
+            if (value == null) {
+                throw new InvalidPageException("Cursor does not belong to this list");
+            }
+            // JSON has no long: ids come back as Integer when they are small
+            keys.put(property.getProperty(), value instanceof Number number ? number.longValue() : value);
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * Cursor for the page after window, null when it was the last one
+     */
+    public String nextCursor(Window<?> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        return cursorAfter(last.getKeys());
+    }
+
+    /**
+     * Cursor for the page after the row with these keys (property name to value, as in keysAfter)
+     */
+    public String cursorAfter(Map<String, ?> keys) {
+        Map<String, Object> cursor = new LinkedHashMap<>();
+        cursor.put("s", sort);
+        cursor.put("k", keys);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(CURSOR_MAPPER.writeValueAsBytes(cursor));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode page cursor", e);
+        }
+    }
+
+    /**
+     * Page fields of a map response: data, count, hasMore, nextCursor
+     */
+    public void putPage(Map<String, Object> response, Window<?> window) {
+        response.put("data", window.getContent());
+        response.put("count", window.size());
+        response.put("hasMore", window.hasNext());
+        response.put("nextCursor", nextCursor(window));
+    }
+
+    /**
+     * For the endpoints that answer with a bare JSON array: the body stays an array and the cursor of the next
+     * page goes in the X-Next-Cursor header (absent on the last page)
+     */
+    public <T> ResponseEntity<List<T>> response(Window<T> window) {
+        String next = nextCursor(window);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (next != null) {
+            builder.header(NEXT_CURSOR_HEADER, next);
+        }
+        return builder.body(window.getContent());
+    }
+
+    private static Cursor decode(String cursor) {
+        try {
+            Map<String, Object> decoded = CURSOR_MAPPER.readValue(
+                    Base64.getUrlDecoder().decode(cursor.trim().getBytes(StandardCharsets.US_ASCII)),
+                    new TypeReference<Map<String, Object>>() { });
+            Object sort = decoded.get("s");
+            if ((SORT_ID.equals(sort) || SORT_NAME.equals(sort)) && decoded.get("k") instanceof Map<?, ?> keys) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> typed = (Map<String, Object>) keys;
+                return new Cursor((String) sort, typed);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // fall through
+        }
+        throw new InvalidPageException("Invalid cursor");
+    }
+
+    private record Cursor(String sort, Map<String, Object> keys) {
+    }
+
+    /**
+     * Bad sort or cursor; answered with 400 and the message by GlobalExceptionHandler
+     */
+    public static class InvalidPageException extends IllegalArgumentException {
+        public InvalidPageException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A repository query taking the lowest name of the page ("" unless sorted by name), the keyset position,
+     * order and page size, e.g. ledgerRepository::findByLedNameGreaterThanEqual
+     */
+    @FunctionalInterface
+    public interface Query<T> {
+        Window<T> scroll(String nameFrom, ScrollPosition position, Sort sort, Limit limit);
+    }
+}
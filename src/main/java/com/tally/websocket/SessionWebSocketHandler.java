@@ -231,12 +231,15 @@ public class SessionWebSocketHandler extends TextWebSocketHandler {
     }
     
     /**
-     * Send message to WebSocket client
+     * Send message to WebSocket client. Serialized per session - sync job threads push
+     * progress while the handler may be answering a heartbeat.
      */
     private void sendMessage(WebSocketSession session, Map<String, Object> data) throws IOException {
         if (session.isOpen()) {
             String json = objectMapper.writeValueAsString(data);
-            session.sendMessage(new TextMessage(json));
+            synchronized (session) {
+                session.sendMessage(new TextMessage(json));
+            }
         }
     }
     
@@ -270,6 +273,23 @@ public class SessionWebSocketHandler extends TextWebSocketHandler {
         }
     }
     
+    /**
+     * Push a message to the user's session, if connected (used for sync job progress)
+     */
+    public boolean sendToUser(Long userId, Map<String, Object> data) {
+        WebSocketSession session = userId != null ? userSessions.get(userId) : null;
+        if (session == null || !session.isOpen()) {
+            return false;
+        }
+        try {
+            sendMessage(session, data);
+            return true;
+        } catch (Exception e) {
+            System.err.println("❌ Error sending message to user " + userId + ": " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Parse query string into map with URL decoding
      */
@@ -0,0 +1,59 @@
+package com.tally;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Base of the tests that run the application against PostgreSQL (see PostgresTestDatabase). Every test works in
+ * companies of its own, so the tests share one schema and one Spring context without cleaning up.
+ */
+@SpringBootTest(properties = {
+        // the mail and SMS clients are only built, never called
+        "aws.ses.access-key=test", "aws.ses.secret-key=test", "aws.ses.from-email=test@example.com",
+        "aws.sns.region=us-east-1", "aws.sns.access-key=test", "aws.sns.secret-key=test"})
+public abstract class PostgresIntegrationTest {
+
+    private static final AtomicLong NEXT_COMPANY = new AtomicLong(1);
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    /**
+     * Skip rather than fail on a machine without a database; runs before the Spring context is loaded
+     */
+    @BeforeAll
+    static void requireDatabase() {
+        assumeTrue(PostgresTestDatabase.isAvailable(), "No Docker and no -Dtest.database.url");
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry);
+    }
+
+    /**
+     * Insert a company (and the user owning it) and return its cmpId
+     */
+    protected long newCompany() {
+        long n = NEXT_COMPANY.getAndIncrement();
+        Long userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (username, email, licence_no, password) VALUES (?, ?, ?, 'x') RETURNING userid",
+                Long.class, "it-user-" + n, "it" + n + "@example.com", 900_000 + n);
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO companies (userid, company_guid, name, address_line_1, financial_year_start, books_start) "
+                        + "VALUES (?, ?, ?, 'x', DATE '2026-04-01', DATE '2026-04-01') RETURNING cmpid",
+                Long.class, userId, "it-company-" + n, "Company " + n);
+    }
+
+    protected long userOf(long cmpId) {
+        return jdbcTemplate.queryForObject("SELECT userid FROM companies WHERE cmpid = ?", Long.class, cmpId);
+    }
+}
@@ -0,0 +1,104 @@
+package com.tally;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * PostgreSQL for the integration tests: the database given with -Dtest.database.url (plus test.database.username
+ * and test.database.password, postgres/postgres by default), otherwise a Testcontainers container when Docker is
+ * available. The public schema is dropped and rebuilt from the sql/ scripts once per JVM, so the URL must point at
+ * a throwaway database.
+ */
+public final class PostgresTestDatabase {
+
+    /** the sql/ scripts in dependency order (truncate_all_masters.sql is a maintenance script, not schema) */
+    private static final List<String> SCRIPTS = List.of(
+            "create_users_table.sql",
+            "alter_users_table.sql",
+            "create_companies_table.sql",
+            "create_company_sync_status_table.sql",
+            "create_groups_table.sql",
+            "create_ledgers_table.sql",
+            "create_currency_table.sql",
+            "create_units_table.sql",
+            "create_inventory_tables.sql",
+            "create_taxunit_table.sql",
+            "create_vouchertype_table.sql",
+            "create_costcategory_table.sql",
+            "create_costcentre_table.sql",
+            "alter_masters_add_is_deleted.sql",
+            "alter_masters_add_master_unique.sql",
+            "alter_masters_pooled_sequences.sql",
+            "alter_masters_add_keyset_indexes.sql",
+            "create_master_watermark_table.sql",
+            "create_master_sync_hash_table.sql");
+
+    private static String url;
+    private static String username;
+    private static String password;
+
+    private PostgresTestDatabase() {
+    }
+
+    /**
+     * False on a machine without Docker when no database was given
+     */
+    public static boolean isAvailable() {
+        return System.getProperty("test.database.url") != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    /**
+     * Point the Spring context at the test database, creating the schema on first use
+     */
+    public static synchronized void register(DynamicPropertyRegistry registry) {
+        if (url == null) {
+            start();
+            createSchema();
+        }
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> username);
+        registry.add("spring.datasource.password", () -> password);
+    }
+
+    private static void start() {
+        String configured = System.getProperty("test.database.url");
+        if (configured != null) {
+            url = configured;
+            username = System.getProperty("test.database.username", "postgres");
+            password = System.getProperty("test.database.password", "postgres");
+            return;
+        }
+        // stopped by Testcontainers' reaper when the JVM exits
+        PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16-alpine");
+        container.start();
+        url = container.getJdbcUrl();
+        username = container.getUsername();
+        password = container.getPassword();
+    }
+
+    private static void createSchema() {
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+            for (String script : SCRIPTS) {
+                // the driver splits the script itself and respects the $$ bodies of the functions
+                statement.execute(Files.readString(Path.of("sql", script)));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create the test schema: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
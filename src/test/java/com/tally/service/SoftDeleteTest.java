@@ -0,0 +1,128 @@
+package com.tally.service;
+
+import com.tally.PostgresIntegrationTest;
+import com.tally.entity.Group;
+import com.tally.entity.Ledger;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import com.tally.util.KeysetPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Soft-deleted ledgers and groups: restored by the per-record save path, hidden from the company lists
+ */
+class SoftDeleteTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void savingADeletedLedgerAgainWithTheSameAlterIdRestoresIt() {
+        long cmpId = newCompany();
+        ledgerService.upsertLedger(ledger(cmpId, 1));
+        masterSyncEngine.delete(MasterDescriptors.LEDGER, cmpId, 1L);
+
+        ledgerService.upsertLedger(ledger(cmpId, 1));
+
+        assertFalse(isDeleted("ledgers", cmpId, 1));
+    }
+
+    @Test
+    void savingADeletedGroupAgainWithTheSameAlterIdRestoresIt() {
+        long cmpId = newCompany();
+        groupService.upsertGroup(group(cmpId, 1));
+        masterSyncEngine.delete(MasterDescriptors.GROUP, cmpId, 1L);
+
+        groupService.upsertGroup(group(cmpId, 1));
+
+        assertFalse(isDeleted("groups", cmpId, 1));
+    }
+
+    @Test
+    void savingALiveLedgerAgainWithTheSameAlterIdWritesNothing() {
+        long cmpId = newCompany();
+        ledgerService.upsertLedger(ledger(cmpId, 1));
+        Object updatedAt = jdbcTemplate.queryForObject(
+                "SELECT updated_at FROM ledgers WHERE cmpid = ? AND masterid = 1", Object.class, cmpId);
+
+        Ledger resent = ledger(cmpId, 1);
+        resent.setLedDescription("changed, but Tally did not move the alterId");
+        ledgerService.upsertLedger(resent);
+
+        assertEquals(updatedAt, jdbcTemplate.queryForObject(
+                "SELECT updated_at FROM ledgers WHERE cmpid = ? AND masterid = 1", Object.class, cmpId));
+    }
+
+    @Test
+    void companyListsAndExportsHideDeletedLedgersAndGroups() {
+        long cmpId = newCompany();
+        for (long masterId = 1; masterId <= 3; masterId++) {
+            ledgerService.upsertLedger(ledger(cmpId, masterId));
+            groupService.upsertGroup(group(cmpId, masterId));
+        }
+        masterSyncEngine.delete(MasterDescriptors.LEDGER, cmpId, 2L);
+        masterSyncEngine.delete(MasterDescriptors.GROUP, cmpId, 2L);
+
+        KeysetPage page = KeysetPage.of(null, 10, "name");
+        assertEquals(List.of(1L, 3L), ledgerService.getLedgersByCompany(cmpId, page).stream()
+                .map(Ledger::getMasterId).toList());
+        assertEquals(List.of(1L, 3L), groupService.getGroupsByCompany(cmpId, page).stream()
+                .map(Group::getMasterId).toList());
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<Ledger> ledgers = ledgerService.streamLedgersByCompany(cmpId);
+                 Stream<Group> groups = groupService.streamGroupsByCompany(cmpId)) {
+                assertEquals(List.of(1L, 3L), ledgers.map(Ledger::getMasterId).toList());
+                assertEquals(List.of(1L, 3L), groups.map(Group::getMasterId).toList());
+            }
+        });
+    }
+
+    private boolean isDeleted(String table, long cmpId, long masterId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT is_deleted IS TRUE FROM " + table + " WHERE cmpid = ? AND masterid = ?",
+                Boolean.class, cmpId, masterId);
+    }
+
+    private Ledger ledger(long cmpId, long masterId) {
+        Ledger ledger = new Ledger();
+        ledger.setUserId(userOf(cmpId));
+        ledger.setCmpId(cmpId);
+        ledger.setMasterId(masterId);
+        ledger.setAlterId(1L);
+        ledger.setGuid("ledger-" + cmpId + "-" + masterId);
+        ledger.setLedName("Ledger " + masterId);
+        return ledger;
+    }
+
+    private Group group(long cmpId, long masterId) {
+        Group group = new Group();
+        group.setUserId(userOf(cmpId));
+        group.setCmpId(cmpId);
+        group.setMasterId(masterId);
+        group.setAlterId(1L);
+        group.setGuid("group-" + cmpId + "-" + masterId);
+        group.setGrpName("Group " + masterId);
+        return group;
+    }
+}
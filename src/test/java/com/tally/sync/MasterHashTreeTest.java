@@ -0,0 +1,126 @@
+package com.tally.sync;
+
+import com.tally.PostgresIntegrationTest;
+import com.tally.entity.Godown;
+import com.tally.service.GodownService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The tree must match the live rows after every kind of write, each checked against a hash computed here from
+ * the table rather than by the code under test
+ */
+class MasterHashTreeTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MasterHashTree masterHashTree;
+
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private GodownService godownService;
+
+    @Test
+    void treeFollowsEveryWritePath() {
+        long cmpId = newCompany();
+        // masterIds 37 apart spread the rows over 44 buckets, two levels of nodes
+        List<Godown> godowns = godowns(cmpId, 300);
+        masterSyncEngine.sync(MasterDescriptors.GODOWN, godowns);
+        assertTreeMatchesTable(cmpId);
+
+        Godown edited = godowns(cmpId, 300).get(10);
+        edited.setAlterId(7L);
+        godownService.upsert(edited);
+        assertTreeMatchesTable(cmpId);
+
+        masterSyncEngine.delete(MasterDescriptors.GODOWN, cmpId, godowns.get(20).getMasterId());
+        assertTreeMatchesTable(cmpId);
+
+        jdbcTemplate.update("UPDATE godowns SET alterid = alterid + 1 WHERE cmpid = ? AND masterid < 1000", cmpId);
+        assertTreeMatchesTable(cmpId);
+
+        // resending restores the deleted row and rolls the other alterIds back
+        masterSyncEngine.sync(MasterDescriptors.GODOWN, godowns(cmpId, 300));
+        assertTreeMatchesTable(cmpId);
+    }
+
+    @Test
+    void treeOfExistingRowsIsBuiltOnFirstRead() {
+        long cmpId = newCompany();
+        masterSyncEngine.sync(MasterDescriptors.GODOWN, godowns(cmpId, 50));
+        // a tree left partial by an older version: buckets exist but the company was never marked built
+        jdbcTemplate.update("DELETE FROM master_sync_hash_built WHERE cmpid = ?", cmpId);
+        jdbcTemplate.update("DELETE FROM master_sync_hash WHERE cmpid = ? AND bucket > 2", cmpId);
+
+        assertTreeMatchesTable(cmpId);
+    }
+
+    @Test
+    void childrenAddUpToTheRoot() {
+        long cmpId = newCompany();
+        masterSyncEngine.sync(MasterDescriptors.GODOWN, godowns(cmpId, 300));
+
+        MasterHashTree.HashNode root = masterHashTree.root(MasterDescriptors.GODOWN, cmpId);
+        List<MasterHashTree.HashNode> children =
+                masterHashTree.children(MasterDescriptors.GODOWN, cmpId, root.level(), root.node());
+        long xor = 0;
+        long count = 0;
+        for (MasterHashTree.HashNode child : children) {
+            xor ^= Long.parseUnsignedLong(child.hash(), 16);
+            count += child.masterCount();
+        }
+        assertEquals(root.hash(), String.format("%016x", xor));
+        assertEquals(root.masterCount(), count);
+    }
+
+    private void assertTreeMatchesTable(long cmpId) {
+        long xor = 0;
+        long count = 0;
+        for (long[] row : jdbcTemplate.query(
+                "SELECT masterid, alterid FROM godowns WHERE cmpid = ? AND is_deleted IS NOT TRUE",
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)}, cmpId)) {
+            xor ^= masterHash(row[0], row[1]);
+            count++;
+        }
+        MasterHashTree.HashNode root = masterHashTree.root(MasterDescriptors.GODOWN, cmpId);
+        assertEquals(String.format("%016x", xor), root.hash());
+        assertEquals(count, root.masterCount());
+    }
+
+    /**
+     * First 64 bits of md5("masterId:alterId")
+     */
+    private static long masterHash(long masterId, long alterId) {
+        try {
+            byte[] md5 = MessageDigest.getInstance("MD5")
+                    .digest((masterId + ":" + alterId).getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(md5).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<Godown> godowns(long cmpId, int count) {
+        long userId = userOf(cmpId);
+        return LongStream.rangeClosed(1, count).mapToObj(n -> {
+            Godown godown = new Godown();
+            godown.setUserId(userId);
+            godown.setCmpId(cmpId);
+            godown.setMasterId(n * 37);
+            godown.setAlterId(1L);
+            godown.setGuid("godown-" + cmpId + "-" + n * 37);
+            godown.setName("Godown " + n);
+            return godown;
+        }).toList();
+    }
+}
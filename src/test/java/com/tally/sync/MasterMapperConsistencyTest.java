@@ -0,0 +1,152 @@
+package com.tally.sync;
+
+import com.tally.mapper.CostCategoryMapper;
+import com.tally.mapper.CostCenterMapper;
+import com.tally.mapper.CurrencyMapper;
+import com.tally.mapper.GodownMapper;
+import com.tally.mapper.GroupMapper;
+import com.tally.mapper.LedgerMapper;
+import com.tally.mapper.StockCategoryMapper;
+import com.tally.mapper.StockGroupMapper;
+import com.tally.mapper.StockItemMapper;
+import com.tally.mapper.TaxUnitMapper;
+import com.tally.mapper.UnitsMapper;
+import com.tally.mapper.VoucherTypeMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mapstruct.factory.Mappers;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The per-record upserts skip the save when MasterChangeDetector finds no difference in the descriptor's updatable
+ * columns, and otherwise copy the record with the mapper's copySyncFields. Both lists are maintained by hand, so
+ * for every master each entity property is changed on its own and the two must agree on which ones matter:
+ * a property the mapper copies but the descriptor does not compare would never reach the table.
+ *
+ * Columns updated with a fixed expression (is_active = TRUE, is_deleted = FALSE, the sync metadata) are set by the
+ * callers, not copied, so the mapper must leave them alone.
+ */
+class MasterMapperConsistencyTest {
+
+    /** keys of the upsert: matched on rather than compared (an equal alterId skips the record before this check) */
+    private static final Set<String> KEYS = Set.of("cmpId", "masterId", "alterId");
+
+    static Stream<Arguments> masters() {
+        return Stream.of(
+                master(MasterDescriptors.GROUP, Mappers.getMapper(GroupMapper.class)::copySyncFields),
+                master(MasterDescriptors.LEDGER, Mappers.getMapper(LedgerMapper.class)::copySyncFields),
+                master(MasterDescriptors.CURRENCY, Mappers.getMapper(CurrencyMapper.class)::copySyncFields),
+                master(MasterDescriptors.UNITS, Mappers.getMapper(UnitsMapper.class)::copySyncFields),
+                master(MasterDescriptors.STOCK_GROUP, Mappers.getMapper(StockGroupMapper.class)::copySyncFields),
+                master(MasterDescriptors.STOCK_CATEGORY, Mappers.getMapper(StockCategoryMapper.class)::copySyncFields),
+                master(MasterDescriptors.GODOWN, Mappers.getMapper(GodownMapper.class)::copySyncFields),
+                master(MasterDescriptors.STOCK_ITEM, Mappers.getMapper(StockItemMapper.class)::copySyncFields),
+                master(MasterDescriptors.TAX_UNIT, Mappers.getMapper(TaxUnitMapper.class)::copySyncFields),
+                master(MasterDescriptors.VOUCHER_TYPE, Mappers.getMapper(VoucherTypeMapper.class)::copySyncFields),
+                master(MasterDescriptors.COST_CATEGORY, Mappers.getMapper(CostCategoryMapper.class)::copySyncFields),
+                master(MasterDescriptors.COST_CENTER, Mappers.getMapper(CostCenterMapper.class)::copySyncFields));
+    }
+
+    private static <T> Arguments master(MasterDescriptor<T> descriptor, BiConsumer<T, T> copySyncFields) {
+        return Arguments.of(descriptor.getEntityType(), descriptor, copySyncFields);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("masters")
+    <T> void changeDetectionComparesWhatTheMapperCopies(String entityType, MasterDescriptor<T> descriptor,
+                                                        BiConsumer<T, T> copySyncFields) throws Exception {
+        Set<String> compared = new TreeSet<>();
+        Set<String> copied = new TreeSet<>();
+        T stored = filled(descriptor.getEntityClass());
+        for (PropertyDescriptor property : properties(descriptor.getEntityClass())) {
+            String name = property.getName();
+            if (KEYS.contains(name)) {
+                continue;
+            }
+            T incoming = filled(descriptor.getEntityClass());
+            property.getWriteMethod().invoke(incoming, otherValue(property));
+
+            for (MasterColumn<T> column : descriptor.getColumns()) {
+                if (column.isCopiedOnUpdate()
+                        && !Objects.equals(column.getter().apply(stored), column.getter().apply(incoming))) {
+                    compared.add(name);
+                }
+            }
+            T target = filled(descriptor.getEntityClass());
+            copySyncFields.accept(incoming, target);
+            if (!Objects.equals(property.getReadMethod().invoke(target), value(property))) {
+                copied.add(name);
+            }
+        }
+
+        assertEquals(copied, compared, entityType + ": properties copied by the mapper vs compared by the descriptor");
+    }
+
+    private static <T> T filled(Class<T> entityClass) throws Exception {
+        T entity = entityClass.getDeclaredConstructor().newInstance();
+        for (PropertyDescriptor property : properties(entityClass)) {
+            property.getWriteMethod().invoke(entity, value(property));
+        }
+        return entity;
+    }
+
+    private static List<PropertyDescriptor> properties(Class<?> entityClass) throws IntrospectionException {
+        List<PropertyDescriptor> properties = new ArrayList<>();
+        for (PropertyDescriptor property : Introspector.getBeanInfo(entityClass, Object.class).getPropertyDescriptors()) {
+            if (property.getReadMethod() != null && property.getWriteMethod() != null) {
+                properties.add(property);
+            }
+        }
+        return properties;
+    }
+
+    private static Object value(PropertyDescriptor property) {
+        return sample(property, 1);
+    }
+
+    private static Object otherValue(PropertyDescriptor property) {
+        return sample(property, 2);
+    }
+
+    private static Object sample(PropertyDescriptor property, int n) {
+        Class<?> type = property.getPropertyType();
+        if (type == String.class) {
+            return "value " + n;
+        }
+        if (type == Long.class || type == long.class) {
+            return (long) n;
+        }
+        if (type == Integer.class || type == int.class) {
+            return n;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return n == 1;
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal.valueOf(n);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.of(2026, 4, n);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.of(2026, 4, n, 0, 0);
+        }
+        throw new IllegalArgumentException("No sample value for " + property.getName() + " of type " + type);
+    }
+}
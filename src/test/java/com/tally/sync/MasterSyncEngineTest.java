@@ -0,0 +1,187 @@
+package com.tally.sync;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tally.PostgresIntegrationTest;
+import com.tally.entity.Godown;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts reported by the sync engine for each of its write paths: COPY of an empty company, batched upserts,
+ * the staging merge (chunks with at least 20 changes) and the full-snapshot soft delete
+ */
+@TestPropertySource(properties = {"sync.chunk-size=50", "sync.staging.threshold=20", "sync.lock.timeout-seconds=5"})
+class MasterSyncEngineTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void firstSyncInsertsAndResendIsUnchanged() {
+        long cmpId = newCompany();
+        List<Godown> godowns = godowns(cmpId, 1, 120);
+
+        SyncResult first = masterSyncEngine.sync(MasterDescriptors.GODOWN, godowns);
+        assertCounts(first, 120, 0, 0, 0);
+        assertEquals(120, activeRows(cmpId));
+
+        SyncResult resend = masterSyncEngine.sync(MasterDescriptors.GODOWN, godowns(cmpId, 1, 120));
+        assertCounts(resend, 0, 0, 120, 0);
+    }
+
+    @Test
+    void newAndExistingCompaniesInOneSync() {
+        long existing = newCompany();
+        long fresh = newCompany();
+        masterSyncEngine.sync(MasterDescriptors.GODOWN, godowns(existing, 1, 30));
+
+        // the new company's records are split over several chunks; all of them must still be COPY-loaded
+        List<Godown> records = new ArrayList<>(godowns(existing, 1, 40));
+        records.addAll(godowns(fresh, 1, 80));
+        SyncResult result = masterSyncEngine.sync(MasterDescriptors.GODOWN, records);
+
+        assertCounts(result, 10 + 80, 0, 30, 0);
+        assertEquals(40, activeRows(existing));
+        assertEquals(80, activeRows(fresh));
+    }
+
+    @Test
+    void changedAlterIdsAreUpdated() {
+        long cmpId = newCompany();
+        masterSyncEngine.sync(MasterDescriptors.GODOWN, godowns(cmpId, 1, 100));
+
+        List<Godown> records = godowns(cmpId, 1, 103);
+        // 30 changes in the first chunk go through the staging merge, 5 in the second through the upsert
+        for (int i = 0; i < 30; i++) {
+            edit(records.get(i));
+        }
+        for (int i = 50; i < 55; i++) {
+            edit(records.get(i));
+        }
+        SyncResult result = masterSyncEngine.sync(MasterDescriptors.GODOWN, records);
+
+        assertCounts(result, 3, 35, 65, 0);
+        assertEquals(35, (long) jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM godowns WHERE cmpid = ? AND address = 'moved'", Long.class, cmpId));
+        assertEquals(103, activeRows(cmpId));
+    }
+
+    @Test
+    void fullSnapshotSoftDeletesMissingRowsAndResendRestoresThem() throws Exception {
+        long cmpId = newCompany();
+        masterSyncEngine.sync(MasterDescriptors.GODOWN, godowns(cmpId, 1, 120));
+
+        SyncResult snapshot = masterSyncEngine.sync(MasterDescriptors.GODOWN, json(godowns(cmpId, 1, 100)), true);
+        assertCounts(snapshot, 0, 0, 100, 20);
+        assertEquals(100, activeRows(cmpId));
+
+        // a soft-deleted row counts as changed even though its alterId has not moved
+        SyncResult resend = masterSyncEngine.sync(MasterDescriptors.GODOWN, json(godowns(cmpId, 1, 120)), false);
+        assertCounts(resend, 0, 20, 100, 0);
+        assertEquals(120, activeRows(cmpId));
+    }
+
+    @Test
+    void deleteByMasterIdSoftDeletesOnce() {
+        long cmpId = newCompany();
+        masterSyncEngine.sync(MasterDescriptors.GODOWN, godowns(cmpId, 1, 3));
+
+        assertTrue(masterSyncEngine.delete(MasterDescriptors.GODOWN, cmpId, 2L));
+        assertEquals(false, masterSyncEngine.delete(MasterDescriptors.GODOWN, cmpId, 2L));
+        assertEquals(2, activeRows(cmpId));
+    }
+
+    @Test
+    void payloadsListingCompaniesInOppositeOrderDoNotDeadlock() throws Exception {
+        long first = newCompany();
+        long second = newCompany();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (long alterId = 1; alterId <= 20; alterId++) {
+                // one chunk each, both companies in it: locked in payload order the two syncs wait for each other
+                List<Godown> forward = new ArrayList<>(godowns(first, 1, 25));
+                forward.addAll(godowns(second, 1, 25));
+                List<Godown> backward = new ArrayList<>(godowns(second, 26, 50));
+                backward.addAll(godowns(first, 26, 50));
+                for (Godown godown : forward) {
+                    godown.setAlterId(alterId);
+                }
+                for (Godown godown : backward) {
+                    godown.setAlterId(alterId);
+                }
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<SyncResult> a = executor.submit(() -> {
+                    start.await();
+                    return masterSyncEngine.sync(MasterDescriptors.GODOWN, forward);
+                });
+                Future<SyncResult> b = executor.submit(() -> {
+                    start.await();
+                    return masterSyncEngine.sync(MasterDescriptors.GODOWN, backward);
+                });
+                assertEquals(0, a.get(30, TimeUnit.SECONDS).getFailed(), "failed");
+                assertEquals(0, b.get(30, TimeUnit.SECONDS).getFailed(), "failed");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(50, activeRows(first));
+        assertEquals(50, activeRows(second));
+    }
+
+    private void assertCounts(SyncResult result, int inserted, int updated, int unchanged, int deleted) {
+        assertEquals(inserted, result.getInserted(), "inserted");
+        assertEquals(updated, result.getUpdated(), "updated");
+        assertEquals(unchanged, result.getUnchanged(), "unchanged");
+        assertEquals(deleted, result.getDeleted(), "deleted");
+        assertEquals(0, result.getFailed(), () -> "failed: " + result.getFailures());
+    }
+
+    private long activeRows(long cmpId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM godowns WHERE cmpid = ? AND is_deleted IS NOT TRUE", Long.class, cmpId);
+    }
+
+    private ByteArrayInputStream json(List<Godown> records) throws Exception {
+        return new ByteArrayInputStream(objectMapper.writeValueAsBytes(records));
+    }
+
+    private static void edit(Godown godown) {
+        godown.setAlterId(godown.getAlterId() + 1);
+        godown.setAddress("moved");
+    }
+
+    /**
+     * Godowns with masterIds from..to of the company, alterId 1 for every master
+     */
+    List<Godown> godowns(long cmpId, long from, long to) {
+        long userId = userOf(cmpId);
+        return LongStream.rangeClosed(from, to).mapToObj(masterId -> {
+            Godown godown = new Godown();
+            godown.setUserId(userId);
+            godown.setCmpId(cmpId);
+            godown.setMasterId(masterId);
+            godown.setAlterId(1L);
+            godown.setGuid("godown-" + cmpId + "-" + masterId);
+            godown.setName("Godown " + masterId);
+            godown.setAddress("address " + masterId);
+            return godown;
+        }).toList();
+    }
+}
@@ -0,0 +1,231 @@
+package com.tally.sync;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyncJournalTest {
+
+    /** a bit more than half a 1 MB segment, so every second record rolls */
+    private static final int LARGE = 600 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private SyncJournal journal;
+
+    @AfterEach
+    void closeJournal() throws InterruptedException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void recordsReadBackInOrderAcrossSegments() throws IOException {
+        journal = open();
+        long first = append("ledger", payload('a', LARGE));
+        long second = append("group", payload('b', LARGE));
+        long third = append("ledger", payload('c', 10));
+
+        assertEquals(2, segmentFiles().size());
+        List<SyncJournal.Entry> entries = readAll(first);
+        assertEquals(List.of(first, second, third), entries.stream().map(SyncJournal.Entry::offset).toList());
+        assertEquals("group", entries.get(1).entityType());
+        assertArrayEquals(payload('c', 10), bytes(entries.get(2)));
+    }
+
+    @Test
+    void reopenKeepsCompleteRecords() throws Exception {
+        journal = open();
+        long first = append("ledger", payload('a', 100));
+        long second = append("ledger", payload('b', 100));
+        journal.close();
+
+        journal = open();
+        assertEquals(List.of(first, second), readAll(first).stream().map(SyncJournal.Entry::offset).toList());
+        assertEquals(second + (second - first), append("ledger", payload('c', 100)));
+    }
+
+    @Test
+    void tornTailRecordIsDroppedAndItsSpaceReused() throws Exception {
+        journal = open();
+        long first = append("ledger", payload('a', 100));
+        long torn = append("ledger", payload('b', 100));
+        long after = append("ledger", payload('c', 100));
+        journal.close();
+        // crash before the length of the second record was written; the third was never acknowledged
+        tear(torn);
+
+        journal = open();
+        assertEquals(List.of(first), readAll(first).stream().map(SyncJournal.Entry::offset).toList());
+        // a record of the same size lands where the torn one was; the stale third record must not come back
+        assertEquals(torn, append("ledger", payload('d', 100)));
+        journal.close();
+
+        journal = open();
+        List<SyncJournal.Entry> entries = readAll(first);
+        assertEquals(2, entries.size());
+        assertArrayEquals(payload('d', 100), bytes(entries.get(1)));
+        assertEquals(after, append("ledger", payload('e', 1)));
+    }
+
+    @Test
+    void tornRecordInEarlierSegmentCutsTheLaterOnes() throws Exception {
+        journal = open();
+        long first = append("ledger", payload('a', 100));
+        long torn = append("ledger", payload('b', LARGE));
+        append("ledger", payload('c', LARGE));
+        journal.close();
+        assertEquals(2, segmentFiles().size());
+        tear(torn);
+
+        journal = open();
+        assertEquals(1, segmentFiles().size());
+        assertEquals(List.of(first), readAll(first).stream().map(SyncJournal.Entry::offset).toList());
+        assertEquals(torn, append("ledger", payload('d', 100)));
+    }
+
+    @Test
+    void truncatedBodyLeavesPaddingThatReadersSkip() throws Exception {
+        journal = open();
+        long first = append("ledger", payload('a', 100));
+        assertThrows(EOFException.class, () -> journal.append("ledger", false,
+                new ByteArrayInputStream(payload('x', 50)), 100));
+        long third = append("group", payload('c', 100));
+
+        List<SyncJournal.Entry> entries = readAll(first);
+        assertEquals(List.of(first, third), entries.stream().map(SyncJournal.Entry::offset).toList());
+        journal.close();
+
+        journal = open();
+        assertEquals(List.of(first, third), readAll(first).stream().map(SyncJournal.Entry::offset).toList());
+    }
+
+    @Test
+    void recordIsAcknowledgedOnlyAfterEarlierSlowRecord() throws Exception {
+        journal = open();
+        PipedOutputStream slowBody = new PipedOutputStream();
+        PipedInputStream slowInput = new PipedInputStream(slowBody, 1024);
+        CompletableFuture<Long> slow = CompletableFuture.supplyAsync(() -> appendUnchecked(slowInput, 100));
+        awaitReserved(8 + 2 + "ledger".length() + 1 + 100);
+        CompletableFuture<Long> fast = CompletableFuture.supplyAsync(
+                () -> appendUnchecked(new ByteArrayInputStream(payload('f', 10)), 10));
+
+        // the fast record is complete, but not durable while the slow one before it is still arriving
+        Thread.sleep(200);
+        assertFalse(fast.isDone());
+        assertNull(journal.read(0));
+
+        slowBody.write(payload('s', 100));
+        slowBody.close();
+        assertEquals(0L, slow.get(5, TimeUnit.SECONDS));
+        assertTrue(fast.get(5, TimeUnit.SECONDS) > 0);
+        List<SyncJournal.Entry> entries = readAll(0);
+        assertArrayEquals(payload('s', 100), bytes(entries.get(0)));
+        assertArrayEquals(payload('f', 10), bytes(entries.get(1)));
+    }
+
+    // ========== HELPERS ==========
+    private SyncJournal open() throws IOException {
+        SyncJournal opened = new SyncJournal();
+        ReflectionTestUtils.setField(opened, "dir", dir);
+        ReflectionTestUtils.setField(opened, "segmentSizeMb", 1);
+        ReflectionTestUtils.setField(opened, "groupCommitMs", 1L);
+        opened.open();
+        return opened;
+    }
+
+    private long append(String entityType, byte[] payload) throws IOException {
+        return journal.append(entityType, false, new ByteArrayInputStream(payload), payload.length);
+    }
+
+    private long appendUnchecked(InputStream payload, int length) {
+        try {
+            return journal.append("ledger", false, payload, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void awaitReserved(long end) throws InterruptedException {
+        for (int i = 0; i < 500 && (long) ReflectionTestUtils.getField(journal, "appendOffset") < end; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private List<SyncJournal.Entry> readAll(long from) {
+        List<SyncJournal.Entry> entries = new ArrayList<>();
+        for (SyncJournal.Entry entry = journal.read(from); entry != null; entry = journal.read(entry.nextOffset())) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Zero the length of the record at offset, as if the process died before writing it
+     */
+    private void tear(long offset) throws IOException {
+        Path segment = null;
+        for (Path file : segmentFiles()) {
+            if (baseOf(file) <= offset) {
+                segment = file;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), offset - baseOf(segment));
+            channel.force(true);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    private static long baseOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - ".seg".length()));
+    }
+
+    private static byte[] payload(char fill, int size) {
+        byte[] payload = new byte[size];
+        Arrays.fill(payload, (byte) fill);
+        return payload;
+    }
+
+    private static byte[] bytes(SyncJournal.Entry entry) {
+        ByteBuffer payload = entry.payload().duplicate();
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,113 @@
+package com.tally.util;
+
+import com.tally.PostgresIntegrationTest;
+import com.tally.entity.Godown;
+import com.tally.service.GodownService;
+import com.tally.sync.MasterDescriptors;
+import com.tally.sync.MasterSyncEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Following nextCursor page by page must return every row of the list exactly once, in order
+ */
+class KeysetPageTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private GodownService godownService;
+
+    @Autowired
+    private MasterSyncEngine masterSyncEngine;
+
+    @Test
+    void pagesByIdCoverTheListOnce() {
+        long cmpId = companyWithGodowns(40);
+        assertEquals(expected(cmpId, "godown_id"), readAll(cmpId, "id", 7, null));
+    }
+
+    @Test
+    void pagesByNameCoverTheListOnceAcrossEqualNames() {
+        long cmpId = companyWithGodowns(40);
+        // six distinct names, so pages of 7 start and end in the middle of a run of equal names
+        assertEquals(expected(cmpId, "name, godown_id"), readAll(cmpId, "name", 7, null));
+    }
+
+    @Test
+    void rowsWrittenBetweenPagesDoNotShiftTheRest() {
+        long cmpId = companyWithGodowns(40);
+        List<Long> before = expected(cmpId, "name, godown_id");
+
+        List<Long> read = readAll(cmpId, "name", 7, () -> {
+            // "Godown 0" sorts before the cursor: with offset paging the next page would repeat a row
+            masterSyncEngine.sync(MasterDescriptors.GODOWN, godowns(cmpId, 1002, 1002));
+        });
+
+        List<Long> readOfBefore = new ArrayList<>(read);
+        readOfBefore.retainAll(before);
+        assertEquals(before, readOfBefore);
+    }
+
+    @Test
+    void cursorOfAnotherSortIsRejected() {
+        long cmpId = companyWithGodowns(10);
+        KeysetPage byName = KeysetPage.of(null, 3, "name");
+        String cursor = byName.nextCursor(godownService.getByCmpId(cmpId, byName));
+
+        assertThrows(KeysetPage.InvalidPageException.class, () -> KeysetPage.of(cursor, 3, "id"));
+    }
+
+    private List<Long> readAll(long cmpId, String sort, int size, Runnable afterFirstPage) {
+        List<Long> ids = new ArrayList<>();
+        KeysetPage page = KeysetPage.of(null, size, sort);
+        while (true) {
+            Window<Godown> window = godownService.getByCmpId(cmpId, page);
+            window.forEach(godown -> ids.add(godown.getId()));
+            String cursor = page.nextCursor(window);
+            if (cursor == null) {
+                return ids;
+            }
+            if (afterFirstPage != null && ids.size() == size) {
+                afterFirstPage.run();
+            }
+            page = KeysetPage.of(cursor, size, null);
+        }
+    }
+
+    private List<Long> expected(long cmpId, String orderBy) {
+        return jdbcTemplate.queryForList(
+                "SELECT godown_id FROM godowns WHERE cmpid = ? AND is_deleted = FALSE ORDER BY " + orderBy,
+                Long.class, cmpId);
+    }
+
+    /**
+     * A company with count godowns, plus a soft-deleted one that no page may return
+     */
+    private long companyWithGodowns(int count) {
+        long cmpId = newCompany();
+        masterSyncEngine.sync(MasterDescriptors.GODOWN, godowns(cmpId, 1, count + 1));
+        masterSyncEngine.delete(MasterDescriptors.GODOWN, cmpId, 5L);
+        return cmpId;
+    }
+
+    private List<Godown> godowns(long cmpId, long from, long to) {
+        long userId = userOf(cmpId);
+        return LongStream.rangeClosed(from, to).mapToObj(masterId -> {
+            Godown godown = new Godown();
+            godown.setUserId(userId);
+            godown.setCmpId(cmpId);
+            godown.setMasterId(masterId);
+            godown.setAlterId(1L);
+            godown.setGuid("godown-" + cmpId + "-" + masterId);
+            godown.setName("Godown " + masterId % 6);
+            return godown;
+        }).toList();
+    }
+}